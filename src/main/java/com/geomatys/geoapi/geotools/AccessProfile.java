@@ -0,0 +1,320 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.opengis.metadata.Identifier;
+import org.opengis.referencing.ReferenceIdentifier;
+import org.opengis.referencing.crs.CRSAuthorityFactory;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.CoordinateOperationFactory;
+import org.opengis.util.FactoryException;
+
+
+/**
+ * Records the authority codes and the pairs of <abbr>CRS</abbr> used by the application, and replays them at startup.
+ * The profile file is a text file encoded in UTF-8 with one entry per line. An entry is either a single
+ * <abbr>CRS</abbr> code, or the codes of the source and target <abbr>CRS</abbr> of an operation separated
+ * by a space. The codes may be followed by {@code longitudeFirst=true|false} and {@code lenient=true|false}
+ * options, which specify the arguments of the factories to use for replaying the entry. Entries without
+ * those options are replayed with the arguments given to {@link #replay(Path, boolean, boolean)}.
+ * Lines starting with {@code #} are comments.
+ *
+ * <p>The objects created during a replay are not recorded, so that a profile contains only
+ * the codes and pairs actually used by the execution which recorded it.</p>
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+final class AccessProfile {
+    /**
+     * Whether the accesses to the factories are currently recorded.
+     */
+    static volatile boolean recording;
+
+    /**
+     * The codes of the <abbr>CRS</abbr> created since the recording started.
+     */
+    private static final Set<String> CODES = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The codes of the source and target <abbr>CRS</abbr> of the operations created since the recording started,
+     * separated by a space.
+     */
+    private static final Set<String> PAIRS = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The {@code longitudeFirst} argument of the factories which created the recorded <abbr>CRS</abbr>.
+     * Used for recording the axis order of the source and target of operations.
+     */
+    private static final Map<CoordinateReferenceSystem, Boolean> AXIS_ORDERS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Whether the current thread is replaying a profile. Accesses from those threads are not recorded.
+     */
+    private static final ThreadLocal<Boolean> REPLAYING = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    /**
+     * Code to use for initializing the database when the profile is empty.
+     */
+    private static final String DEFAULT_CODE = "EPSG:4326";
+
+    /**
+     * Do not allow instantiations of this class.
+     */
+    private AccessProfile() {
+    }
+
+    /**
+     * Returns the given code in the form to write in the profile.
+     *
+     * @param  code  the code as given by the user.
+     * @return the code to record.
+     */
+    private static String canonical(final String code) {
+        final String c = CompositeCRSAuthorityFactory.canonicalize(code);
+        return (c != null) ? c : ObjectCache.normalize(code);
+    }
+
+    /**
+     * Returns the given option in the form to write in the profile, or an empty string if unknown.
+     *
+     * @param  name   name of the option.
+     * @param  value  value of the option, or {@code null} if unknown.
+     * @return the option to append to an entry.
+     */
+    private static String option(final String name, final Boolean value) {
+        return (value != null) ? " " + name + '=' + value : "";
+    }
+
+    /**
+     * Records the code of an object created by an authority factory.
+     * Objects other than <abbr>CRS</abbr> are ignored.
+     * This method should be invoked only when {@link #recording} is {@code true}.
+     *
+     * @param  type            the GeoAPI interface of the created object.
+     * @param  code            the code of the created object.
+     * @param  object          the created object, or {@code null} if not yet available.
+     * @param  longitudeFirst  the argument of the factory which created the object, or {@code null} if unknown.
+     */
+    static void recordCode(final Class<?> type, final String code, final Object object, final Boolean longitudeFirst) {
+        if (CoordinateReferenceSystem.class.isAssignableFrom(type) && !REPLAYING.get()) {
+            CODES.add(canonical(code) + option("longitudeFirst", longitudeFirst));
+            if (longitudeFirst != null && object instanceof CoordinateReferenceSystem crs) {
+                AXIS_ORDERS.put(crs, longitudeFirst);
+            }
+        }
+    }
+
+    /**
+     * Records the source and target of an operation. The pair is ignored if a <abbr>CRS</abbr> has no identifier.
+     * The axis order is recorded only if both <abbr>CRS</abbr> have been recorded with the same axis order.
+     * This method should be invoked only when {@link #recording} is {@code true}.
+     *
+     * @param  source   the source <abbr>CRS</abbr> of the operation.
+     * @param  target   the target <abbr>CRS</abbr> of the operation.
+     * @param  lenient  the argument of the factory which created the operation, or {@code null} if unknown.
+     */
+    static void recordPair(final CoordinateReferenceSystem source, final CoordinateReferenceSystem target, final Boolean lenient) {
+        if (!REPLAYING.get()) {
+            final String s = code(source);
+            if (s != null) {
+                final String t = code(target);
+                if (t != null) {
+                    Boolean longitudeFirst = AXIS_ORDERS.get(source);
+                    if (longitudeFirst != null && !longitudeFirst.equals(AXIS_ORDERS.get(target))) {
+                        longitudeFirst = null;
+                    }
+                    PAIRS.add(s + ' ' + t + option("longitudeFirst", longitudeFirst) + option("lenient", lenient));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the first identifier of the given <abbr>CRS</abbr> as a code, or {@code null} if none.
+     */
+    private static String code(final CoordinateReferenceSystem crs) {
+        if (crs != null) {
+            for (final Identifier id : crs.getIdentifiers()) {
+                String code = id.getCode();
+                if (code != null) {
+                    if (id instanceof ReferenceIdentifier r && r.getCodeSpace() != null) {
+                        code = r.getCodeSpace() + ':' + code;
+                    }
+                    return canonical(code);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Discards all recorded codes and pairs.
+     */
+    static void clear() {
+        CODES.clear();
+        PAIRS.clear();
+        AXIS_ORDERS.clear();
+    }
+
+    /**
+     * Writes the codes and pairs recorded so far in the given file, replacing the previous content.
+     *
+     * @param  profile  the file where to write the profile.
+     * @throws IOException if an error occurred while writing the file.
+     */
+    static void write(final Path profile) throws IOException {
+        final var lines = new ArrayList<String>();
+        lines.add("# Authority codes and pairs of CRS used by a previous execution.");
+        lines.addAll(new TreeSet<>(CODES));
+        lines.addAll(new TreeSet<>(PAIRS));
+        Files.write(profile, lines, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * An entry of a profile.
+     *
+     * @param codes           a single <abbr>CRS</abbr> code, or the source and target codes of an operation.
+     * @param longitudeFirst  the argument of the <abbr>CRS</abbr> factory, or {@code null} for the default.
+     * @param lenient         the argument of the operation factory, or {@code null} for the default.
+     */
+    record Entry(String[] codes, Boolean longitudeFirst, Boolean lenient) {
+    }
+
+    /**
+     * Reads the entries of the given profile. Lines with unrecognized options or more than two codes are ignored.
+     *
+     * @param  profile  the file to read, or {@code null} if none.
+     * @return the entries of the profile, or an empty list if the file does not exist.
+     * @throws IOException if an error occurred while reading the file.
+     */
+    static List<Entry> read(final Path profile) throws IOException {
+        final var entries = new ArrayList<Entry>();
+        if (profile != null && Files.exists(profile)) {
+next:       for (String line : Files.readAllLines(profile, StandardCharsets.UTF_8)) {
+                line = line.strip();
+                if (!line.isEmpty() && line.charAt(0) != '#') {
+                    final var codes = new ArrayList<String>(2);
+                    Boolean longitudeFirst = null, lenient = null;
+                    for (final String token : line.split("\\s+")) {
+                        final int s = token.indexOf('=');
+                        if (s < 0) {
+                            codes.add(token);
+                            continue;
+                        }
+                        final String value = token.substring(s + 1);
+                        if (!value.equals("true") && !value.equals("false")) {
+                            continue next;
+                        }
+                        switch (token.substring(0, s)) {
+                            case "longitudeFirst": longitudeFirst = Boolean.valueOf(value); break;
+                            case "lenient":        lenient        = Boolean.valueOf(value); break;
+                            default: continue next;
+                        }
+                    }
+                    if (!codes.isEmpty() && codes.size() <= 2) {
+                        entries.add(new Entry(codes.toArray(String[]::new), longitudeFirst, lenient));
+                    }
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Creates all objects listed in the given profile. The first object is created in the current thread
+     * for initializing the database, then the other objects are created in parallel on virtual threads.
+     * Failures are ignored.
+     *
+     * @param  profile         the file to read, or {@code null} if none.
+     * @param  longitudeFirst  argument to give to {@link Services#getAuthorityFactory(boolean)} for entries without this option.
+     * @param  lenient         argument to give to {@link Services#getCoordinateOperationFactory(boolean)} for entries without this option.
+     * @return number of entries of the profile which have been successfully created.
+     * @throws IOException if an error occurred while reading the profile.
+     * @throws FactoryException if the factories cannot be obtained.
+     */
+    static int replay(final Path profile, final boolean longitudeFirst, final boolean lenient)
+            throws IOException, FactoryException
+    {
+        REPLAYING.set(Boolean.TRUE);
+        Services.getAuthorityFactory(longitudeFirst);       // Fail early if GeoTools is not available.
+        final List<Entry> entries = read(profile);
+        final var count = new AtomicInteger();
+        if (entries.isEmpty()) {
+            entries.add(new Entry(new String[] {DEFAULT_CODE}, null, null));
+        }
+        create(entries.get(0), longitudeFirst, lenient, count);
+        final var permits = new Semaphore(Runtime.getRuntime().availableProcessors());
+        try (ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("GeoTools warm-up ", 0).factory())) {
+            for (final Entry entry : entries.subList(1, entries.size())) {
+                executor.execute(() -> {
+                    REPLAYING.set(Boolean.TRUE);
+                    try {
+                        permits.acquire();
+                        try {
+                            create(entry, longitudeFirst, lenient, count);
+                        } finally {
+                            permits.release();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+        }
+        return count.get();
+    }
+
+    /**
+     * Creates the objects for one entry of a profile. Failures are ignored.
+     *
+     * @param  entry           a single <abbr>CRS</abbr> code, or the source and target codes of an operation.
+     * @param  longitudeFirst  argument to use if the entry does not specify the axis order.
+     * @param  lenient         argument to use if the entry does not specify the leniency.
+     * @param  count           the counter to increment if the creation succeed.
+     */
+    private static void create(final Entry entry, final boolean longitudeFirst, final boolean lenient, final AtomicInteger count) {
+        try {
+            final CRSAuthorityFactory crsFactory = Services.getAuthorityFactory(
+                    (entry.longitudeFirst() != null) ? entry.longitudeFirst() : longitudeFirst);
+            final String[] codes = entry.codes();
+            final CoordinateReferenceSystem source = crsFactory.createCoordinateReferenceSystem(codes[0]);
+            if (codes.length > 1) {
+                final CoordinateOperationFactory opFactory = Services.getCoordinateOperationFactory(
+                        (entry.lenient() != null) ? entry.lenient() : lenient);
+                opFactory.createOperation(source, crsFactory.createCoordinateReferenceSystem(codes[1]));
+            }
+            count.incrementAndGet();
+        } catch (FactoryException | RuntimeException e) {
+            // Ignore, as the application will report the error if it uses this code.
+        }
+    }
+}
@@ -0,0 +1,342 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import org.opengis.referencing.crs.CRSAuthorityFactory;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.CoordinateOperation;
+import org.opengis.referencing.operation.CoordinateOperationFactory;
+import org.opengis.util.FactoryException;
+
+
+/**
+ * Asynchronous creation of <abbr>CRS</abbr> and coordinate operations. The methods of this class
+ * never block the caller: the objects are created in background by the executor given at construction time,
+ * which uses virtual threads by default. If the authority factory is a view over a GeoTools factory,
+ * then objects that are already cached are returned immediately, and requests for an object which is
+ * being created by another thread are completed by that creation instead of starting a new one.
+ *
+ * <p>Cancelling a returned future affects only the caller which cancelled it. The thread which is creating
+ * the object is never interrupted, because the same creation may be awaited by other callers and because
+ * interrupting a thread during database access may close the connection. The creation continues in background
+ * and its result is cached for the next request. A creation which has not yet started when its future is
+ * cancelled is not started.</p>
+ *
+ * <p>For callers with latency constraints, the methods expecting a {@link Duration} argument wait for
+ * the result until a deadline and throw {@link DeadlineExceededException} if the deadline is exceeded.
+ * The creation continues in background, so that the object will be in the cache for the next request.
+ * Optionally, a request which is not completed after a delay can be hedged by sending the same request
+ * to a second factory. The first successful answer is kept.</p>
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+public final class AsyncFactory {
+    /**
+     * The executor used when none is specified. Each task runs in a new virtual thread.
+     */
+    private static final Executor VIRTUAL_THREADS = (task) -> Thread.ofVirtual().name("GeoTools factory").start(task);
+
+    /**
+     * The factory to use for creating <abbr>CRS</abbr> from authority codes.
+     */
+    private final CRSAuthorityFactory crsFactory;
+
+    /**
+     * The factory to use for creating coordinate operations.
+     */
+    private final CoordinateOperationFactory opFactory;
+
+    /**
+     * The executor of the creation tasks.
+     */
+    private final Executor executor;
+
+    /**
+     * The factory where to send the same request if the first factory did not answer after
+     * {@link #hedgeDelay}, or {@code null} if none.
+     */
+    private final CRSAuthorityFactory secondary;
+
+    /**
+     * Delay after which to send the same request to the {@linkplain #secondary} factory.
+     */
+    private final Duration hedgeDelay;
+
+    /**
+     * Creates an asynchronous view over the given factories, running the creations on virtual threads.
+     *
+     * @param  crsFactory  the factory to use for creating <abbr>CRS</abbr> from authority codes.
+     * @param  opFactory   the factory to use for creating coordinate operations.
+     */
+    public AsyncFactory(final CRSAuthorityFactory crsFactory, final CoordinateOperationFactory opFactory) {
+        this(crsFactory, opFactory, VIRTUAL_THREADS);
+    }
+
+    /**
+     * Creates an asynchronous view over the given factories, running the creations on the given executor.
+     *
+     * @param  crsFactory  the factory to use for creating <abbr>CRS</abbr> from authority codes.
+     * @param  opFactory   the factory to use for creating coordinate operations.
+     * @param  executor    the executor of the creation tasks.
+     */
+    public AsyncFactory(final CRSAuthorityFactory crsFactory, final CoordinateOperationFactory opFactory,
+                        final Executor executor)
+    {
+        this.crsFactory = Objects.requireNonNull(crsFactory, "crsFactory");
+        this.opFactory  = Objects.requireNonNull(opFactory,  "opFactory");
+        this.executor   = Objects.requireNonNull(executor,   "executor");
+        this.secondary  = null;
+        this.hedgeDelay = null;
+    }
+
+    /**
+     * Creates a copy of the given factory with the given hedging configuration.
+     *
+     * @param  other       the factory to copy.
+     * @param  secondary   the factory where to send the same request after the delay.
+     * @param  hedgeDelay  delay after which to send the same request to the secondary factory.
+     */
+    private AsyncFactory(final AsyncFactory other, final CRSAuthorityFactory secondary, final Duration hedgeDelay) {
+        this.crsFactory = other.crsFactory;
+        this.opFactory  = other.opFactory;
+        this.executor   = other.executor;
+        this.secondary  = secondary;
+        this.hedgeDelay = hedgeDelay;
+    }
+
+    /**
+     * Returns a factory which sends the <abbr>CRS</abbr> requests to a second factory if the first one
+     * did not answer after the given delay. The second factory can be, for example, another element of
+     * {@link Services#loadCRSAuthorityFactories()}. The first successful answer is kept. The request which
+     * did not win is not interrupted, as its result may be useful for the caches.
+     *
+     * @param  secondary  the factory where to send the same request after the delay.
+     * @param  delay      delay after which to send the same request to the secondary factory.
+     * @return a factory which hedges the <abbr>CRS</abbr> requests.
+     */
+    public AsyncFactory withHedging(final CRSAuthorityFactory secondary, final Duration delay) {
+        Objects.requireNonNull(secondary, "secondary");
+        if (delay.isNegative()) {
+            throw new IllegalArgumentException("Delay shall not be negative.");
+        }
+        return new AsyncFactory(this, secondary, delay);
+    }
+
+    /**
+     * Creates a <abbr>CRS</abbr> from an authority code in background.
+     *
+     * @param  code  the authority code of the <abbr>CRS</abbr> to create.
+     * @return the <abbr>CRS</abbr>, when created.
+     */
+    public CompletableFuture<CoordinateReferenceSystem> createCoordinateReferenceSystemAsync(final String code) {
+        if (crsFactory instanceof AuthorityFactoryFromGT w) {
+            final CompletableFuture<CoordinateReferenceSystem> found = w.find(CoordinateReferenceSystem.class, code,
+                    () -> createCoordinateReferenceSystemAsync(code));
+            if (found != null) {
+                return found;
+            }
+        }
+        final CompletableFuture<CoordinateReferenceSystem> primary = submit(() -> crsFactory.createCoordinateReferenceSystem(code));
+        if (secondary == null) {
+            return primary;
+        }
+        return hedge(primary, () -> secondary.createCoordinateReferenceSystem(code));
+    }
+
+    /**
+     * Creates a <abbr>CRS</abbr> from an authority code, waiting at most the given time.
+     *
+     * @param  code     the authority code of the <abbr>CRS</abbr> to create.
+     * @param  timeout  maximal time to wait for the <abbr>CRS</abbr>.
+     * @return the <abbr>CRS</abbr> for the given code.
+     * @throws DeadlineExceededException if the <abbr>CRS</abbr> has not been created before the timeout.
+     * @throws FactoryException if the <abbr>CRS</abbr> cannot be created for another reason.
+     */
+    public CoordinateReferenceSystem createCoordinateReferenceSystem(final String code, final Duration timeout)
+            throws FactoryException
+    {
+        return await(createCoordinateReferenceSystemAsync(code), timeout, code);
+    }
+
+    /**
+     * Creates an operation between the given <abbr>CRS</abbr>, waiting at most the given time.
+     *
+     * @param  source   the source <abbr>CRS</abbr>.
+     * @param  target   the target <abbr>CRS</abbr>.
+     * @param  timeout  maximal time to wait for the operation.
+     * @return the coordinate operation.
+     * @throws DeadlineExceededException if the operation has not been created before the timeout.
+     * @throws FactoryException if the operation cannot be created for another reason.
+     */
+    public CoordinateOperation createOperation(final CoordinateReferenceSystem source,
+                                               final CoordinateReferenceSystem target,
+                                               final Duration timeout) throws FactoryException
+    {
+        return await(createOperationAsync(source, target), timeout, "operation");
+    }
+
+    /**
+     * Creates an operation between the given <abbr>CRS</abbr> in background.
+     *
+     * @param  source  the source <abbr>CRS</abbr>.
+     * @param  target  the target <abbr>CRS</abbr>.
+     * @return the coordinate operation, when created.
+     */
+    public CompletableFuture<CoordinateOperation> createOperationAsync(final CoordinateReferenceSystem source,
+                                                                       final CoordinateReferenceSystem target)
+    {
+        return submit(() -> opFactory.createOperation(source, target));
+    }
+
+    /**
+     * Creates an operation between the <abbr>CRS</abbr> identified by the given authority codes in background.
+     *
+     * @param  source  the authority code of the source <abbr>CRS</abbr>.
+     * @param  target  the authority code of the target <abbr>CRS</abbr>.
+     * @return the coordinate operation, when created.
+     */
+    public CompletableFuture<CoordinateOperation> createOperationAsync(final String source, final String target) {
+        return createCoordinateReferenceSystemAsync(source)
+                .thenCombine(createCoordinateReferenceSystemAsync(target), (s, t) -> new CoordinateReferenceSystem[] {s, t})
+                .thenCompose((pair) -> createOperationAsync(pair[0], pair[1]));
+    }
+
+    /**
+     * Waits for the result of the given task until the timeout. The task is not cancelled if the timeout
+     * is exceeded, so that its result will be in the cache for the next request.
+     *
+     * @param  <T>      type of the object to create.
+     * @param  task     the creation in progress.
+     * @param  timeout  maximal time to wait.
+     * @param  name     name of the requested object, for the error message.
+     * @return the created object.
+     * @throws FactoryException if the deadline is exceeded or the object cannot be created.
+     */
+    private static <T> T await(final CompletableFuture<T> task, final Duration timeout, final String name)
+            throws FactoryException
+    {
+        try {
+            return task.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException("No answer for \"" + name + "\" after " + timeout.toMillis() + " ms.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FactoryException("Interrupted while waiting for \"" + name + "\".", e);
+        } catch (ExecutionException e) {
+            switch (e.getCause()) {
+                case FactoryException c: throw c;
+                case RuntimeException c: throw c;
+                case Error c: throw c;
+                default: throw new FactoryException(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Returns a future completed by the primary task or by the alternative, whichever succeeds first.
+     * The alternative is started only if the primary task is not completed after the hedging delay.
+     * If all started tasks fail, then the returned future fails with the first exception.
+     *
+     * @param  <T>          type of the object to create.
+     * @param  primary      the task sent to the primary factory.
+     * @param  alternative  the creation to send to the secondary factory.
+     * @return the result of the first successful task.
+     */
+    private <T> CompletableFuture<T> hedge(final CompletableFuture<T> primary, final Creation<T> alternative) {
+        final var result   = new CompletableFuture<T>();
+        final var attempts = new AtomicInteger(1);
+        final var failures = new AtomicInteger();
+        final var error    = new AtomicReference<Throwable>();
+        final BiConsumer<T, Throwable> done = (value, exception) -> {
+            if (exception == null) {
+                result.complete(value);
+            } else {
+                error.compareAndSet(null, exception);
+                // Read the number of attempts after the failure count, for not missing a hedge started concurrently.
+                if (failures.incrementAndGet() >= attempts.get()) {
+                    result.completeExceptionally(error.get());
+                }
+            }
+        };
+        primary.whenComplete(done);
+        CompletableFuture.delayedExecutor(hedgeDelay.toNanos(), TimeUnit.NANOSECONDS, executor).execute(() -> {
+            attempts.incrementAndGet();
+            if (result.isDone()) {
+                return;
+            }
+            submit(alternative).whenComplete(done);
+        });
+        result.whenComplete((value, exception) -> {
+            if (result.isCancelled()) {
+                primary.cancel(false);          // Does not interrupt the creation if already started.
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Schedules the given creation on the executor. The returned future can be cancelled
+     * without interrupting the creation, which may be shared with other callers.
+     *
+     * @param  <T>       type of the object to create.
+     * @param  creation  the creation to execute.
+     * @return the object, when created.
+     */
+    private <T> CompletableFuture<T> submit(final Creation<T> creation) {
+        final var result = new CompletableFuture<T>();
+        try {
+            executor.execute(() -> {
+                if (!result.isDone()) {             // Skip the creation if cancelled before to start.
+                    try {
+                        result.complete(creation.create());
+                    } catch (Throwable e) {
+                        result.completeExceptionally(e);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * A creation to execute in background.
+     *
+     * @param  <T>  type of the object to create.
+     */
+    @FunctionalInterface
+    private interface Creation<T> {
+        /**
+         * Creates the object.
+         *
+         * @return the created object.
+         * @throws FactoryException if the object cannot be created.
+         */
+        T create() throws FactoryException;
+    }
+}
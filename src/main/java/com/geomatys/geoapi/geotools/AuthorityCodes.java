@@ -0,0 +1,160 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+/**
+ * The authority codes of a GeoTools factory for each type of object, in a compact form.
+ * All sets of codes of the same factory share a single {@link CodeTable}. If the codes
+ * of a new type are not all in the table, then the table is rebuilt with the new codes
+ * and the existing sets are converted to the new table.
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+final class AuthorityCodes {
+    /**
+     * Loads the codes of a type from a GeoTools factory.
+     */
+    @FunctionalInterface
+    interface Loader {
+        /**
+         * Returns the codes of the given type.
+         *
+         * @param  type  the GeoTools interface of the objects for which to get the codes.
+         * @return the codes of the objects of the given type.
+         * @throws org.geotools.api.referencing.FactoryException if the codes cannot be fetched.
+         */
+        Set<String> load(Class<? extends org.geotools.api.referencing.IdentifiedObject> type)
+                throws org.geotools.api.referencing.FactoryException;
+    }
+
+    /**
+     * The codes for each GeoTools factory. All accesses shall be synchronized on this map.
+     */
+    private static final Map<Object, AuthorityCodes> INSTANCES = new WeakHashMap<>();
+
+    /**
+     * The sets of codes for each GeoTools interface.
+     */
+    private final Map<Class<?>, CodeTable.Subset> sets;
+
+    /**
+     * The table of all codes loaded so far, or {@code null} if none.
+     * Shall be read and written only while holding the {@link #lock}.
+     */
+    private CodeTable table;
+
+    /**
+     * The lock for loading the codes of a type and updating the table.
+     */
+    private final ReentrantLock lock;
+
+    /**
+     * Creates an initially empty set of codes.
+     */
+    private AuthorityCodes() {
+        sets = new ConcurrentHashMap<>();
+        lock = new ReentrantLock();
+    }
+
+    /**
+     * Returns the codes for the given GeoTools factory. The same instance is returned
+     * for all factories that are equal to each other, as long as they are in use.
+     *
+     * @param  factory  the GeoTools factory for which to get the codes.
+     * @return the codes of the given factory.
+     */
+    static AuthorityCodes forFactory(final Object factory) {
+        synchronized (INSTANCES) {
+            return INSTANCES.computeIfAbsent(factory, (key) -> new AuthorityCodes());
+        }
+    }
+
+    /**
+     * Discards the codes of all factories, so that they will be loaded again when next requested.
+     */
+    static void clearAll() {
+        final AuthorityCodes[] all;
+        synchronized (INSTANCES) {
+            all = INSTANCES.values().toArray(AuthorityCodes[]::new);
+        }
+        for (final AuthorityCodes codes : all) {
+            codes.lock.lock();
+            try {
+                codes.sets.clear();
+                codes.table = null;
+            } finally {
+                codes.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns the codes of the given type, loading them if needed.
+     *
+     * @param  type    the GeoTools interface of the objects for which to get the codes.
+     * @param  loader  the function to invoke if the codes are not yet loaded.
+     * @return an immutable set of the codes of the given type.
+     * @throws org.geotools.api.referencing.FactoryException if the codes cannot be fetched.
+     */
+    Set<String> get(final Class<? extends org.geotools.api.referencing.IdentifiedObject> type, final Loader loader)
+            throws org.geotools.api.referencing.FactoryException
+    {
+        CodeTable.Subset codes = sets.get(type);
+        if (codes == null) {
+            lock.lock();
+            try {
+                codes = sets.get(type);
+                if (codes == null) {
+                    final Set<String> loaded = loader.load(type);
+                    CodeTable t = table;
+                    if (t == null) {
+                        t = CodeTable.of(loaded);
+                    } else if (!contains(t, loaded)) {
+                        t = t.union(loaded);
+                        for (final Map.Entry<Class<?>, CodeTable.Subset> entry : sets.entrySet()) {
+                            entry.setValue(t.subset(entry.getValue()));
+                        }
+                    }
+                    table = t;
+                    codes = t.subset(loaded);
+                    sets.put(type, codes);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return codes;
+    }
+
+    /**
+     * Returns whether the given table contains all the given codes.
+     */
+    private static boolean contains(final CodeTable table, final Set<String> codes) {
+        for (final String code : codes) {
+            if (table.indexOf(code) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
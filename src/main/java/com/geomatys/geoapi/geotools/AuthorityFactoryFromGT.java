@@ -16,6 +16,8 @@
 package com.geomatys.geoapi.geotools;
 
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 import org.opengis.metadata.citation.Citation;
 import org.opengis.referencing.AuthorityFactory;
 import org.opengis.referencing.IdentifiedObject;
@@ -110,10 +112,63 @@ abstract class AuthorityFactoryFromGT extends WrapperFromGT implements Authority
         org.geotools.api.referencing.operation.CoordinateOperation.class
     };
 
+    /**
+     * The GeoTools interface for a GeoAPI interface or implementation class, computed when first requested.
+     */
+    static final ClassValue<Class<? extends org.geotools.api.referencing.IdentifiedObject>> GEOTOOLS_TYPE = new ClassValue<>() {
+        @Override
+        protected Class<? extends org.geotools.api.referencing.IdentifiedObject> computeValue(final Class<?> type) {
+            return match(type, GEOAPI_INTERFACES, GEOTOOLS_INTERFACES);
+        }
+    };
+
+    /**
+     * The GeoAPI interface for a GeoTools interface or implementation class, computed when first requested.
+     */
+    static final ClassValue<Class<? extends IdentifiedObject>> GEOAPI_TYPE = new ClassValue<>() {
+        @Override
+        protected Class<? extends IdentifiedObject> computeValue(final Class<?> type) {
+            return match(type, GEOTOOLS_INTERFACES, GEOAPI_INTERFACES);
+        }
+    };
+
+    /**
+     * Returns the interface of {@code targets} at the index of the most specialized interface of {@code sources}
+     * which is assignable from the given type.
+     *
+     * @param  <T>      base type of the target interfaces.
+     * @param  type     the interface or implementation class for which to find the target interface.
+     * @param  sources  the interfaces of the API of the given type, with most specialized interfaces last.
+     * @param  targets  the interfaces of the other API, in the same order as {@code sources}.
+     * @return the target interface, or {@code null} if the given type does not implement any source interface.
+     */
+    private static <T> Class<? extends T> match(final Class<?> type, final Class<?>[] sources, final Class<? extends T>[] targets) {
+        for (int i = sources.length; --i >= 0;) {
+            if (sources[i].isAssignableFrom(type)) {
+                return targets[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The objects created by the GeoTools factory, shared by all wrappers of the same factory.
+     */
+    final ObjectCache cache;
+
+    /**
+     * The authority codes of the GeoTools factory for each type, shared by all wrappers of the same factory.
+     */
+    private final AuthorityCodes codes;
+
     /**
      * Creates a new wrapper for the given GeoTools implementation.
+     *
+     * @param impl the GeoTools implementation on which to delegate all methods
      */
-    AuthorityFactoryFromGT() {
+    AuthorityFactoryFromGT(final org.geotools.api.referencing.AuthorityFactory impl) {
+        cache = ObjectCache.forFactory(impl);
+        codes = AuthorityCodes.forFactory(impl);
     }
 
     /**
@@ -134,19 +189,12 @@ abstract class AuthorityFactoryFromGT extends WrapperFromGT implements Authority
 
     @Override
     public Set<String> getAuthorityCodes(Class<? extends IdentifiedObject> type) throws FactoryException {
-        Class<? extends org.geotools.api.referencing.IdentifiedObject> gt = null;
-        if (type != null) {
-            final var interfaces = GEOAPI_INTERFACES;
-            for (int i = interfaces.length; --i >= 0;) {
-                if (interfaces[i].isAssignableFrom(type)) {
-                    gt = GEOTOOLS_INTERFACES[i];
-                    break;
-                }
-            }
-            // Should never be null at this point.
-        }
+        final Class<? extends org.geotools.api.referencing.IdentifiedObject> gt = (type != null) ? GEOTOOLS_TYPE.get(type) : null;
         try {
-            return implementation().getAuthorityCodes(gt);
+            if (gt == null) {
+                return implementation().getAuthorityCodes(gt);
+            }
+            return codes.get(gt, implementation()::getAuthorityCodes);
         } catch (org.geotools.api.referencing.FactoryException e) {
             throw wrap(e);
         }
@@ -163,11 +211,47 @@ abstract class AuthorityFactoryFromGT extends WrapperFromGT implements Authority
 
     @Override
     public IdentifiedObject createObject(String code) throws FactoryException {
-        try {
-            return IdentifiedObjectFromGT.wrap(implementation().createObject(code));
-        } catch (org.geotools.api.referencing.FactoryException e) {
-            throw wrap(e);
+        return create(IdentifiedObject.class, code, (c) -> IdentifiedObjectFromGT.wrap(implementation().createObject(c)));
+    }
+
+    /**
+     * Returns the cached object for the given code, or creates it if needed.
+     * Repeated requests for the same code and type return the same instance.
+     *
+     * @param  <T>      the type of object to create.
+     * @param  type     the GeoAPI interface of the object to create.
+     * @param  code     the authority code of the object to create.
+     * @param  creator  the GeoTools method to invoke, followed by the wrapping of the result.
+     * @return the object for the given code.
+     * @throws FactoryException if the object cannot be created.
+     */
+    final <T> T create(final Class<T> type, final String code, final ObjectCache.Creator<? extends T> creator)
+            throws FactoryException
+    {
+        final T object = cache.get(type, code, (c) -> Offloader.call(type, () -> creator.create(c)));
+        if (AccessProfile.recording) {
+            AccessProfile.recordCode(type, code, object, Services.argument(this));
+        }
+        return object;
+    }
+
+    /**
+     * Returns the cached object, or the creation in progress, for the given code.
+     * This method never starts a new creation, except by the given fallback if
+     * the creation in progress fails because the creating thread has been interrupted.
+     *
+     * @param  <T>    the type of object to get.
+     * @param  type   the GeoAPI interface of the object to get.
+     * @param  code   the authority code of the object to get.
+     * @param  retry  the creation to start if the creation in progress is interrupted.
+     * @return the object for the given code, or {@code null} if it is neither cached nor being created.
+     */
+    final <T> CompletableFuture<T> find(final Class<T> type, final String code, final Supplier<CompletableFuture<T>> retry) {
+        final CompletableFuture<T> found = cache.find(type, code, retry);
+        if (found != null && AccessProfile.recording) {
+            AccessProfile.recordCode(type, code, null, Services.argument(this));
         }
+        return found;
     }
 
     /**
@@ -54,17 +54,7 @@ abstract class AuthorityFactoryToGT extends WrapperToGT implements AuthorityFact
 
     @Override
     public Set<String> getAuthorityCodes(Class<? extends IdentifiedObject> type) throws FactoryException {
-        Class<? extends org.opengis.referencing.IdentifiedObject> gt = null;
-        if (type != null) {
-            final var interfaces = AuthorityFactoryFromGT.GEOTOOLS_INTERFACES;
-            for (int i = interfaces.length; --i >= 0;) {
-                if (interfaces[i].isAssignableFrom(type)) {
-                    gt = AuthorityFactoryFromGT.GEOAPI_INTERFACES[i];
-                    break;
-                }
-            }
-            // Should never be null at this point.
-        }
+        final Class<? extends org.opengis.referencing.IdentifiedObject> gt = (type != null) ? AuthorityFactoryFromGT.GEOAPI_TYPE.get(type) : null;
         try {
             return implementation().getAuthorityCodes(gt);
         } catch (org.opengis.util.FactoryException e) {
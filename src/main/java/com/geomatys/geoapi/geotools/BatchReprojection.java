@@ -0,0 +1,766 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import org.opengis.referencing.crs.CRSAuthorityFactory;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
+
+
+/**
+ * Reprojects the coordinates stored in large binary or <abbr>CSV</abbr> files.
+ * Input and output files are accessed through memory-mapped regions, which are processed
+ * in parallel by chunks of many points given to the {@link MathTransform} array methods.
+ *
+ * <p>Two file formats are supported:</p>
+ * <ul>
+ *   <li>{@link Format#BINARY}: packed coordinate tuples of 8 bytes floating point numbers,
+ *       without header, in the byte order specified at construction time.</li>
+ *   <li>{@link Format#CSV}: one point per line, with coordinates separated by commas, semicolons or white spaces.
+ *       If the first line of the file cannot be parsed, it is presumed to be a header and is copied unchanged.
+ *       Empty lines and columns after the coordinates are also copied unchanged.
+ *       Numbers are parsed directly from the bytes of the mapped file, without creating a string for each line.</li>
+ * </ul>
+ *
+ * This class can also be used from the command-line. Run without argument for a summary of the options.
+ *
+ * <p>Instances of this class are immutable and thread-safe if the transform is thread-safe.</p>
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+public final class BatchReprojection {
+    /**
+     * The format of input and output files.
+     */
+    public enum Format {
+        /** Packed coordinate tuples of 8 bytes floating point numbers, without header. */
+        BINARY,
+
+        /** Text with one point per line and coordinates separated by commas, semicolons or spaces. */
+        CSV
+    }
+
+    /**
+     * Receives notifications about the progress of a reprojection.
+     * Notifications may be sent concurrently from different threads.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        /**
+         * Invoked after a chunk of the input file has been processed.
+         *
+         * @param  processedBytes  number of bytes of the input file processed so far.
+         * @param  totalBytes      size of the input file in bytes.
+         * @param  numPoints       number of points transformed so far.
+         */
+        void progress(long processedBytes, long totalBytes, long numPoints);
+    }
+
+    /**
+     * Number of points processed by each task with the binary format.
+     */
+    private static final int BINARY_CHUNK = 1 << 16;
+
+    /**
+     * Approximate number of bytes processed by each task with the <abbr>CSV</abbr> format.
+     * Actual chunks are extended up to the next end of line.
+     */
+    private static final int CSV_CHUNK = 1 << 22;
+
+    /**
+     * Number of lines given to the transform in a single call with the <abbr>CSV</abbr> format.
+     */
+    private static final int CSV_BATCH = 4096;
+
+    /**
+     * Maximal number of fraction digits in <abbr>CSV</abbr> output.
+     */
+    private static final int MAX_FRACTION_DIGITS = 15;
+
+    /**
+     * Powers of 10 which are exactly representable as {@code double} values.
+     */
+    private static final double[] POW10 = {
+        1E0,  1E1,  1E2,  1E3,  1E4,  1E5,  1E6,  1E7,  1E8,  1E9,  1E10, 1E11,
+        1E12, 1E13, 1E14, 1E15, 1E16, 1E17, 1E18, 1E19, 1E20, 1E21, 1E22
+    };
+
+    /**
+     * The transform to apply on the coordinates.
+     */
+    private final MathTransform transform;
+
+    /**
+     * Number of dimensions of source and target points.
+     */
+    private final int sourceDimension, targetDimension;
+
+    /**
+     * The format of input and output files.
+     */
+    private final Format format;
+
+    /**
+     * Byte order of binary files.
+     */
+    private final ByteOrder byteOrder;
+
+    /**
+     * Number of digits after the decimal separator in <abbr>CSV</abbr> output.
+     */
+    private final int fractionDigits;
+
+    /**
+     * Creates a new batch reprojection.
+     *
+     * @param  transform       the transform to apply on the coordinates.
+     * @param  format          the format of input and output files.
+     * @param  byteOrder       byte order of binary files. Ignored for the <abbr>CSV</abbr> format.
+     * @param  fractionDigits  number of digits after the decimal separator in <abbr>CSV</abbr> output.
+     *                         Ignored for the binary format.
+     */
+    public BatchReprojection(final MathTransform transform, final Format format,
+                             final ByteOrder byteOrder, final int fractionDigits)
+    {
+        this.transform = Objects.requireNonNull(transform, "transform");
+        this.format    = Objects.requireNonNull(format,    "format");
+        this.byteOrder = Objects.requireNonNull(byteOrder, "byteOrder");
+        if (fractionDigits < 0 || fractionDigits > MAX_FRACTION_DIGITS) {
+            throw new IllegalArgumentException("Number of fraction digits shall be between 0 and "
+                    + MAX_FRACTION_DIGITS + " but got " + fractionDigits + '.');
+        }
+        this.fractionDigits = fractionDigits;
+        sourceDimension = transform.getSourceDimensions();
+        targetDimension = transform.getTargetDimensions();
+    }
+
+    /**
+     * Reprojects all points in the input file and writes the result in the output file.
+     * The output file is created or overwritten.
+     *
+     * @param  input     the file to read.
+     * @param  output    the file to write.
+     * @param  listener  the listener to notify about progress, or {@code null} if none.
+     * @return number of points transformed.
+     * @throws IOException if an error occurred while reading or writing the files, or if the input is malformed.
+     * @throws TransformException if a point cannot be transformed.
+     */
+    public long transform(final Path input, final Path output, final ProgressListener listener)
+            throws IOException, TransformException
+    {
+        try (FileChannel in  = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                                        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            final var progress = new Progress(in.size(), listener);
+            switch (format) {
+                case BINARY: binary(in, out, progress); break;
+                case CSV:    csv   (in, out, progress); break;
+                default:     throw new AssertionError(format);
+            }
+            return progress.points.get();
+        }
+    }
+
+    /**
+     * Counters of the work done, shared by all tasks.
+     */
+    private static final class Progress {
+        /** Number of bytes processed so far and total number of bytes. */
+        final AtomicLong bytes = new AtomicLong();
+
+        /** Number of points processed so far. */
+        final AtomicLong points = new AtomicLong();
+
+        /** Size of the input file. */
+        final long total;
+
+        /** Where to report progress, or {@code null} if none. */
+        private final ProgressListener listener;
+
+        /** Creates new counters for an input file of the given size. */
+        Progress(final long total, final ProgressListener listener) {
+            this.total    = total;
+            this.listener = listener;
+        }
+
+        /** Records the completion of a chunk. */
+        void done(final long numBytes, final long numPoints) {
+            final long b = bytes .addAndGet(numBytes);
+            final long p = points.addAndGet(numPoints);
+            if (listener != null) {
+                listener.progress(b, total, p);
+            }
+        }
+    }
+
+    /**
+     * A task executed for each chunk.
+     */
+    @FunctionalInterface
+    private interface Task {
+        /**
+         * Processes the chunk at the given index.
+         *
+         * @param  index  index of the chunk to process.
+         * @throws IOException if an error occurred while reading or writing a file.
+         * @throws TransformException if a point cannot be transformed.
+         */
+        void run(int index) throws IOException, TransformException;
+    }
+
+    /**
+     * Executes the given task in parallel for all indexes from 0 inclusive to {@code count} exclusive.
+     *
+     * @param  count  number of chunks.
+     * @param  task   the task to execute for each chunk.
+     * @throws IOException if a task failed to read or write a file.
+     * @throws TransformException if a task failed to transform a point.
+     */
+    private static void parallel(final int count, final Task task) throws IOException, TransformException {
+        try {
+            IntStream.range(0, count).parallel().forEach((index) -> {
+                try {
+                    task.run(index);
+                } catch (IOException | TransformException e) {
+                    throw new CompletionException(e);
+                }
+            });
+        } catch (CompletionException e) {
+            // The exception may have been wrapped again if it was thrown in another thread.
+            Throwable cause = e;
+            do {
+                cause = cause.getCause();
+            } while (cause instanceof CompletionException);
+            if (cause instanceof IOException ce) {
+                throw ce;
+            }
+            if (cause instanceof TransformException ce) {
+                throw ce;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Reprojects a binary file. Each task maps its own region of the input and output files.
+     */
+    private void binary(final FileChannel in, final FileChannel out, final Progress progress)
+            throws IOException, TransformException
+    {
+        final long inTuple  = sourceDimension * (long) Double.BYTES;
+        final long outTuple = targetDimension * (long) Double.BYTES;
+        if (progress.total % inTuple != 0) {
+            throw new IOException("File size " + progress.total + " is not a multiple of the tuple size ("
+                    + inTuple + " bytes).");
+        }
+        final long numPts = progress.total / inTuple;
+        if (numPts == 0) {
+            return;
+        }
+        out.write(ByteBuffer.allocate(1), numPts * outTuple - 1);     // Set the file size once for all tasks.
+        parallel(Math.toIntExact(Math.ceilDiv(numPts, BINARY_CHUNK)), (chunk) -> {
+            final long first = chunk * (long) BINARY_CHUNK;
+            final int  n = (int) Math.min(BINARY_CHUNK, numPts - first);
+            final double[] buffer = new double[n * Math.max(sourceDimension, targetDimension)];
+            final DoubleBuffer src = in.map(FileChannel.MapMode.READ_ONLY, first * inTuple, n * inTuple)
+                                       .order(byteOrder).asDoubleBuffer();
+            src.get(buffer, 0, n * sourceDimension);
+            transform.transform(buffer, 0, buffer, 0, n);
+            final DoubleBuffer dst = out.map(FileChannel.MapMode.READ_WRITE, first * outTuple, n * outTuple)
+                                        .order(byteOrder).asDoubleBuffer();
+            dst.put(buffer, 0, n * targetDimension);
+            progress.done(n * inTuple, n);
+        });
+    }
+
+    /**
+     * Reprojects a <abbr>CSV</abbr> file. The file is processed in waves of chunks ending on line boundaries.
+     * The chunks of a wave are parsed, transformed and formatted in parallel, then written sequentially
+     * because the length of the formatted text is not known in advance.
+     */
+    private void csv(final FileChannel in, final FileChannel out, final Progress progress)
+            throws IOException, TransformException
+    {
+        final int wave = 2 * ForkJoinPool.getCommonPoolParallelism();
+        final long[] bounds = new long[wave + 1];
+        final var results = new CsvChunk[wave];
+        final ByteBuffer scratch = ByteBuffer.allocate(4096);
+        long outPosition = 0;
+        while (bounds[0] < progress.total) {
+            int count = 0;
+            while (count < wave && bounds[count] < progress.total) {
+                bounds[count + 1] = nextLine(in, bounds[count] + CSV_CHUNK - 1, progress.total, scratch);
+                count++;
+            }
+            parallel(count, (i) -> {
+                final long start = bounds[i];
+                final var chunk = new CsvChunk(in.map(FileChannel.MapMode.READ_ONLY, start, bounds[i+1] - start), start);
+                chunk.process();
+                results[i] = chunk;
+                progress.done(bounds[i+1] - start, chunk.numPoints);
+            });
+            for (int i=0; i<count; i++) {
+                final CsvChunk chunk = results[i];
+                if (chunk.length != 0) {
+                    out.map(FileChannel.MapMode.READ_WRITE, outPosition, chunk.length).put(chunk.output, 0, chunk.length);
+                    outPosition += chunk.length;
+                }
+                results[i] = null;
+            }
+            bounds[0] = bounds[count];
+        }
+    }
+
+    /**
+     * Returns the position after the first end of line found at or after the given position.
+     * If there is no end of line, returns the file size.
+     */
+    private static long nextLine(final FileChannel in, long position, final long size, final ByteBuffer scratch)
+            throws IOException
+    {
+        while (position < size) {
+            scratch.clear();
+            final int n = in.read(scratch, position);
+            if (n <= 0) {
+                break;
+            }
+            for (int i=0; i<n; i++) {
+                if (scratch.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += n;
+        }
+        return size;
+    }
+
+    /**
+     * A chunk of <abbr>CSV</abbr> text to parse, transform and format.
+     * Each instance is used by a single thread.
+     */
+    private final class CsvChunk {
+        /** The input text, as a mapped region of the input file. */
+        private final MappedByteBuffer text;
+
+        /** Position of the text in the input file, for error messages and header detection. */
+        private final long offset;
+
+        /** Source coordinates, then target coordinates, of the lines in the current batch. */
+        private final double[] coordinates;
+
+        /** For each line in the current batch, the range of bytes to copy after the coordinates. */
+        private final int[] restStart, restEnd;
+
+        /** For each line in the current batch, the character to use as coordinate separator. */
+        private final byte[] separators;
+
+        /** Number of lines in the current batch. */
+        private int batchSize;
+
+        /** The formatted output. Valid bytes are from 0 inclusive to {@link #length} exclusive. */
+        byte[] output;
+
+        /** Number of valid bytes in {@link #output}. */
+        int length;
+
+        /** Number of points transformed in this chunk. */
+        long numPoints;
+
+        /** The value of the last number parsed by {@link #parse(int, int)}. */
+        private double value;
+
+        /** Temporary buffer where {@link #format(double)} writes digits in reverse order. */
+        private final byte[] digits = new byte[24];
+
+        /**
+         * Creates a new chunk for the given mapped text.
+         */
+        CsvChunk(final MappedByteBuffer text, final long offset) {
+            this.text   = text;
+            this.offset = offset;
+            coordinates = new double[CSV_BATCH * Math.max(sourceDimension, targetDimension)];
+            restStart   = new int[CSV_BATCH];
+            restEnd     = new int[CSV_BATCH];
+            separators  = new byte[CSV_BATCH];
+            output      = new byte[text.limit() + (text.limit() >>> 2) + 64];
+        }
+
+        /**
+         * Parses all lines of this chunk, transforms the coordinates and formats the result.
+         */
+        void process() throws IOException, TransformException {
+            final int limit = text.limit();
+            int lineStart = 0;
+            while (lineStart < limit) {
+                int next = lineStart;
+                while (next < limit && text.get(next) != '\n') {
+                    next++;
+                }
+                int end = next;
+                if (next < limit) {
+                    next++;                                     // Skip the line feed.
+                }
+                while (end > lineStart && isEndOfLine(text.get(end - 1))) {
+                    end--;
+                }
+                if (end == lineStart || !parseLine(lineStart, end, next)) {
+                    if (end != lineStart && (offset != 0 || lineStart != 0)) {
+                        throw new IOException("Cannot parse the coordinates at byte offset " + (offset + lineStart) + '.');
+                    }
+                    flush();                                    // For keeping the lines in order.
+                    copy(lineStart, next);                      // Empty line or header.
+                }
+                lineStart = next;
+            }
+            flush();
+        }
+
+        /**
+         * Parses the coordinates of a line and adds them to the current batch.
+         *
+         * @param  p     position of the first character of the line.
+         * @param  end   position after the last character of the line, excluding end of line characters.
+         * @param  next  position of the next line.
+         * @return whether the line has been parsed.
+         */
+        private boolean parseLine(int p, final int end, final int next) throws TransformException {
+            byte separator = 0;
+            final int base = batchSize * sourceDimension;
+            for (int d=0; d<sourceDimension; d++) {
+                if (d != 0) {
+                    // Skip the separator between two numbers.
+                    final int before = p;
+                    while (p < end && isWhitespace(text.get(p))) {
+                        p++;
+                    }
+                    if (p < end && (text.get(p) == ',' || text.get(p) == ';')) {
+                        if (separator == 0) {
+                            separator = text.get(p);
+                        }
+                        p++;
+                        while (p < end && isWhitespace(text.get(p))) {
+                            p++;
+                        }
+                    } else if (p == before) {
+                        return false;
+                    } else if (separator == 0) {
+                        separator = text.get(before);
+                    }
+                } else {
+                    while (p < end && isWhitespace(text.get(p))) {
+                        p++;
+                    }
+                }
+                p = parse(p, end);
+                if (p < 0) {
+                    return false;
+                }
+                coordinates[base + d] = value;
+            }
+            separators[batchSize] = (separator != 0) ? separator : (byte) ',';
+            restStart [batchSize] = p;
+            restEnd   [batchSize] = next;
+            if (++batchSize == CSV_BATCH) {
+                flush();
+            }
+            return true;
+        }
+
+        /**
+         * Parses the number starting at the given position and stores it in {@link #value}.
+         * The common cases are parsed directly from the bytes. Numbers with too many significant
+         * digits or too large exponents are delegated to {@link Double#parseDouble(String)}.
+         *
+         * @param  p    position of the first character of the number.
+         * @param  end  position after the last character of the line.
+         * @return position after the number, or -1 if there is no number at the given position.
+         */
+        private int parse(int p, final int end) {
+            final int start = p;
+            boolean negative = false;
+            if (p < end && (text.get(p) == '-' || text.get(p) == '+')) {
+                negative = text.get(p++) == '-';
+            }
+            long mantissa = 0;
+            int  digits   = 0;          // Number of significant digits, ignoring leading zeros.
+                                        // Digits after the 18th are counted but not accumulated.
+            int  exponent = 0;
+            boolean any = false, dot = false;
+            for (; p < end; p++) {
+                final int c = text.get(p);
+                if (c >= '0' && c <= '9') {
+                    any = true;
+                    if (mantissa != 0 || c != '0') {
+                        if (++digits <= 18) {
+                            mantissa = mantissa * 10 + (c - '0');
+                        } else if (!dot) {
+                            exponent++;                 // Too many digits: will use the fallback.
+                        }
+                    }
+                    if (dot && digits <= 18) {
+                        exponent--;
+                    }
+                } else if (c == '.' && !dot) {
+                    dot = true;
+                } else {
+                    break;
+                }
+            }
+            if (!any) {
+                return fallback(start, end);            // May be "NaN" or "Infinity".
+            }
+            if (p < end && (text.get(p) == 'e' || text.get(p) == 'E')) {
+                int q = p + 1;
+                boolean negativeExponent = false;
+                if (q < end && (text.get(q) == '-' || text.get(q) == '+')) {
+                    negativeExponent = text.get(q++) == '-';
+                }
+                int e = 0;
+                final int firstDigit = q;
+                while (q < end && text.get(q) >= '0' && text.get(q) <= '9') {
+                    if (e < 10000) {
+                        e = e * 10 + (text.get(q) - '0');
+                    }
+                    q++;
+                }
+                if (q == firstDigit) {
+                    return -1;
+                }
+                exponent += negativeExponent ? -e : e;
+                p = q;
+            }
+            double v;
+            if (mantissa == 0) {
+                v = 0;
+            } else if (digits <= 18 && mantissa <= (1L << 53) && Math.abs(exponent) < POW10.length) {
+                v = mantissa;               // Exact conversion, then a single correctly rounded operation.
+                v = (exponent >= 0) ? v * POW10[exponent] : v / POW10[-exponent];
+            } else {
+                return fallback(start, p);
+            }
+            value = negative ? -v : v;
+            return p;
+        }
+
+        /**
+         * Parses the number in the given range with {@link Double#parseDouble(String)}.
+         * This is used only in rare cases, because it requires the creation of a string.
+         *
+         * @return position after the number, or -1 if the text is not a number.
+         */
+        private int fallback(final int start, int end) {
+            int stop = start;
+            while (stop < end && !isWhitespace(text.get(stop)) && text.get(stop) != ',' && text.get(stop) != ';') {
+                stop++;
+            }
+            end = stop;
+            final byte[] bytes = new byte[end - start];
+            text.get(start, bytes);
+            try {
+                value = Double.parseDouble(new String(bytes, StandardCharsets.US_ASCII));
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+            return end;
+        }
+
+        /**
+         * Transforms the coordinates of the current batch and appends the formatted lines to the output.
+         */
+        private void flush() throws TransformException {
+            if (batchSize == 0) {
+                return;
+            }
+            transform.transform(coordinates, 0, coordinates, 0, batchSize);
+            for (int i=0; i<batchSize; i++) {
+                final int base = i * targetDimension;
+                for (int d=0; d<targetDimension; d++) {
+                    if (d != 0) append(separators[i]);
+                    format(coordinates[base + d]);
+                }
+                copy(restStart[i], restEnd[i]);
+            }
+            numPoints += batchSize;
+            batchSize  = 0;
+        }
+
+        /**
+         * Appends the given number with the configured number of fraction digits.
+         * Numbers too large for this format are formatted by {@link Double#toString(double)}.
+         */
+        private void format(final double v) {
+            final double scaled = Math.rint(v * POW10[fractionDigits]);
+            if (!(Math.abs(scaled) < 1E18)) {           // Also true for NaN and infinities.
+                final String s = Double.toString(v);
+                for (int i=0; i<s.length(); i++) {
+                    append((byte) s.charAt(i));
+                }
+                return;
+            }
+            long n = (long) scaled;
+            if (n < 0) {
+                append((byte) '-');
+                n = -n;
+            }
+            final byte[] buffer = digits;
+            int i = buffer.length, written = 0;
+            do {
+                buffer[--i] = (byte) ('0' + (n % 10));
+                n /= 10;
+                if (++written == fractionDigits) {
+                    buffer[--i] = '.';
+                }
+            } while (n != 0 || written <= fractionDigits);
+            final int count = buffer.length - i;
+            ensureCapacity(count);
+            System.arraycopy(buffer, i, output, length, count);
+            length += count;
+        }
+
+        /**
+         * Copies the bytes in the given range of the input text to the output.
+         */
+        private void copy(final int start, final int end) {
+            final int n = end - start;
+            ensureCapacity(n);
+            text.get(start, output, length, n);
+            length += n;
+        }
+
+        /**
+         * Appends a single byte to the output.
+         */
+        private void append(final byte b) {
+            ensureCapacity(1);
+            output[length++] = b;
+        }
+
+        /**
+         * Ensures that the output array can receive the given number of additional bytes.
+         */
+        private void ensureCapacity(final int n) {
+            if (length + n > output.length) {
+                output = Arrays.copyOf(output, Math.max(length + n, output.length * 2));
+            }
+        }
+    }
+
+    /**
+     * Returns whether the given character is a space or a tabulation.
+     */
+    private static boolean isWhitespace(final byte c) {
+        return c == ' ' || c == '\t';
+    }
+
+    /**
+     * Returns whether the given character is a carriage return or a line feed.
+     */
+    private static boolean isEndOfLine(final byte c) {
+        return c == '\r' || c == '\n';
+    }
+
+    /**
+     * Command-line entry point. The arguments are options followed by the input and output files.
+     * The source and target <abbr>CRS</abbr>s are given by authority codes, with (<var>longitude</var>,
+     * <var>latitude</var>) axis order. Progress and throughput are reported on the standard error stream.
+     *
+     * @param  args  the command-line arguments.
+     * @throws Exception if an error occurred while creating the operation or reprojecting the file.
+     */
+    public static void main(final String[] args) throws Exception {
+        String source = null, target = null, input = null, output = null;
+        Format format = null;
+        ByteOrder order = ByteOrder.LITTLE_ENDIAN;
+        int digits = 9;
+        for (int i=0; i<args.length; i++) {
+            final String arg = args[i];
+            if (arg.startsWith("--")) {
+                if (++i < args.length) {
+                    final String value = args[i];
+                    switch (arg) {
+                        case "--source": source = value; continue;
+                        case "--target": target = value; continue;
+                        case "--format": format = Format.valueOf(value.toUpperCase(Locale.ROOT)); continue;
+                        case "--digits": digits = Integer.parseInt(value); continue;
+                        case "--order": {
+                            switch (value.toLowerCase(Locale.ROOT)) {
+                                case "big":    order = ByteOrder.BIG_ENDIAN;    continue;
+                                case "little": order = ByteOrder.LITTLE_ENDIAN; continue;
+                            }
+                            break;              // Unknown byte order: show the usage message.
+                        }
+                    }
+                }
+            } else if (input == null) {
+                input = arg;
+                continue;
+            } else if (output == null) {
+                output = arg;
+                continue;
+            }
+            source = null;              // Force the usage message.
+            break;
+        }
+        if (source == null || target == null || output == null) {
+            System.err.println("Usage: BatchReprojection --source <code> --target <code> [options] <input> <output>");
+            System.err.println("Options:");
+            System.err.println("  --format binary|csv   File format (default: csv if the input file name ends with .csv).");
+            System.err.println("  --order big|little    Byte order of binary files (default: little).");
+            System.err.println("  --digits <n>          Number of fraction digits in CSV output (default: 9).");
+            System.exit(1);
+            return;
+        }
+        if (format == null) {
+            format = input.toLowerCase(Locale.ROOT).endsWith(".csv") ? Format.CSV : Format.BINARY;
+        }
+        final CRSAuthorityFactory factory = Services.getAuthorityFactory(true);
+        final MathTransform transform = Services.getCoordinateOperationFactory(true).createOperation(
+                factory.createCoordinateReferenceSystem(source),
+                factory.createCoordinateReferenceSystem(target)).getMathTransform();
+
+        final long start = System.nanoTime();
+        final var lastReport = new AtomicLong(start);
+        final ProgressListener listener = (processedBytes, totalBytes, numPoints) -> {
+            final long now  = System.nanoTime();
+            final long last = lastReport.get();
+            if (now - last >= 1_000_000_000L && lastReport.compareAndSet(last, now)) {
+                System.err.printf("\r%5.1f%%  %,d points  %,.0f points/s",
+                        100.0 * processedBytes / totalBytes, numPoints, numPoints / ((now - start) / 1E9));
+            }
+        };
+        final long count = new BatchReprojection(transform, format, order, digits)
+                .transform(Path.of(input), Path.of(output), listener);
+        final double seconds = (System.nanoTime() - start) / 1E9;
+        System.err.printf("\rTransformed %,d points in %.2f s (%,.0f points/s).%n", count, seconds, count / seconds);
+    }
+}
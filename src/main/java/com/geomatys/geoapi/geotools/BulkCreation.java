@@ -0,0 +1,200 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.opengis.util.FactoryException;
+
+
+/**
+ * Creation of many authority objects in parallel. This class is useful for resolving large sets of codes,
+ * for example all codes returned by {@code factory.getAuthorityCodes(ProjectedCRS.class)}, which can be given
+ * to {@code create(codes, factory::createProjectedCRS, listener)}. The objects are created on virtual threads,
+ * with a bound on the number of creations running concurrently in order to not overload the database.
+ * A failure to create an object does not stop the creation of other objects.
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+public final class BulkCreation {
+    /**
+     * Creates an object for an authority code. This is typically a method of an authority factory.
+     *
+     * @param  <T>  the type of objects to create.
+     */
+    @FunctionalInterface
+    public interface Creator<T> {
+        /**
+         * Creates the object for the given code.
+         *
+         * @param  code  the authority code of the object to create.
+         * @return the object for the given code.
+         * @throws FactoryException if the object cannot be created.
+         */
+        T create(String code) throws FactoryException;
+    }
+
+    /**
+     * Receives notifications about the progress of a bulk creation.
+     * Notifications may be sent concurrently from different threads.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        /**
+         * Invoked after the creation of an object has been attempted.
+         *
+         * @param  processed  number of codes processed so far, including failures.
+         * @param  failed     number of codes that failed so far.
+         * @param  total      number of distinct codes to process.
+         */
+        void progress(int processed, int failed, int total);
+    }
+
+    /**
+     * The objects created for each code, and the exceptions for the codes that failed.
+     * Both maps are in the iteration order of the codes given to {@code create(…)}.
+     * Each code is either in the objects map or in the failures map, but not both.
+     *
+     * @param  <T>       the type of created objects.
+     * @param  objects   the objects created for each code.
+     * @param  failures  the exceptions thrown for the codes which failed.
+     */
+    public record Result<T>(Map<String,T> objects, Map<String,FactoryException> failures) {
+        /**
+         * Creates a new result.
+         *
+         * @param  objects   the objects created for each code.
+         * @param  failures  the exceptions thrown for the codes which failed.
+         */
+        public Result {
+            objects  = Collections.unmodifiableMap(objects);
+            failures = Collections.unmodifiableMap(failures);
+        }
+    }
+
+    /**
+     * Do not allow instantiation of this class.
+     */
+    private BulkCreation() {
+    }
+
+    /**
+     * Creates the objects for all given codes in parallel, with a number of concurrent creations
+     * equal to the number of processors. Duplicated codes are processed only once.
+     *
+     * @param  <T>       the type of objects to create.
+     * @param  codes     the codes of the objects to create.
+     * @param  creator   the method to invoke for creating an object.
+     * @param  listener  where to report progress, or {@code null} if none.
+     * @return the created objects and the failures.
+     * @throws InterruptedException if the current thread has been interrupted before all codes were processed.
+     */
+    public static <T> Result<T> create(final Collection<String> codes, final Creator<? extends T> creator,
+                                       final ProgressListener listener) throws InterruptedException
+    {
+        return create(codes, creator, Runtime.getRuntime().availableProcessors(), listener);
+    }
+
+    /**
+     * Creates the objects for all given codes in parallel. At most {@code parallelism} creations
+     * are running at the same time. Duplicated codes are processed only once. Exceptions other than
+     * {@link FactoryException} thrown by the creator are wrapped in a {@code FactoryException}.
+     *
+     * @param  <T>          the type of objects to create.
+     * @param  codes        the codes of the objects to create.
+     * @param  creator      the method to invoke for creating an object.
+     * @param  parallelism  maximal number of creations running concurrently.
+     * @param  listener     where to report progress, or {@code null} if none.
+     * @return the created objects and the failures.
+     * @throws InterruptedException if the current thread has been interrupted before all codes were processed.
+     */
+    public static <T> Result<T> create(final Collection<String> codes, final Creator<? extends T> creator,
+                                       final int parallelism, final ProgressListener listener)
+            throws InterruptedException
+    {
+        Objects.requireNonNull(creator, "creator");
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism shall be positive.");
+        }
+        final String[] distinct = new LinkedHashSet<>(codes).toArray(String[]::new);
+        final Object[] outcomes = new Object[distinct.length];
+        final var permits   = new Semaphore(parallelism);
+        final var processed = new AtomicInteger();
+        final var failed    = new AtomicInteger();
+        final var error     = new AtomicReference<Error>();
+        boolean interrupted = false;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i=0; i<distinct.length && error.get() == null; i++) {
+                // Acquire the permit before starting the thread, so that at most `parallelism` threads exist.
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    break;
+                }
+                final int index = i;
+                executor.execute(() -> {
+                    Object outcome;
+                    try {
+                        outcome = creator.create(distinct[index]);
+                    } catch (FactoryException e) {
+                        outcome = e;
+                    } catch (RuntimeException e) {
+                        outcome = new FactoryException(e);
+                    } catch (Error e) {
+                        error.compareAndSet(null, e);
+                        return;
+                    } finally {
+                        permits.release();
+                    }
+                    outcomes[index] = outcome;
+                    final int f = (outcome instanceof FactoryException) ? failed.incrementAndGet() : failed.get();
+                    final int p = processed.incrementAndGet();
+                    if (listener != null) {
+                        listener.progress(p, f, distinct.length);
+                    }
+                });
+            }
+        }
+        if (error.get() != null) {
+            throw error.get();
+        }
+        if (interrupted || Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        final var objects  = new LinkedHashMap<String,T>();
+        final var failures = new LinkedHashMap<String,FactoryException>();
+        for (int i=0; i<distinct.length; i++) {
+            if (outcomes[i] instanceof FactoryException e) {
+                failures.put(distinct[i], e);
+            } else {
+                @SuppressWarnings("unchecked")
+                final T object = (T) outcomes[i];
+                objects.put(distinct[i], object);
+            }
+        }
+        return new Result<>(objects, failures);
+    }
+}
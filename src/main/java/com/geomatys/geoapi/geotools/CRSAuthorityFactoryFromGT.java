@@ -40,13 +40,39 @@ final class CRSAuthorityFactoryFromGT extends AuthorityFactoryFromGT implements
      */
     final org.geotools.api.referencing.crs.CRSAuthorityFactory impl;
 
+    /**
+     * Whether this factory returns proxies which create the <abbr>CRS</abbr> only when first needed.
+     */
+    private final boolean lazy;
+
+    /**
+     * The view of this factory which creates lazy <abbr>CRS</abbr>.
+     * This is {@code this} if this factory is already lazy.
+     */
+    final CRSAuthorityFactoryFromGT lazyView;
+
     /**
      * Creates a new wrapper for the given GeoTools implementation.
      *
      * @param impl the GeoTools implementation on which to delegate all methods
      */
     private CRSAuthorityFactoryFromGT(final org.geotools.api.referencing.crs.CRSAuthorityFactory impl) {
+        super(impl);
         this.impl = impl;
+        lazy = false;
+        lazyView = new CRSAuthorityFactoryFromGT(this);
+    }
+
+    /**
+     * Creates a lazy view of the given factory. Both factories share the same cache.
+     *
+     * @param eager the factory which creates the <abbr>CRS</abbr> immediately.
+     */
+    private CRSAuthorityFactoryFromGT(final CRSAuthorityFactoryFromGT eager) {
+        super(eager.impl);
+        impl = eager.impl;
+        lazy = true;
+        lazyView = this;
     }
 
     /**
@@ -73,93 +99,69 @@ final class CRSAuthorityFactoryFromGT extends AuthorityFactoryFromGT implements
         return impl;
     }
 
+    /**
+     * Returns the <abbr>CRS</abbr> for the given code, or a proxy creating it when first needed if this factory is lazy.
+     *
+     * @param  <T>      the type of <abbr>CRS</abbr> to create.
+     * @param  type     the GeoAPI interface of the <abbr>CRS</abbr> to create.
+     * @param  code     the authority code of the <abbr>CRS</abbr> to create.
+     * @param  creator  the GeoTools method to invoke, followed by the wrapping of the result.
+     * @return the <abbr>CRS</abbr> for the given code.
+     * @throws FactoryException if the <abbr>CRS</abbr> cannot be created.
+     */
+    private <T extends CoordinateReferenceSystem> T crs(final Class<T> type, final String code,
+            final ObjectCache.Creator<? extends T> creator) throws FactoryException
+    {
+        return lazy ? LazyCRS.create(this, type, code, creator) : create(type, code, creator);
+    }
+
     @Override
     public CoordinateReferenceSystem createCoordinateReferenceSystem(String code) throws FactoryException {
-        try {
-            return CoordinateReferenceSystemFromGT.wrap(impl.createCoordinateReferenceSystem(code));
-        } catch (org.geotools.api.referencing.FactoryException e) {
-            throw wrap(e);
-        }
+        return crs(CoordinateReferenceSystem.class, code, (c) -> CoordinateReferenceSystemFromGT.wrap(impl.createCoordinateReferenceSystem(c)));
     }
 
     @Override
     public GeographicCRS createGeographicCRS(String code) throws FactoryException {
-        try {
-            return GeographicCRSFromGT.wrap(impl.createGeographicCRS(code));
-        } catch (org.geotools.api.referencing.FactoryException e) {
-            throw wrap(e);
-        }
+        return crs(GeographicCRS.class, code, (c) -> GeographicCRSFromGT.wrap(impl.createGeographicCRS(c)));
     }
 
     @Override
     public GeocentricCRS createGeocentricCRS(String code) throws FactoryException {
-        try {
-            return GeocentricCRSFromGT.wrap(impl.createGeocentricCRS(code));
-        } catch (org.geotools.api.referencing.FactoryException e) {
-            throw wrap(e);
-        }
+        return crs(GeocentricCRS.class, code, (c) -> GeocentricCRSFromGT.wrap(impl.createGeocentricCRS(c)));
     }
 
     @Override
     public ProjectedCRS createProjectedCRS(String code) throws FactoryException {
-        try {
-            return ProjectedCRSFromGT.wrap(impl.createProjectedCRS(code));
-        } catch (org.geotools.api.referencing.FactoryException e) {
-            throw wrap(e);
-        }
+        return crs(ProjectedCRS.class, code, (c) -> ProjectedCRSFromGT.wrap(impl.createProjectedCRS(c)));
     }
 
     @Override
     public VerticalCRS createVerticalCRS(String code) throws FactoryException {
-        try {
-            return VerticalCRSFromGT.wrap(impl.createVerticalCRS(code));
-        } catch (org.geotools.api.referencing.FactoryException e) {
-            throw wrap(e);
-        }
+        return crs(VerticalCRS.class, code, (c) -> VerticalCRSFromGT.wrap(impl.createVerticalCRS(c)));
     }
 
     @Override
     public TemporalCRS createTemporalCRS(String code) throws FactoryException {
-        try {
-            return TemporalCRSFromGT.wrap(impl.createTemporalCRS(code));
-        } catch (org.geotools.api.referencing.FactoryException e) {
-            throw wrap(e);
-        }
+        return crs(TemporalCRS.class, code, (c) -> TemporalCRSFromGT.wrap(impl.createTemporalCRS(c)));
     }
 
     @Override
     public EngineeringCRS createEngineeringCRS(String code) throws FactoryException {
-        try {
-            return EngineeringCRSFromGT.wrap(impl.createEngineeringCRS(code));
-        } catch (org.geotools.api.referencing.FactoryException e) {
-            throw wrap(e);
-        }
+        return crs(EngineeringCRS.class, code, (c) -> EngineeringCRSFromGT.wrap(impl.createEngineeringCRS(c)));
     }
 
     @Override
     public ImageCRS createImageCRS(String code) throws FactoryException {
-        try {
-            return ImageCRSFromGT.wrap(impl.createImageCRS(code));
-        } catch (org.geotools.api.referencing.FactoryException e) {
-            throw wrap(e);
-        }
+        return crs(ImageCRS.class, code, (c) -> ImageCRSFromGT.wrap(impl.createImageCRS(c)));
     }
 
     @Override
     public DerivedCRS createDerivedCRS(String code) throws FactoryException {
-        try {
-            return DerivedCRSFromGT.wrap(impl.createDerivedCRS(code));
-        } catch (org.geotools.api.referencing.FactoryException e) {
-            throw wrap(e);
-        }
+        return crs(DerivedCRS.class, code, (c) -> DerivedCRSFromGT.wrap(impl.createDerivedCRS(c)));
     }
 
     @Override
     public CompoundCRS createCompoundCRS(String code) throws FactoryException {
-        try {
-            return CompoundCRSFromGT.wrap(impl.createCompoundCRS(code));
-        } catch (org.geotools.api.referencing.FactoryException e) {
-            throw wrap(e);
-        }
+        return crs(CompoundCRS.class, code, (c) -> CompoundCRSFromGT.wrap(impl.createCompoundCRS(c)));
     }
 }
@@ -46,6 +46,7 @@ final class CSAuthorityFactoryFromGT extends AuthorityFactoryFromGT implements C
      * @param impl the GeoTools implementation on which to delegate all methods
      */
     private CSAuthorityFactoryFromGT(final org.geotools.api.referencing.cs.CSAuthorityFactory impl) {
+        super(impl);
         this.impl = impl;
     }
 
@@ -75,91 +76,51 @@ final class CSAuthorityFactoryFromGT extends AuthorityFactoryFromGT implements C
 
     @Override
     public Unit<?> createUnit(String code) throws FactoryException {
-        try {
-            return impl.createUnit(code);
-        } catch (org.geotools.api.referencing.FactoryException e) {
-            throw wrap(e);
-        }
+        return create(Unit.class, code, impl::createUnit);
     }
 
     @Override
     public CoordinateSystemAxis createCoordinateSystemAxis(String code) throws FactoryException {
-        try {
-            return CoordinateSystemAxisFromGT.wrap(impl.createCoordinateSystemAxis(code));
-        } catch (org.geotools.api.referencing.FactoryException e) {
-            throw wrap(e);
-        }
+        return create(CoordinateSystemAxis.class, code, (c) -> CoordinateSystemAxisFromGT.wrap(impl.createCoordinateSystemAxis(c)));
     }
 
     @Override
     public CoordinateSystem createCoordinateSystem(String code) throws FactoryException {
-        try {
-            return CoordinateSystemFromGT.wrap(impl.createCoordinateSystem(code));
-        } catch (org.geotools.api.referencing.FactoryException e) {
-            throw wrap(e);
-        }
+        return create(CoordinateSystem.class, code, (c) -> CoordinateSystemFromGT.wrap(impl.createCoordinateSystem(c)));
     }
 
     @Override
     public CartesianCS createCartesianCS(String code) throws FactoryException {
-        try {
-            return CartesianCSFromGT.wrap(impl.createCartesianCS(code));
-        } catch (org.geotools.api.referencing.FactoryException e) {
-            throw wrap(e);
-        }
+        return create(CartesianCS.class, code, (c) -> CartesianCSFromGT.wrap(impl.createCartesianCS(c)));
     }
 
     @Override
     public SphericalCS createSphericalCS(String code) throws FactoryException {
-        try {
-            return SphericalCSFromGT.wrap(impl.createSphericalCS(code));
-        } catch (org.geotools.api.referencing.FactoryException e) {
-            throw wrap(e);
-        }
+        return create(SphericalCS.class, code, (c) -> SphericalCSFromGT.wrap(impl.createSphericalCS(c)));
     }
 
     @Override
     public EllipsoidalCS createEllipsoidalCS(String code) throws FactoryException {
-        try {
-            return EllipsoidalCSFromGT.wrap(impl.createEllipsoidalCS(code));
-        } catch (org.geotools.api.referencing.FactoryException e) {
-            throw wrap(e);
-        }
+        return create(EllipsoidalCS.class, code, (c) -> EllipsoidalCSFromGT.wrap(impl.createEllipsoidalCS(c)));
     }
 
     @Override
     public VerticalCS createVerticalCS(String code) throws FactoryException {
-        try {
-            return VerticalCSFromGT.wrap(impl.createVerticalCS(code));
-        } catch (org.geotools.api.referencing.FactoryException e) {
-            throw wrap(e);
-        }
+        return create(VerticalCS.class, code, (c) -> VerticalCSFromGT.wrap(impl.createVerticalCS(c)));
     }
 
     @Override
     public TimeCS createTimeCS(String code) throws FactoryException {
-        try {
-            return TimeCSFromGT.wrap(impl.createTimeCS(code));
-        } catch (org.geotools.api.referencing.FactoryException e) {
-            throw wrap(e);
-        }
+        return create(TimeCS.class, code, (c) -> TimeCSFromGT.wrap(impl.createTimeCS(c)));
     }
 
     @Override
     public PolarCS createPolarCS(String code) throws FactoryException {
-        try {
-            return PolarCSFromGT.wrap(impl.createPolarCS(code));
-        } catch (org.geotools.api.referencing.FactoryException e) {
-            throw wrap(e);
-        }
+        return create(PolarCS.class, code, (c) -> PolarCSFromGT.wrap(impl.createPolarCS(c)));
     }
 
     @Override
     public CylindricalCS createCylindricalCS(String code) throws FactoryException {
-        try {
-            return CylindricalCSFromGT.wrap(impl.createCylindricalCS(code));
-        } catch (org.geotools.api.referencing.FactoryException e) {
-            throw wrap(e);
-        }
+        return create(CylindricalCS.class, code, (c) -> CylindricalCSFromGT.wrap(impl.createCylindricalCS(c)));
     }
 }
@@ -0,0 +1,92 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.ToLongFunction;
+
+
+/**
+ * Bounds and reference type of the caches of objects created by authority factories.
+ * The wrappers around GeoTools authority factories remember the objects created from
+ * authority codes, so that repeated requests for the same code return the same instance.
+ * When a cache exceeds its size or weight bound, the entries which have not been used
+ * recently are evicted. Codes that the factory did not find are also remembered for a limited time,
+ * so that repeated requests for invalid codes fail fast without querying the database.
+ *
+ * @param maximumSize            maximal number of entries in a cache, or 0 for disabling the caches.
+ * @param maximumWeight          maximal sum of the weights of all entries in a cache.
+ * @param weigher                function computing the weight of a cached object. Shall return a positive value.
+ * @param references             how the cached values are referenced.
+ * @param unknownCodeExpiration  how long to remember the codes that were not found, or zero for not remembering them.
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ *
+ * @see Services#setCachePolicy(CachePolicy)
+ */
+public record CachePolicy(int maximumSize, long maximumWeight, ToLongFunction<Object> weigher, References references,
+                          Duration unknownCodeExpiration)
+{
+    /**
+     * The policy used when no other policy has been specified.
+     * This policy keeps at most 1000 objects by soft references, each object having a weight of 1,
+     * and remembers the codes that were not found during one minute.
+     */
+    public static final CachePolicy DEFAULT = new CachePolicy(1000, Long.MAX_VALUE, (value) -> 1, References.SOFT,
+                                                              Duration.ofMinutes(1));
+
+    /**
+     * How the values are referenced by a cache.
+     */
+    public enum References {
+        /**
+         * Values are retained until evicted by the size or weight bounds.
+         */
+        STRONG,
+
+        /**
+         * Values may also be discarded by the garbage collector in response to memory demand.
+         */
+        SOFT,
+
+        /**
+         * Values may also be discarded by the garbage collector as soon as they are no longer used outside the cache.
+         */
+        WEAK
+    }
+
+    /**
+     * Creates a new cache policy.
+     *
+     * @param maximumSize            maximal number of entries in a cache, or 0 for disabling the caches.
+     * @param maximumWeight          maximal sum of the weights of all entries in a cache.
+     * @param weigher                function computing the weight of a cached object. Shall return a positive value.
+     * @param references             how the cached values are referenced.
+     * @param unknownCodeExpiration  how long to remember the codes that were not found, or zero for not remembering them.
+     * @throws IllegalArgumentException if a bound or the expiration is negative.
+     */
+    public CachePolicy {
+        if (maximumSize < 0 || maximumWeight < 0) {
+            throw new IllegalArgumentException("Cache bounds shall not be negative.");
+        }
+        Objects.requireNonNull(weigher, "weigher");
+        Objects.requireNonNull(references, "references");
+        if (unknownCodeExpiration.isNegative()) {
+            throw new IllegalArgumentException("Expiration shall not be negative.");
+        }
+    }
+}
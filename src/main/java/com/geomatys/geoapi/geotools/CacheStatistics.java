@@ -0,0 +1,41 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+
+/**
+ * Snapshot of the statistics of a cache. Counters are cumulative since the cache creation.
+ * Because caches are concurrent, the values in a snapshot may not be exactly consistent
+ * with each other.
+ *
+ * @param hitCount       number of lookups which found a value in the cache.
+ * @param missCount      number of lookups which did not found a value in the cache,
+ *                       including the lookups of codes remembered as not found.
+ * @param evictionCount  number of entries removed from the cache for making room for new entries.
+ * @param size           number of entries in the cache at the time of the snapshot.
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+public record CacheStatistics(long hitCount, long missCount, long evictionCount, long size) {
+    /**
+     * {@return the ratio of lookups which found a value in the cache}.
+     * This is a value between 0 and 1 inclusive, or NaN if there is no lookup yet.
+     */
+    public double hitRate() {
+        final long total = hitCount + missCount;
+        return (total != 0) ? hitCount / (double) total : Double.NaN;
+    }
+}
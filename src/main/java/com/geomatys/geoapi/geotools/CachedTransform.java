@@ -0,0 +1,452 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import org.opengis.geometry.DirectPosition;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.Matrix;
+import org.opengis.referencing.operation.NoninvertibleTransformException;
+import org.opengis.referencing.operation.TransformException;
+import org.geotools.geometry.GeneralPosition;
+
+
+/**
+ * A transform which remembers the results of the most recently transformed coordinate tuples.
+ * This is useful when the same points are transformed repeatedly, for example tile corners
+ * or grid nodes. Input tuples are compared for exact equality (bit-by-bit), so this cache
+ * never changes the result of a transformation.
+ *
+ * <p>The cache has a fixed capacity, specified at construction time. Coordinates are stored
+ * in primitive arrays organized as a set-associative table, split in segments which can be
+ * read concurrently. When a set is full, the least recently used entry of that set is evicted.
+ * No object is allocated for cache hits.</p>
+ *
+ * <p>The inverse transform, the derivatives and the <abbr>WKT</abbr> are not cached;
+ * they are delegated to the wrapped transform.</p>
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+public final class CachedTransform implements MathTransform {
+    /**
+     * Number of entries in each set of the set-associative table.
+     */
+    private static final int WAYS = 4;
+
+    /**
+     * Maximal number of points processed in a single batch on the delegate transform.
+     * This is also the size (in number of tuples) of the scratch buffers.
+     */
+    private static final int CHUNK = 256;
+
+    /**
+     * The transform on which to delegate the computation of cache misses.
+     */
+    private final MathTransform transform;
+
+    /**
+     * Number of source and target dimensions.
+     */
+    private final int srcDim, tgtDim;
+
+    /**
+     * The segments of the cache. The length of this array is a power of 2.
+     */
+    private final Segment[] segments;
+
+    /**
+     * Statistics about cache usage.
+     */
+    private final LongAdder hits, misses, evictions;
+
+    /**
+     * A part of the cache protected by its own lock. Each segment is a set-associative table where each
+     * set contains {@value #WAYS} consecutive slots. Keys and values of slot <var>i</var> are stored at
+     * index <var>i</var> × {@code srcDim} in {@link #keys} and <var>i</var> × {@code tgtDim} in {@link #values}.
+     */
+    private static final class Segment {
+        /** Lock for modifying the arrays. Reads are optimistic. */
+        final StampedLock lock;
+
+        /** The source coordinates of all slots. */
+        final double[] keys;
+
+        /** The target coordinates of all slots. */
+        final double[] values;
+
+        /** Logical time of last access for each slot, or 0 if the slot is empty. */
+        final long[] lastAccess;
+
+        /** Mask to apply on hash codes for getting the set index. */
+        final int setMask;
+
+        /** Counter used as a logical clock for {@link #lastAccess}. Updates are racy, which is okay for LRU. */
+        long clock;
+
+        /** Number of non-empty slots. Modified only when the write lock is held. */
+        int count;
+
+        /** Creates a segment with the given number of sets. */
+        Segment(final int numSets, final int srcDim, final int tgtDim) {
+            final int numSlots = numSets * WAYS;
+            lock       = new StampedLock();
+            keys       = new double[numSlots * srcDim];
+            values     = new double[numSlots * tgtDim];
+            lastAccess = new long[numSlots];
+            setMask    = numSets - 1;
+        }
+    }
+
+    /**
+     * Creates a new cache for the given transform.
+     *
+     * @param transform  the transform for which to cache results.
+     * @param capacity   maximal number of coordinate tuples to remember. The actual capacity may be smaller,
+     *                   since it is rounded down to a power of two (but not less than 4).
+     */
+    public CachedTransform(final MathTransform transform, final int capacity) {
+        this.transform = Objects.requireNonNull(transform, "transform");
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be strictly positive.");
+        }
+        srcDim = transform.getSourceDimensions();
+        tgtDim = transform.getTargetDimensions();
+        final int numSegments = Integer.highestOneBit(Math.clamp(capacity / 256, 1, 16));
+        final int numSets = Integer.highestOneBit(Math.max(1, capacity / (numSegments * WAYS)));
+        segments = new Segment[numSegments];
+        for (int i=0; i<numSegments; i++) {
+            segments[i] = new Segment(numSets, srcDim, tgtDim);
+        }
+        hits      = new LongAdder();
+        misses    = new LongAdder();
+        evictions = new LongAdder();
+    }
+
+    /**
+     * {@return a snapshot of the cache statistics}.
+     */
+    public CacheStatistics getStatistics() {
+        long size = 0;
+        for (final Segment s : segments) {
+            size += s.count;
+        }
+        return new CacheStatistics(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    /**
+     * Computes the hash code of the coordinate tuple starting at the given offset.
+     */
+    private long hash(final double[] coordinates, int offset) {
+        long h = srcDim;
+        for (int i=0; i<srcDim; i++) {
+            h = (h ^ Double.doubleToLongBits(coordinates[offset++])) * 0x9E3779B97F4A7C15L;
+        }
+        h ^= (h >>> 33); h *= 0xFF51AFD7ED558CCDL;
+        h ^= (h >>> 33); h *= 0xC4CEB9FE1A85EC53L;
+        h ^= (h >>> 33);
+        return h;
+    }
+
+    /**
+     * Returns the segment for the given hash code.
+     */
+    private Segment segment(final long hash) {
+        return segments[(int) (hash >>> 32) & (segments.length - 1)];
+    }
+
+    /**
+     * Returns the slot of the given key in the given set of the given segment, or -1 if none.
+     * This method does not acquire any lock; the caller is responsible for validating the result.
+     */
+    private int find(final Segment s, final int set, final double[] key, final int keyOff) {
+        final int base = set * WAYS;
+search: for (int slot = base; slot < base + WAYS; slot++) {
+            if (s.lastAccess[slot] != 0) {
+                int k = slot * srcDim;
+                for (int i=0; i<srcDim; i++) {
+                    if (Double.doubleToLongBits(s.keys[k++]) != Double.doubleToLongBits(key[keyOff + i])) {
+                        continue search;
+                    }
+                }
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Copies in {@code dst} the cached value for the given key if present.
+     *
+     * @return whether a value has been found and copied.
+     */
+    private boolean lookup(final double[] key, final int keyOff, final long hash, final double[] dst, final int dstOff) {
+        final Segment s = segment(hash);
+        final int set = (int) hash & s.setMask;
+        long stamp = s.lock.tryOptimisticRead();
+        if (stamp != 0) {
+            final int slot = find(s, set, key, keyOff);
+            if (slot >= 0) {
+                System.arraycopy(s.values, slot * tgtDim, dst, dstOff, tgtDim);
+            }
+            if (s.lock.validate(stamp)) {
+                return found(s, slot);
+            }
+        }
+        stamp = s.lock.readLock();
+        try {
+            final int slot = find(s, set, key, keyOff);
+            if (slot >= 0) {
+                System.arraycopy(s.values, slot * tgtDim, dst, dstOff, tgtDim);
+            }
+            return found(s, slot);
+        } finally {
+            s.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Updates the statistics and the access time after a lookup.
+     */
+    private boolean found(final Segment s, final int slot) {
+        if (slot < 0) {
+            misses.increment();
+            return false;
+        }
+        s.lastAccess[slot] = ++s.clock;
+        hits.increment();
+        return true;
+    }
+
+    /**
+     * Stores the given value for the given key, evicting the least recently used entry of the set if needed.
+     */
+    private void store(final double[] key, final int keyOff, final long hash, final double[] value, final int valueOff) {
+        final Segment s = segment(hash);
+        final int set = (int) hash & s.setMask;
+        final long stamp = s.lock.writeLock();
+        try {
+            int slot = find(s, set, key, keyOff);
+            if (slot < 0) {
+                slot = set * WAYS;
+                for (int i = slot + 1; i < (set + 1) * WAYS; i++) {
+                    if (s.lastAccess[i] < s.lastAccess[slot]) {
+                        slot = i;
+                    }
+                }
+                if (s.lastAccess[slot] != 0) {
+                    evictions.increment();
+                } else {
+                    s.count++;
+                }
+                System.arraycopy(key, keyOff, s.keys, slot * srcDim, srcDim);
+            }
+            System.arraycopy(value, valueOff, s.values, slot * tgtDim, tgtDim);
+            s.lastAccess[slot] = ++s.clock;
+        } finally {
+            s.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Transforms coordinates using the cache. The source and target ranges shall not overlap.
+     */
+    private void transformDisjoint(final double[] srcPts, int srcOff, final double[] dstPts, int dstOff, int numPts)
+            throws TransformException
+    {
+        if (numPts == 1) {
+            final long hash = hash(srcPts, srcOff);
+            if (!lookup(srcPts, srcOff, hash, dstPts, dstOff)) {
+                transform.transform(srcPts, srcOff, dstPts, dstOff, 1);
+                store(srcPts, srcOff, hash, dstPts, dstOff);
+            }
+            return;
+        }
+        final int chunk = Math.min(CHUNK, numPts);
+        final double[] missSrc  = new double[chunk * srcDim];
+        final double[] missDst  = new double[chunk * tgtDim];
+        final long[]   missHash = new long[chunk];
+        final int[]    missIdx  = new int[chunk];
+        while (numPts > 0) {
+            final int n = Math.min(chunk, numPts);
+            int m = 0;
+            for (int i=0; i<n; i++) {
+                final int so = srcOff + i * srcDim;
+                final long hash = hash(srcPts, so);
+                if (!lookup(srcPts, so, hash, dstPts, dstOff + i * tgtDim)) {
+                    System.arraycopy(srcPts, so, missSrc, m * srcDim, srcDim);
+                    missHash[m] = hash;
+                    missIdx[m++] = i;
+                }
+            }
+            if (m != 0) {
+                transform.transform(missSrc, 0, missDst, 0, m);
+                for (int k=0; k<m; k++) {
+                    System.arraycopy(missDst, k * tgtDim, dstPts, dstOff + missIdx[k] * tgtDim, tgtDim);
+                    store(missSrc, k * srcDim, missHash[k], missDst, k * tgtDim);
+                }
+            }
+            srcOff += n * srcDim;
+            dstOff += n * tgtDim;
+            numPts -= n;
+        }
+    }
+
+    /**
+     * Returns whether the source and target ranges overlap in the same array.
+     */
+    private boolean overlaps(final Object srcPts, final int srcOff, final Object dstPts, final int dstOff, final int numPts) {
+        return srcPts == dstPts && srcOff < dstOff + numPts * tgtDim && dstOff < srcOff + numPts * srcDim;
+    }
+
+    /**
+     * Transforms a list of coordinate tuples, using cached results when available.
+     * The source and target ranges may overlap.
+     */
+    @Override
+    public void transform(double[] srcPts, int srcOff, final double[] dstPts, final int dstOff, final int numPts)
+            throws TransformException
+    {
+        if (overlaps(srcPts, srcOff, dstPts, dstOff, numPts)) {
+            srcPts = Arrays.copyOfRange(srcPts, srcOff, srcOff + numPts * srcDim);
+            srcOff = 0;
+        }
+        transformDisjoint(srcPts, srcOff, dstPts, dstOff, numPts);
+    }
+
+    /**
+     * Transforms a list of coordinate tuples, using cached results when available.
+     * The source and target ranges may overlap.
+     */
+    @Override
+    public void transform(float[] srcPts, int srcOff, final float[] dstPts, int dstOff, int numPts)
+            throws TransformException
+    {
+        if (overlaps(srcPts, srcOff, dstPts, dstOff, numPts)) {
+            srcPts = Arrays.copyOfRange(srcPts, srcOff, srcOff + numPts * srcDim);
+            srcOff = 0;
+        }
+        final int chunk = Math.min(CHUNK, numPts);
+        final double[] src = new double[chunk * srcDim];
+        final double[] dst = new double[chunk * tgtDim];
+        while (numPts > 0) {
+            final int n = Math.min(chunk, numPts);
+            for (int i=0; i < n*srcDim; i++) src[i] = srcPts[srcOff++];
+            transformDisjoint(src, 0, dst, 0, n);
+            for (int i=0; i < n*tgtDim; i++) dstPts[dstOff++] = (float) dst[i];
+            numPts -= n;
+        }
+    }
+
+    /**
+     * Transforms a list of coordinate tuples, using cached results when available.
+     */
+    @Override
+    public void transform(final float[] srcPts, int srcOff, final double[] dstPts, int dstOff, int numPts)
+            throws TransformException
+    {
+        final int chunk = Math.min(CHUNK, numPts);
+        final double[] src = new double[chunk * srcDim];
+        while (numPts > 0) {
+            final int n = Math.min(chunk, numPts);
+            for (int i=0; i < n*srcDim; i++) src[i] = srcPts[srcOff++];
+            transformDisjoint(src, 0, dstPts, dstOff, n);
+            dstOff += n * tgtDim;
+            numPts -= n;
+        }
+    }
+
+    /**
+     * Transforms a list of coordinate tuples, using cached results when available.
+     */
+    @Override
+    public void transform(final double[] srcPts, int srcOff, final float[] dstPts, int dstOff, int numPts)
+            throws TransformException
+    {
+        final int chunk = Math.min(CHUNK, numPts);
+        final double[] dst = new double[chunk * tgtDim];
+        while (numPts > 0) {
+            final int n = Math.min(chunk, numPts);
+            transformDisjoint(srcPts, srcOff, dst, 0, n);
+            for (int i=0; i < n*tgtDim; i++) dstPts[dstOff++] = (float) dst[i];
+            srcOff += n * srcDim;
+            numPts -= n;
+        }
+    }
+
+    /**
+     * Transforms the given position, using cached results when available.
+     * If {@code ptDst} is null, a new position without <abbr>CRS</abbr> is created.
+     */
+    @Override
+    public DirectPosition transform(final DirectPosition ptSrc, final DirectPosition ptDst)
+            throws MismatchedDimensionException, TransformException
+    {
+        if (ptSrc.getDimension() != srcDim || (ptDst != null && ptDst.getDimension() != tgtDim)) {
+            throw new MismatchedDimensionException("Expected positions of dimensions " + srcDim + " and " + tgtDim + '.');
+        }
+        final double[] result = new double[tgtDim];
+        transformDisjoint(ptSrc.getCoordinate(), 0, result, 0, 1);
+        if (ptDst == null) {
+            return DirectPositionFromGT.wrap(new GeneralPosition(result));
+        }
+        for (int i=0; i<tgtDim; i++) {
+            ptDst.setOrdinate(i, result[i]);
+        }
+        return ptDst;
+    }
+
+    @Override
+    public int getSourceDimensions() {
+        return srcDim;
+    }
+
+    @Override
+    public int getTargetDimensions() {
+        return tgtDim;
+    }
+
+    @Override
+    public Matrix derivative(final DirectPosition point) throws MismatchedDimensionException, TransformException {
+        return transform.derivative(point);
+    }
+
+    @Override
+    public MathTransform inverse() throws NoninvertibleTransformException {
+        return transform.inverse();
+    }
+
+    @Override
+    public boolean isIdentity() {
+        return transform.isIdentity();
+    }
+
+    @Override
+    public String toWKT() throws UnsupportedOperationException {
+        return transform.toWKT();
+    }
+
+    /**
+     * {@return the string representation of the wrapped transform}.
+     */
+    @Override
+    public String toString() {
+        return transform.toString();
+    }
+}
@@ -0,0 +1,294 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+
+/**
+ * An immutable table of authority codes in a compact form. Codes made of a prefix followed by a decimal
+ * integer, for example {@code "4326"} or {@code "EPSG:4326"}, are stored as sorted {@code int} arrays,
+ * one array per distinct prefix. Other codes are stored as a sorted array of strings. Each code has an
+ * index in the table, and sets of codes are represented by bitsets over those indexes.
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+final class CodeTable {
+    /**
+     * Maximal number of distinct prefixes of numeric codes. Codes with more prefixes are stored as strings.
+     */
+    private static final int MAX_PREFIXES = 16;
+
+    /**
+     * Maximal number of digits in a numeric code, for ensuring that the value fits in an {@code int}.
+     */
+    private static final int MAX_DIGITS = 9;
+
+    /**
+     * The prefixes of numeric codes, in the same order as {@link #numbers}.
+     */
+    private final String[] prefixes;
+
+    /**
+     * The sorted numeric values of the codes for each prefix.
+     */
+    private final int[][] numbers;
+
+    /**
+     * Index of the first code of each prefix. The last element is the index of the first string.
+     */
+    private final int[] offsets;
+
+    /**
+     * The sorted codes which are not numeric.
+     */
+    private final String[] strings;
+
+    /**
+     * Creates a table for the given distinct codes.
+     *
+     * @param  codes  the codes to put in the table.
+     */
+    private CodeTable(final Collection<String> codes) {
+        final var groups = new TreeMap<String, List<Integer>>();
+        final var others = new TreeSet<String>();
+        for (final String code : codes) {
+            final int s = numericStart(code);
+            if (s >= 0) {
+                final String prefix = code.substring(0, s);
+                List<Integer> group = groups.get(prefix);
+                if (group == null && groups.size() < MAX_PREFIXES) {
+                    group = new ArrayList<>();
+                    groups.put(prefix, group);
+                }
+                if (group != null) {
+                    group.add(Integer.parseInt(code, s, code.length(), 10));
+                    continue;
+                }
+            }
+            others.add(code);
+        }
+        prefixes = groups.keySet().toArray(String[]::new);
+        numbers  = new int[prefixes.length][];
+        offsets  = new int[prefixes.length + 1];
+        int offset = 0;
+        for (int i=0; i<prefixes.length; i++) {
+            final int[] values = groups.get(prefixes[i]).stream().mapToInt(Integer::intValue).sorted().distinct().toArray();
+            numbers[i] = values;
+            offsets[i] = offset;
+            offset += values.length;
+        }
+        offsets[prefixes.length] = offset;
+        strings = others.toArray(String[]::new);
+    }
+
+    /**
+     * Creates a table for the given codes.
+     *
+     * @param  codes  the codes to put in the table.
+     * @return a table containing the given codes.
+     */
+    static CodeTable of(final Collection<String> codes) {
+        return new CodeTable(codes);
+    }
+
+    /**
+     * Returns a table containing the codes of this table and the given codes.
+     * The indexes of the codes of this table may be different in the new table.
+     *
+     * @param  codes  the codes to add.
+     * @return a table containing all codes.
+     */
+    CodeTable union(final Collection<String> codes) {
+        final var all = new ArrayList<String>(size() + codes.size());
+        for (int i=0; i<size(); i++) {
+            all.add(code(i));
+        }
+        all.addAll(codes);
+        return new CodeTable(all);
+    }
+
+    /**
+     * Returns the index of the first digit of the numeric part of the given code,
+     * or -1 if the code does not end with a decimal integer which can be stored in this table.
+     * The integer shall not have leading zeros, so that it can be formatted back to the same code.
+     */
+    private static int numericStart(final String code) {
+        final int end = code.length();
+        int s = end;
+        while (s > 0 && code.charAt(s - 1) >= '0' && code.charAt(s - 1) <= '9') {
+            s--;
+        }
+        final int n = end - s;
+        if (n == 0 || n > MAX_DIGITS || (n > 1 && code.charAt(s) == '0')) {
+            return -1;
+        }
+        return s;
+    }
+
+    /**
+     * {@return the number of codes in this table}.
+     */
+    int size() {
+        return offsets[prefixes.length] + strings.length;
+    }
+
+    /**
+     * Returns the index of the given code, or -1 if the code is not in this table.
+     *
+     * @param  code  the code to search.
+     * @return index of the given code, or -1 if none.
+     */
+    int indexOf(final String code) {
+        final int s = numericStart(code);
+        if (s >= 0) {
+            for (int i=0; i<prefixes.length; i++) {
+                final String prefix = prefixes[i];
+                if (prefix.length() == s && code.startsWith(prefix)) {
+                    final int j = Arrays.binarySearch(numbers[i], Integer.parseInt(code, s, code.length(), 10));
+                    return (j >= 0) ? offsets[i] + j : -1;
+                }
+            }
+        }
+        final int j = Arrays.binarySearch(strings, code);
+        return (j >= 0) ? offsets[prefixes.length] + j : -1;
+    }
+
+    /**
+     * Returns the code at the given index.
+     *
+     * @param  index  index of the code, from 0 inclusive to {@link #size()} exclusive.
+     * @return the code at the given index.
+     */
+    String code(final int index) {
+        for (int i=prefixes.length; --i >= 0;) {
+            final int offset = offsets[i];
+            if (index >= offset && index < offsets[i+1]) {
+                final String prefix = prefixes[i];
+                final String number = Integer.toString(numbers[i][index - offset]);
+                return prefix.isEmpty() ? number : prefix.concat(number);
+            }
+        }
+        return strings[index - offsets[prefixes.length]];
+    }
+
+    /**
+     * Returns an immutable set containing the given codes, which shall all be in this table.
+     *
+     * @param  codes  the codes to put in the set.
+     * @return an immutable view over the given codes.
+     * @throws IllegalArgumentException if a code is not in this table.
+     */
+    Subset subset(final Collection<String> codes) {
+        final var bits = new BitSet(size());
+        for (final String code : codes) {
+            final int i = indexOf(code);
+            if (i < 0) {
+                throw new IllegalArgumentException("Unknown code: " + code);
+            }
+            bits.set(i);
+        }
+        return new Subset(this, bits);
+    }
+
+    /**
+     * An immutable set of codes represented by a bitset over the indexes of a table.
+     */
+    static final class Subset extends AbstractSet<String> {
+        /**
+         * The table of all codes.
+         */
+        final CodeTable table;
+
+        /**
+         * The indexes of the codes which are members of this set.
+         */
+        private final BitSet bits;
+
+        /**
+         * Number of codes in this set.
+         */
+        private final int size;
+
+        /**
+         * Creates a new set for the given bits, which shall not be modified after this call.
+         */
+        Subset(final CodeTable table, final BitSet bits) {
+            this.table = table;
+            this.bits  = bits;
+            this.size  = bits.cardinality();
+        }
+
+        /**
+         * {@return the number of codes in this set}.
+         */
+        @Override
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Returns whether this set contains the given code.
+         * The cost is a binary search in the table.
+         *
+         * @param  code  the code to search.
+         * @return whether the given code is a member of this set.
+         */
+        @Override
+        public boolean contains(final Object code) {
+            if (code instanceof String c) {
+                final int i = table.indexOf(c);
+                return i >= 0 && bits.get(i);
+            }
+            return false;
+        }
+
+        /**
+         * {@return an iterator over the codes in the order of the table}.
+         */
+        @Override
+        public Iterator<String> iterator() {
+            return new Iterator<String>() {
+                /** Index of the next code, or -1 if none. */
+                private int next = bits.nextSetBit(0);
+
+                @Override
+                public boolean hasNext() {
+                    return next >= 0;
+                }
+
+                @Override
+                public String next() {
+                    final int i = next;
+                    if (i < 0) {
+                        throw new NoSuchElementException();
+                    }
+                    next = bits.nextSetBit(i + 1);
+                    return table.code(i);
+                }
+            };
+        }
+    }
+}
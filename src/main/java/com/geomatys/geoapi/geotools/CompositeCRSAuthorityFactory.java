@@ -0,0 +1,388 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.opengis.metadata.Identifier;
+import org.opengis.metadata.citation.Citation;
+import org.opengis.referencing.IdentifiedObject;
+import org.opengis.referencing.NoSuchAuthorityCodeException;
+import org.opengis.referencing.crs.CRSAuthorityFactory;
+import org.opengis.referencing.crs.CompoundCRS;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.crs.DerivedCRS;
+import org.opengis.referencing.crs.EngineeringCRS;
+import org.opengis.referencing.crs.GeocentricCRS;
+import org.opengis.referencing.crs.GeographicCRS;
+import org.opengis.referencing.crs.ImageCRS;
+import org.opengis.referencing.crs.ProjectedCRS;
+import org.opengis.referencing.crs.TemporalCRS;
+import org.opengis.referencing.crs.VerticalCRS;
+import org.opengis.util.FactoryException;
+import org.opengis.util.InternationalString;
+
+
+/**
+ * A <abbr>CRS</abbr> authority factory which routes each request to the factory of the authority named in the code.
+ * Codes can be given in any of the following syntaxes, which are all reduced to the canonical
+ * {@code "AUTHORITY:code"} form before to be given to the underlying factory:
+ *
+ * <ul>
+ *   <li>{@code EPSG:4326}, {@code epsg:4326}, {@code CRS:84} or {@code AUTO:42001,-100,45}</li>
+ *   <li>{@code urn:ogc:def:crs:EPSG::4326} or {@code urn:ogc:def:crs:EPSG:9.1:4326}</li>
+ *   <li>{@code http://www.opengis.net/def/crs/EPSG/0/4326}</li>
+ *   <li>{@code http://www.opengis.net/gml/srs/epsg.xml#4326}</li>
+ * </ul>
+ *
+ * The {@code OGC:CRS84} code (in <abbr>URN</abbr> or <abbr>HTTP</abbr> syntax) is mapped to {@code CRS:84}.
+ * Versions in <abbr>URN</abbr> and <abbr>HTTP</abbr> codes are ignored. Because all syntaxes are routed
+ * to the same factory, the axis order is the one of that factory regardless of the syntax. Consequently,
+ * the caching done by the underlying factories is shared by all syntaxes of the same code.
+ *
+ * <p>The factory for each authority is found by a lookup in a table built at construction time,
+ * instead of trying each factory in turn. When many factories declare the same authority,
+ * the first one in iteration order has precedence.</p>
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+public final class CompositeCRSAuthorityFactory implements CRSAuthorityFactory {
+    /**
+     * An authority name together with the factory to use for that authority.
+     *
+     * @param authority  the authority name in upper cases.
+     * @param factory    the factory to use for codes of that authority.
+     */
+    private record Route(String authority, CRSAuthorityFactory factory) {
+    }
+
+    /**
+     * The routes indexed by the 5 lowest bits of the first character of the authority name.
+     * Those bits are the same for upper-case and lower-case letters. Elements may be null.
+     */
+    private final Route[][] routes;
+
+    /**
+     * All distinct factories which are the target of at least one route, in iteration order.
+     */
+    private final List<CRSAuthorityFactory> factories;
+
+    /**
+     * Creates a new factory routing the requests to the given factories.
+     * The authorities of each factory are the identifiers of {@link CRSAuthorityFactory#getAuthority()}.
+     *
+     * @param  factories  the factories to use, in preference order.
+     * @throws IllegalArgumentException if none of the given factories declares an authority.
+     */
+    public CompositeCRSAuthorityFactory(final Iterable<? extends CRSAuthorityFactory> factories) {
+        final var targets = new ArrayList<CRSAuthorityFactory>();
+        final var byName  = new LinkedHashMap<String, CRSAuthorityFactory>();
+        for (final CRSAuthorityFactory factory : factories) {
+            boolean used = false;
+            for (final String name : authorities(factory.getAuthority())) {
+                used |= (byName.putIfAbsent(name, factory) == null);
+            }
+            if (used) {
+                targets.add(factory);
+            }
+        }
+        if (targets.isEmpty()) {
+            throw new IllegalArgumentException("None of the given factories declares an authority.");
+        }
+        routes = new Route[32][];
+        for (final Map.Entry<String, CRSAuthorityFactory> entry : byName.entrySet()) {
+            final String name = entry.getKey();
+            final int bucket = name.charAt(0) & 0x1F;
+            Route[] bucketRoutes = routes[bucket];
+            bucketRoutes = (bucketRoutes == null) ? new Route[1] : Arrays.copyOf(bucketRoutes, bucketRoutes.length + 1);
+            bucketRoutes[bucketRoutes.length - 1] = new Route(name, entry.getValue());
+            routes[bucket] = bucketRoutes;
+        }
+        this.factories = List.copyOf(targets);
+    }
+
+    /**
+     * Returns the authority names declared in the given citation, in upper cases.
+     * Names which cannot be the authority part of a code are ignored.
+     */
+    private static Set<String> authorities(final Citation authority) {
+        final var names = new LinkedHashSet<String>();
+        if (authority != null) {
+            for (final Identifier id : authority.getIdentifiers()) {
+                final String name = (id != null) ? id.getCode() : null;
+                if (name != null && !name.isEmpty() && name.chars().allMatch((c) -> Character.isLetterOrDigit(c) || c == '_' || c == '-')) {
+                    names.add(name.toUpperCase(Locale.ROOT));
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Returns the given code in the canonical {@code "AUTHORITY:code"} form, or {@code null} if the syntax is not recognized.
+     * URNs and URLs are recognized only if their object type is {@code crs}, since this factory creates
+     * only <abbr>CRS</abbr>s. For example, {@code "urn:ogc:def:datum:EPSG::6326"} is not recognized.
+     * This method parses the code in a single pass without intermediate strings.
+     * If the given code is already canonical, then it is returned as-is.
+     *
+     * @param  code  the code to canonicalize.
+     * @return the canonical code, or {@code null} if the syntax is not recognized.
+     */
+    static String canonicalize(final String code) {
+        int lo = 0, hi = code.length();
+        while (lo < hi && Character.isWhitespace(code.charAt(lo))) {
+            lo++;
+        }
+        while (hi > lo && Character.isWhitespace(code.charAt(hi - 1))) {
+            hi--;
+        }
+        int as, ae, cs;         // Authority start (inclusive), authority end (exclusive) and code start.
+        if (code.regionMatches(true, lo, "urn:", 0, 4)) {
+            /*
+             * urn:ogc:def:crs:AUTHORITY:[version]:code
+             * The object type shall be "crs", since this factory creates only CRS.
+             */
+            as = ae = cs = -1;
+            int n = 0;
+            for (int i=lo; i<hi; i++) {
+                if (code.charAt(i) == ':') {
+                    switch (++n) {
+                        case 3: as = i + 1; break;
+                        case 4: {
+                            if (i - as != 3 || !code.regionMatches(true, as, "crs", 0, 3)) {
+                                return null;
+                            }
+                            as = i + 1;
+                            break;
+                        }
+                        case 5: ae = i; cs = i + 1; break;
+                        case 6: cs = i + 1; break;
+                        case 7: return null;
+                    }
+                }
+            }
+            if (n < 5) {
+                return null;
+            }
+        } else if (code.regionMatches(true, lo, "http://", 0, 7) || code.regionMatches(true, lo, "https://", 0, 8)) {
+            final int def = code.indexOf("/def/", lo);
+            if (def >= 0 && def < hi) {
+                /*
+                 * http://www.opengis.net/def/crs/AUTHORITY/version/code
+                 */
+                if (!code.regionMatches(true, def + 5, "crs/", 0, 4)) {
+                    return null;
+                }
+                as = def + 9;
+                ae = code.indexOf('/', as);
+                if (as == 0 || ae < 0) {
+                    return null;
+                }
+                cs = code.indexOf('/', ae + 1) + 1;
+                if (cs == 0 || code.indexOf('/', cs) >= 0) {
+                    return null;
+                }
+            } else {
+                /*
+                 * http://www.opengis.net/gml/srs/authority.xml#code
+                 */
+                cs = code.lastIndexOf('#', hi - 1) + 1;
+                as = code.lastIndexOf('/', cs - 1) + 1;
+                if (cs <= lo || as <= lo) {
+                    return null;
+                }
+                ae = code.indexOf('.', as);
+                if (ae < 0 || ae >= cs) {
+                    ae = cs - 1;
+                }
+            }
+        } else {
+            /*
+             * AUTHORITY:code with optional spaces around the separator.
+             */
+            final int s = code.indexOf(':', lo);
+            if (s < 0 || s >= hi) {
+                return null;
+            }
+            as = lo;
+            ae = s;
+            cs = s + 1;
+            while (ae > as && Character.isWhitespace(code.charAt(ae - 1))) {
+                ae--;
+            }
+            while (cs < hi && Character.isWhitespace(code.charAt(cs))) {
+                cs++;
+            }
+        }
+        if (as >= ae || cs >= hi) {
+            return null;
+        }
+        if (ae - as == 3 && code.regionMatches(true, as, "OGC", 0, 3) && hi - cs > 3 && code.regionMatches(true, cs, "CRS", 0, 3)) {
+            return "CRS:" + code.substring(cs + 3, hi);
+        }
+        boolean canonical = (as == 0 && hi == code.length() && cs == ae + 1 && code.charAt(ae) == ':');
+        for (int i=as; canonical && i<ae; i++) {
+            canonical = !Character.isLowerCase(code.charAt(i));
+        }
+        if (canonical) {
+            return code;
+        }
+        final var buffer = new StringBuilder(ae - as + 1 + hi - cs);
+        for (int i=as; i<ae; i++) {
+            buffer.append(Character.toUpperCase(code.charAt(i)));
+        }
+        return buffer.append(':').append(code, cs, hi).toString();
+    }
+
+    /**
+     * Returns the factory for the authority of the given canonical code.
+     *
+     * @param  canonical  the canonical code, or {@code null} if the syntax was not recognized.
+     * @param  code       the code as given by the user, for the error message.
+     * @return the factory for the authority of the given code.
+     * @throws NoSuchAuthorityCodeException if the syntax was not recognized or the authority is unknown.
+     */
+    private CRSAuthorityFactory factory(final String canonical, final String code) throws NoSuchAuthorityCodeException {
+        if (canonical == null) {
+            throw new NoSuchAuthorityCodeException("Unrecognized syntax for code \"" + code + "\".", null, code);
+        }
+        final int n = canonical.indexOf(':');
+        final Route[] candidates = routes[canonical.charAt(0) & 0x1F];
+        if (candidates != null) {
+            for (final Route route : candidates) {
+                if (route.authority.length() == n && canonical.startsWith(route.authority)) {
+                    return route.factory;
+                }
+            }
+        }
+        final String authority = canonical.substring(0, n);
+        throw new NoSuchAuthorityCodeException("No factory for authority \"" + authority + "\".", authority, code);
+    }
+
+    /**
+     * {@return the authority of the first factory}.
+     */
+    @Override
+    public Citation getAuthority() {
+        return factories.get(0).getAuthority();
+    }
+
+    /**
+     * {@return the vendor of the first factory}.
+     */
+    @Override
+    public Citation getVendor() {
+        return factories.get(0).getVendor();
+    }
+
+    /**
+     * Returns the codes of all factories. Codes that do not have an authority prefix
+     * are prefixed by the first authority of their factory.
+     *
+     * @param  type  the type of objects for which to get the codes.
+     * @return the codes of all factories for the given type.
+     * @throws FactoryException if a factory failed to provide its codes.
+     */
+    @Override
+    public Set<String> getAuthorityCodes(final Class<? extends IdentifiedObject> type) throws FactoryException {
+        final var codes = new LinkedHashSet<String>();
+        for (final CRSAuthorityFactory factory : factories) {
+            final String prefix = authorities(factory.getAuthority()).iterator().next() + ':';
+            for (final String code : factory.getAuthorityCodes(type)) {
+                codes.add(code.indexOf(':') >= 0 ? code : prefix + code);
+            }
+        }
+        return codes;
+    }
+
+    @Override
+    public InternationalString getDescriptionText(final String code) throws FactoryException {
+        final String c = canonicalize(code);
+        return factory(c, code).getDescriptionText(c);
+    }
+
+    @Override
+    public IdentifiedObject createObject(final String code) throws FactoryException {
+        final String c = canonicalize(code);
+        return factory(c, code).createObject(c);
+    }
+
+    @Override
+    public CoordinateReferenceSystem createCoordinateReferenceSystem(final String code) throws FactoryException {
+        final String c = canonicalize(code);
+        return factory(c, code).createCoordinateReferenceSystem(c);
+    }
+
+    @Override
+    public CompoundCRS createCompoundCRS(final String code) throws FactoryException {
+        final String c = canonicalize(code);
+        return factory(c, code).createCompoundCRS(c);
+    }
+
+    @Override
+    public DerivedCRS createDerivedCRS(final String code) throws FactoryException {
+        final String c = canonicalize(code);
+        return factory(c, code).createDerivedCRS(c);
+    }
+
+    @Override
+    public EngineeringCRS createEngineeringCRS(final String code) throws FactoryException {
+        final String c = canonicalize(code);
+        return factory(c, code).createEngineeringCRS(c);
+    }
+
+    @Override
+    public GeographicCRS createGeographicCRS(final String code) throws FactoryException {
+        final String c = canonicalize(code);
+        return factory(c, code).createGeographicCRS(c);
+    }
+
+    @Override
+    public GeocentricCRS createGeocentricCRS(final String code) throws FactoryException {
+        final String c = canonicalize(code);
+        return factory(c, code).createGeocentricCRS(c);
+    }
+
+    @Override
+    public ImageCRS createImageCRS(final String code) throws FactoryException {
+        final String c = canonicalize(code);
+        return factory(c, code).createImageCRS(c);
+    }
+
+    @Override
+    public ProjectedCRS createProjectedCRS(final String code) throws FactoryException {
+        final String c = canonicalize(code);
+        return factory(c, code).createProjectedCRS(c);
+    }
+
+    @Override
+    public TemporalCRS createTemporalCRS(final String code) throws FactoryException {
+        final String c = canonicalize(code);
+        return factory(c, code).createTemporalCRS(c);
+    }
+
+    @Override
+    public VerticalCRS createVerticalCRS(final String code) throws FactoryException {
+        final String c = canonicalize(code);
+        return factory(c, code).createVerticalCRS(c);
+    }
+}
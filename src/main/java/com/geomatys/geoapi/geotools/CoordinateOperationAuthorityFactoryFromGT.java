@@ -15,6 +15,9 @@
  */
 package com.geomatys.geoapi.geotools;
 
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 import org.opengis.referencing.operation.CoordinateOperationAuthorityFactory;
 import org.opengis.referencing.operation.CoordinateOperation;
@@ -39,6 +42,7 @@ final class CoordinateOperationAuthorityFactoryFromGT extends AuthorityFactoryFr
      * @param impl the GeoTools implementation on which to delegate all methods
      */
     private CoordinateOperationAuthorityFactoryFromGT(final org.geotools.api.referencing.operation.CoordinateOperationAuthorityFactory impl) {
+        super(impl);
         this.impl = impl;
     }
 
@@ -68,11 +72,7 @@ final class CoordinateOperationAuthorityFactoryFromGT extends AuthorityFactoryFr
 
     @Override
     public CoordinateOperation createCoordinateOperation(String code) throws FactoryException {
-        try {
-            return CoordinateOperationFromGT.wrap(impl.createCoordinateOperation(code));
-        } catch (org.geotools.api.referencing.FactoryException e) {
-            throw wrap(e);
-        }
+        return create(CoordinateOperation.class, code, (c) -> CoordinateOperationFromGT.wrap(impl.createCoordinateOperation(c)));
     }
 
     @Override
@@ -81,11 +81,11 @@ final class CoordinateOperationAuthorityFactoryFromGT extends AuthorityFactoryFr
     }
 
     @Override
+    @SuppressWarnings("unchecked")      // The cache contains only sets of operations for this key type.
     public Set<CoordinateOperation> createFromCoordinateReferenceSystemCodes(String source, String target) throws FactoryException {
-        try {
-            return wrap(impl.createFromCoordinateReferenceSystemCodes(source, target), CoordinateOperationFromGT::wrap);
-        } catch (org.geotools.api.referencing.FactoryException e) {
-            throw wrap(e);
-        }
+        final var key = List.of(ObjectCache.normalize(source), ObjectCache.normalize(target));
+        return cache.compute(Set.class, key, () -> Collections.unmodifiableSet(new LinkedHashSet<>(
+                wrap(Offloader.call(Set.class, () -> impl.createFromCoordinateReferenceSystemCodes(source, target)),
+                     CoordinateOperationFromGT::wrap))));
     }
 }
@@ -16,6 +16,7 @@
 package com.geomatys.geoapi.geotools;
 
 import java.util.Map;
+import java.util.WeakHashMap;
 import org.opengis.referencing.crs.*;
 import org.opengis.referencing.operation.*;
 import org.opengis.parameter.ParameterValueGroup;
@@ -33,6 +34,36 @@ final class CoordinateOperationFactoryFromGT extends ObjectFactoryFromGT impleme
      */
     final org.geotools.api.referencing.operation.CoordinateOperationFactory impl;
 
+    /**
+     * Whether the operations are cached by the structure of the source and target <abbr>CRS</abbr>,
+     * ignoring metadata such as identifiers, instead of by the <abbr>CRS</abbr> themselves.
+     */
+    static volatile boolean ignoreMetadata;
+
+    /**
+     * The strict fingerprints of the GeoTools <abbr>CRS</abbr> used as keys when metadata are ignored.
+     * Computing a fingerprint requires formatting the datum in <abbr>WKT</abbr>, which is more costly
+     * than a cache lookup. All accesses shall be synchronized on this map.
+     */
+    private static final Map<Object, String> FINGERPRINTS = new WeakHashMap<>();
+
+    /**
+     * Key of a cached operation. The lenient flag is part of the key because the caches are shared
+     * by all GeoTools factories that are equal, which may not distinguish lenient and strict factories.
+     *
+     * @param source   the GeoTools source <abbr>CRS</abbr>, or its fingerprint if metadata are ignored.
+     * @param target   the GeoTools target <abbr>CRS</abbr>, or its fingerprint if metadata are ignored.
+     * @param method   the GeoTools operation method, or {@code null} if none.
+     * @param lenient  the argument given to {@link Services#getCoordinateOperationFactory(boolean)}, or {@code null}.
+     */
+    private record Key(Object source, Object target, Object method, Boolean lenient) {
+    }
+
+    /**
+     * The operations created by the GeoTools factory, shared by all wrappers of the same factory.
+     */
+    final ObjectCache cache;
+
     /**
      * Creates a new wrapper for the given GeoTools implementation.
      *
@@ -40,6 +71,7 @@ final class CoordinateOperationFactoryFromGT extends ObjectFactoryFromGT impleme
      */
     private CoordinateOperationFactoryFromGT(final org.geotools.api.referencing.operation.CoordinateOperationFactory impl) {
         this.impl = impl;
+        cache = ObjectCache.forFactory(impl);
     }
 
     /**
@@ -71,14 +103,15 @@ final class CoordinateOperationFactoryFromGT extends ObjectFactoryFromGT impleme
                                                CoordinateReferenceSystem targetCRS)
             throws FactoryException
     {
-        try {
-            return CoordinateOperationFromGT.wrap(
-                    impl.createOperation(
-                            CoordinateReferenceSystemToGT.wrap(sourceCRS),
-                            CoordinateReferenceSystemToGT.wrap(targetCRS)));
-        } catch (org.geotools.api.referencing.FactoryException e) {
-            throw wrap(e);
+        final var source = CoordinateReferenceSystemToGT.wrap(sourceCRS);
+        final var target = CoordinateReferenceSystemToGT.wrap(targetCRS);
+        final CoordinateOperation operation = cache.compute(CoordinateOperation.class,
+                key(sourceCRS, targetCRS, source, target, null),
+                () -> CoordinateOperationFromGT.wrap(Offloader.call(CoordinateOperation.class, () -> impl.createOperation(source, target))));
+        if (AccessProfile.recording) {
+            AccessProfile.recordPair(sourceCRS, targetCRS, Services.argument(this));
         }
+        return operation;
     }
 
     @Override
@@ -87,15 +120,61 @@ final class CoordinateOperationFactoryFromGT extends ObjectFactoryFromGT impleme
                                                OperationMethod method)
             throws FactoryException
     {
-        try {
-            return CoordinateOperationFromGT.wrap(
-                    impl.createOperation(
-                            CoordinateReferenceSystemToGT.wrap(sourceCRS),
-                            CoordinateReferenceSystemToGT.wrap(targetCRS),
-                            OperationMethodToGT.wrap(method)));
-        } catch (org.geotools.api.referencing.FactoryException e) {
-            throw wrap(e);
+        final var source = CoordinateReferenceSystemToGT.wrap(sourceCRS);
+        final var target = CoordinateReferenceSystemToGT.wrap(targetCRS);
+        final var m = OperationMethodToGT.wrap(method);
+        return cache.compute(CoordinateOperation.class, key(sourceCRS, targetCRS, source, target, m),
+                () -> CoordinateOperationFromGT.wrap(Offloader.call(CoordinateOperation.class, () -> impl.createOperation(source, target, m))));
+    }
+
+    /**
+     * Returns the key of the operation between the given <abbr>CRS</abbr>.
+     * If metadata are ignored, the key is made of the strict fingerprints of the <abbr>CRS</abbr>,
+     * which include the names and values of all parameters and the datum shifts without rounding.
+     * If a fingerprint cannot be computed, the <abbr>CRS</abbr> themselves are used.
+     *
+     * @param  sourceCRS  the GeoAPI source <abbr>CRS</abbr>.
+     * @param  targetCRS  the GeoAPI target <abbr>CRS</abbr>.
+     * @param  source     the GeoTools source <abbr>CRS</abbr>.
+     * @param  target     the GeoTools target <abbr>CRS</abbr>.
+     * @param  method     the GeoTools operation method, or {@code null} if none.
+     * @return the key of the operation in the cache.
+     */
+    private Key key(final CoordinateReferenceSystem sourceCRS, final CoordinateReferenceSystem targetCRS,
+                    final Object source, final Object target, final Object method)
+    {
+        final Boolean lenient = Services.argument(this);
+        if (ignoreMetadata) {
+            try {
+                return new Key(fingerprint(sourceCRS, source), fingerprint(targetCRS, target), method, lenient);
+            } catch (UnsupportedOperationException e) {
+                // The WKT of a datum is not available. Fallback on the key without fingerprint.
+            }
+        }
+        return new Key(source, target, method, lenient);
+    }
+
+    /**
+     * Returns the strict fingerprint of the given <abbr>CRS</abbr>, computing it only on the first request
+     * for the given GeoTools instance.
+     *
+     * @param  crs   the GeoAPI <abbr>CRS</abbr>.
+     * @param  impl  the GeoTools <abbr>CRS</abbr> which is wrapped by, or wraps, the GeoAPI <abbr>CRS</abbr>.
+     * @return the strict fingerprint of the <abbr>CRS</abbr>.
+     * @throws UnsupportedOperationException if the <abbr>WKT</abbr> of a datum is not available.
+     */
+    private static String fingerprint(final CoordinateReferenceSystem crs, final Object impl) {
+        String fingerprint;
+        synchronized (FINGERPRINTS) {
+            fingerprint = FINGERPRINTS.get(impl);
+        }
+        if (fingerprint == null) {
+            fingerprint = IdentificationIndex.fingerprint(crs, true);
+            synchronized (FINGERPRINTS) {
+                FINGERPRINTS.put(impl, fingerprint);
+            }
         }
+        return fingerprint;
     }
 
     @Override
@@ -50,6 +50,7 @@ class CoordinateReferenceSystemToGT<S extends org.opengis.referencing.crs.Coordi
             case null: return null;
             case CoordinateReferenceSystem c: return c;
             case CoordinateReferenceSystemFromGT<?> c: return c.impl;
+            case java.lang.reflect.Proxy c when java.lang.reflect.Proxy.getInvocationHandler(c) instanceof LazyCRS h: return wrap(h.materialize());
             case org.opengis.referencing.crs.SingleCRS c: return SingleCRSToGT.wrap(c);
             case org.opengis.referencing.crs.CompoundCRS c: return new CompoundCRSToGT(c);
             default: return new CoordinateReferenceSystemToGT<>(impl);
@@ -44,6 +44,7 @@ final class DatumAuthorityFactoryFromGT extends AuthorityFactoryFromGT implement
      * @param impl the GeoTools implementation on which to delegate all methods
      */
     private DatumAuthorityFactoryFromGT(final org.geotools.api.referencing.datum.DatumAuthorityFactory impl) {
+        super(impl);
         this.impl = impl;
     }
 
@@ -73,73 +74,41 @@ final class DatumAuthorityFactoryFromGT extends AuthorityFactoryFromGT implement
 
     @Override
     public Datum createDatum(String code) throws FactoryException {
-        try {
-            return DatumFromGT.wrap(impl.createDatum(code));
-        } catch (org.geotools.api.referencing.FactoryException e) {
-            throw wrap(e);
-        }
+        return create(Datum.class, code, (c) -> DatumFromGT.wrap(impl.createDatum(c)));
     }
 
     @Override
     public Ellipsoid createEllipsoid(String code) throws FactoryException {
-        try {
-            return EllipsoidFromGT.wrap(impl.createEllipsoid(code));
-        } catch (org.geotools.api.referencing.FactoryException e) {
-            throw wrap(e);
-        }
+        return create(Ellipsoid.class, code, (c) -> EllipsoidFromGT.wrap(impl.createEllipsoid(c)));
     }
 
     @Override
     public PrimeMeridian createPrimeMeridian(String code) throws FactoryException {
-        try {
-            return PrimeMeridianFromGT.wrap(impl.createPrimeMeridian(code));
-        } catch (org.geotools.api.referencing.FactoryException e) {
-            throw wrap(e);
-        }
+        return create(PrimeMeridian.class, code, (c) -> PrimeMeridianFromGT.wrap(impl.createPrimeMeridian(c)));
     }
 
     @Override
     public GeodeticDatum createGeodeticDatum(String code) throws FactoryException {
-        try {
-            return GeodeticDatumFromGT.wrap(impl.createGeodeticDatum(code));
-        } catch (org.geotools.api.referencing.FactoryException e) {
-            throw wrap(e);
-        }
+        return create(GeodeticDatum.class, code, (c) -> GeodeticDatumFromGT.wrap(impl.createGeodeticDatum(c)));
     }
 
     @Override
     public VerticalDatum createVerticalDatum(String code) throws FactoryException {
-        try {
-            return VerticalDatumFromGT.wrap(impl.createVerticalDatum(code));
-        } catch (org.geotools.api.referencing.FactoryException e) {
-            throw wrap(e);
-        }
+        return create(VerticalDatum.class, code, (c) -> VerticalDatumFromGT.wrap(impl.createVerticalDatum(c)));
     }
 
     @Override
     public TemporalDatum createTemporalDatum(String code) throws FactoryException {
-        try {
-            return TemporalDatumFromGT.wrap(impl.createTemporalDatum(code));
-        } catch (org.geotools.api.referencing.FactoryException e) {
-            throw wrap(e);
-        }
+        return create(TemporalDatum.class, code, (c) -> TemporalDatumFromGT.wrap(impl.createTemporalDatum(c)));
     }
 
     @Override
     public EngineeringDatum createEngineeringDatum(String code) throws FactoryException {
-        try {
-            return EngineeringDatumFromGT.wrap(impl.createEngineeringDatum(code));
-        } catch (org.geotools.api.referencing.FactoryException e) {
-            throw wrap(e);
-        }
+        return create(EngineeringDatum.class, code, (c) -> EngineeringDatumFromGT.wrap(impl.createEngineeringDatum(c)));
     }
 
     @Override
     public ImageDatum createImageDatum(String code) throws FactoryException {
-        try {
-            return ImageDatumFromGT.wrap(impl.createImageDatum(code));
-        } catch (org.geotools.api.referencing.FactoryException e) {
-            throw wrap(e);
-        }
+        return create(ImageDatum.class, code, (c) -> ImageDatumFromGT.wrap(impl.createImageDatum(c)));
     }
 }
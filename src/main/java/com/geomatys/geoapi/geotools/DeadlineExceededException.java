@@ -0,0 +1,44 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import org.opengis.util.FactoryException;
+
+
+/**
+ * Thrown when an object has not been created before the deadline given by the caller.
+ * The creation may continue in background, in which case its result will be cached
+ * and available to the next requests for the same object.
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ *
+ * @see AsyncFactory#createCoordinateReferenceSystem(String, java.time.Duration)
+ */
+public class DeadlineExceededException extends FactoryException {
+    /**
+     * For cross-version compatibility.
+     */
+    private static final long serialVersionUID = -2310542857013642386L;
+
+    /**
+     * Creates an exception with the specified message.
+     *
+     * @param  message  the detail message.
+     */
+    public DeadlineExceededException(final String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.util.Objects;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.referencing.crs.ImageCRS;
+import org.opengis.referencing.datum.ImageDatum;
+import org.opengis.referencing.datum.PixelInCell;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.Matrix;
+import org.opengis.referencing.operation.TransformException;
+
+
+/**
+ * Transforms the cells of a regular two-dimensional grid to target coordinates.
+ * The grid is described by an affine "grid to <abbr>CRS</abbr>" conversion, followed by an arbitrary
+ * transform from the <abbr>CRS</abbr> of the grid to the target <abbr>CRS</abbr>. Grid coordinates
+ * are computed row by row from the affine coefficients, without materializing the source coordinates
+ * of the whole grid, then given to the target transform in one batch per row.
+ *
+ * <p>The "grid to <abbr>CRS</abbr>" conversion may map integer grid coordinates either to cell corners
+ * or to cell centers, as specified by a {@link PixelInCell} code. This class converts between the two
+ * conventions as needed for emitting the target coordinates at the anchor requested by the caller.</p>
+ *
+ * <p>Instances of this class are immutable and thread-safe if the target transform is thread-safe.</p>
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+public final class GridTransform {
+    /**
+     * Receives the target coordinates of a row of grid cells.
+     * The array given to this consumer is reused for all rows and shall not be retained.
+     */
+    @FunctionalInterface
+    public interface RowConsumer {
+        /**
+         * Invoked for each row of the requested region.
+         *
+         * @param  row          grid index of the row.
+         * @param  coordinates  target coordinates of all cells in the row, as (<var>x</var>,<var>y</var>,…) tuples.
+         * @throws TransformException if the consumer failed to process the coordinates.
+         */
+        void accept(int row, double[] coordinates) throws TransformException;
+    }
+
+    /**
+     * Coefficients of the affine conversion from grid indices to <abbr>CRS</abbr> coordinates.
+     * Those coefficients already include the translation by ½ cell needed for the requested anchor.
+     * Names are matrix elements: {@code mRC} is the element at row <var>R</var> and column <var>C</var>.
+     */
+    private final double m00, m01, m02, m10, m11, m12;
+
+    /**
+     * Whether the affine conversion has no rotation or shear terms.
+     * In such case, the <var>x</var> coordinates depend only on the column index
+     * and the <var>y</var> coordinates depend only on the row index.
+     */
+    private final boolean separable;
+
+    /**
+     * Transform from the <abbr>CRS</abbr> of the grid to the target <abbr>CRS</abbr>.
+     */
+    private final MathTransform crsToTarget;
+
+    /**
+     * Number of dimensions of the target coordinates.
+     */
+    private final int targetDimension;
+
+    /**
+     * Creates a new grid transform.
+     *
+     * @param  gridToCRS    the 3×3 affine matrix from grid indices to <abbr>CRS</abbr> coordinates.
+     * @param  gridAnchor   whether {@code gridToCRS} maps integer indices to cell corners or cell centers.
+     * @param  crsToTarget  transform from the grid <abbr>CRS</abbr> to the target <abbr>CRS</abbr>.
+     * @param  output       whether to emit coordinates of cell corners or cell centers.
+     * @throws MismatchedDimensionException if the matrix or the transform is not two-dimensional.
+     */
+    public GridTransform(final Matrix gridToCRS, final PixelInCell gridAnchor,
+                         final MathTransform crsToTarget, final PixelInCell output)
+    {
+        Objects.requireNonNull(gridToCRS,   "gridToCRS");
+        Objects.requireNonNull(gridAnchor,  "gridAnchor");
+        Objects.requireNonNull(crsToTarget, "crsToTarget");
+        Objects.requireNonNull(output,      "output");
+        if (gridToCRS.getNumRow() != 3 || gridToCRS.getNumCol() != 3) {
+            throw new MismatchedDimensionException("Expected a 3×3 matrix but got "
+                    + gridToCRS.getNumRow() + '×' + gridToCRS.getNumCol() + '.');
+        }
+        if (crsToTarget.getSourceDimensions() != 2) {
+            throw new MismatchedDimensionException("Expected a transform with two source dimensions but got "
+                    + crsToTarget.getSourceDimensions() + '.');
+        }
+        /*
+         * Shift to apply on grid indices for getting the requested anchor. If the matrix maps indices
+         * to cell corners and centers are requested, the center of cell i is at index i + ½.
+         */
+        final double shift = offset(output) - offset(gridAnchor);
+        m00 = gridToCRS.getElement(0, 0);
+        m01 = gridToCRS.getElement(0, 1);
+        m10 = gridToCRS.getElement(1, 0);
+        m11 = gridToCRS.getElement(1, 1);
+        m02 = gridToCRS.getElement(0, 2) + shift * (m00 + m01);
+        m12 = gridToCRS.getElement(1, 2) + shift * (m10 + m11);
+        separable        = (m01 == 0 && m10 == 0);
+        this.crsToTarget = crsToTarget;
+        targetDimension  = crsToTarget.getTargetDimensions();
+    }
+
+    /**
+     * Creates a new grid transform for an image <abbr>CRS</abbr>.
+     * The pixel anchor of the {@code gridToCRS} matrix is taken from the image datum.
+     * If the datum does not specify an anchor, cell centers are assumed as in the
+     * OGC <cite>GridCoverage</cite> convention.
+     *
+     * @param  crs          the image <abbr>CRS</abbr> which defines the pixel anchor.
+     * @param  gridToCRS    the 3×3 affine matrix from grid indices to <abbr>CRS</abbr> coordinates.
+     * @param  crsToTarget  transform from the grid <abbr>CRS</abbr> to the target <abbr>CRS</abbr>.
+     * @param  output       whether to emit coordinates of cell corners or cell centers.
+     * @return transform of grid cells to target coordinates.
+     * @throws MismatchedDimensionException if the matrix or the transform is not two-dimensional.
+     */
+    public static GridTransform create(final ImageCRS crs, final Matrix gridToCRS,
+                                       final MathTransform crsToTarget, final PixelInCell output)
+    {
+        PixelInCell anchor = null;
+        final ImageDatum datum = crs.getDatum();
+        if (datum != null) {
+            anchor = datum.getPixelInCell();
+        }
+        if (anchor == null) {
+            anchor = PixelInCell.CELL_CENTER;
+        }
+        return new GridTransform(gridToCRS, anchor, crsToTarget, output);
+    }
+
+    /**
+     * Returns the position in a cell, relative to the cell corner, of the given anchor.
+     */
+    private static double offset(final PixelInCell anchor) {
+        return PixelInCell.CELL_CENTER.equals(anchor) ? 0.5 : 0;
+    }
+
+    /**
+     * {@return the number of dimensions of the target coordinates}.
+     */
+    public int getTargetDimensions() {
+        return targetDimension;
+    }
+
+    /**
+     * {@return the number of {@code double} values needed for storing the target coordinates of a row}.
+     * This is the minimal length of the buffers given to {@link #transformRow transformRow(…)}.
+     *
+     * @param width number of cells in the row.
+     */
+    private int rowLength(final int width) {
+        return Math.multiplyExact(width, Math.max(targetDimension, 2));
+    }
+
+    /**
+     * Transforms the cells of a part of a row. The target coordinates are written in the given array
+     * as (<var>x</var>,<var>y</var>,…) tuples. That array must have room for {@code width} tuples of
+     * {@code max(2, targetDimensions)} values, because it is also used as a scratch buffer for the
+     * source coordinates.
+     *
+     * @param  row     grid index of the row.
+     * @param  column  grid index of the first column.
+     * @param  width   number of cells to transform.
+     * @param  dst     where to write the target coordinates.
+     * @param  dstOff  index of the first value to write in {@code dst}.
+     * @throws TransformException if a coordinate cannot be transformed.
+     */
+    public void transformRow(final int row, final int column, final int width, final double[] dst, final int dstOff)
+            throws TransformException
+    {
+        Objects.checkFromIndexSize(dstOff, rowLength(width), dst.length);
+        fillRow(row, column, width, dst, dstOff, null);
+        crsToTarget.transform(dst, dstOff, dst, dstOff, width);
+    }
+
+    /**
+     * Writes the <abbr>CRS</abbr> coordinates of the cells in a row. If {@code columnX} is non-null,
+     * it shall contain the precomputed <var>x</var> coordinates of each column (separable case).
+     * Otherwise, coordinates are computed from the row origin and the column increment.
+     */
+    private void fillRow(final int row, final int column, final int width,
+                         final double[] dst, int dstOff, final double[] columnX)
+    {
+        if (separable) {
+            final double y = Math.fma(m11, row, m12);
+            for (int i=0; i<width; i++) {
+                dst[dstOff++] = (columnX != null) ? columnX[i] : Math.fma(m00, column + i, m02);
+                dst[dstOff++] = y;
+            }
+        } else {
+            final double x0 = Math.fma(m01, row, Math.fma(m00, column, m02));
+            final double y0 = Math.fma(m11, row, Math.fma(m10, column, m12));
+            for (int i=0; i<width; i++) {
+                dst[dstOff++] = Math.fma(m00, i, x0);
+                dst[dstOff++] = Math.fma(m10, i, y0);
+            }
+        }
+    }
+
+    /**
+     * Transforms all cells of a rectangular region of the grid into a single array.
+     * The target coordinates are stored row after row. The array must have room for
+     * {@code width} × {@code height} tuples of {@code max(2, targetDimensions)} values.
+     *
+     * @param  column  grid index of the first column of the tile.
+     * @param  row     grid index of the first row of the tile.
+     * @param  width   number of columns in the tile.
+     * @param  height  number of rows in the tile.
+     * @param  dst     where to write the target coordinates.
+     * @param  dstOff  index of the first value to write in {@code dst}.
+     * @throws TransformException if a coordinate cannot be transformed.
+     */
+    public void transformTile(final int column, final int row, final int width, final int height,
+                              final double[] dst, int dstOff) throws TransformException
+    {
+        final int length = rowLength(width);
+        Objects.checkFromIndexSize(dstOff, Math.multiplyExact(length, height), dst.length);
+        final double[] columnX = columnCoordinates(column, width, height);
+        final int stride = width * targetDimension;
+        for (int j=0; j<height; j++) {
+            fillRow(row + j, column, width, dst, dstOff, columnX);
+            crsToTarget.transform(dst, dstOff, dst, dstOff, width);
+            dstOff += stride;
+        }
+    }
+
+    /**
+     * Transforms all cells of a rectangular region of the grid, delivering the result one row at a time.
+     * A single buffer of one row is allocated and reused for all rows, so the memory usage does not depend
+     * on the height of the region.
+     *
+     * @param  column    grid index of the first column of the region.
+     * @param  row       grid index of the first row of the region.
+     * @param  width     number of columns in the region.
+     * @param  height    number of rows in the region.
+     * @param  consumer  the consumer to invoke for each row.
+     * @throws TransformException if a coordinate cannot be transformed or if the consumer failed.
+     */
+    public void forEachRow(final int column, final int row, final int width, final int height,
+                           final RowConsumer consumer) throws TransformException
+    {
+        Objects.requireNonNull(consumer, "consumer");
+        final double[] buffer  = new double[rowLength(width)];
+        final double[] columnX = columnCoordinates(column, width, height);
+        double[] coordinates = buffer;
+        if (buffer.length != width * targetDimension) {
+            coordinates = new double[width * targetDimension];      // Only if target dimension is 1.
+        }
+        for (int j=0; j<height; j++) {
+            fillRow(row + j, column, width, buffer, 0, columnX);
+            crsToTarget.transform(buffer, 0, buffer, 0, width);
+            if (coordinates != buffer) {
+                System.arraycopy(buffer, 0, coordinates, 0, coordinates.length);
+            }
+            consumer.accept(row + j, coordinates);
+        }
+    }
+
+    /**
+     * Precomputes the <var>x</var> coordinates of all columns if they are the same for all rows.
+     * Returns {@code null} if the affine conversion is not separable or if there is only one row.
+     */
+    private double[] columnCoordinates(final int column, final int width, final int height) {
+        if (!separable || height <= 1) {
+            return null;
+        }
+        final double[] columnX = new double[width];
+        for (int i=0; i<width; i++) {
+            columnX[i] = Math.fma(m00, column + i, m02);
+        }
+        return columnX;
+    }
+}
@@ -0,0 +1,370 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.measure.Quantity;
+import javax.measure.Unit;
+import org.opengis.parameter.GeneralParameterValue;
+import org.opengis.parameter.ParameterValue;
+import org.opengis.referencing.IdentifiedObject;
+import org.opengis.referencing.crs.CRSAuthorityFactory;
+import org.opengis.referencing.crs.CompoundCRS;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.crs.GeneralDerivedCRS;
+import org.opengis.referencing.crs.SingleCRS;
+import org.opengis.referencing.cs.CoordinateSystem;
+import org.opengis.referencing.cs.CoordinateSystemAxis;
+import org.opengis.referencing.datum.Datum;
+import org.opengis.referencing.datum.Ellipsoid;
+import org.opengis.referencing.datum.GeodeticDatum;
+import org.opengis.referencing.datum.PrimeMeridian;
+import org.opengis.referencing.operation.Conversion;
+import org.opengis.util.FactoryException;
+
+
+/**
+ * An index from the structure of <abbr>CRS</abbr> definitions to the authority codes of equivalent <abbr>CRS</abbr>.
+ * This index is useful for finding the code of a <abbr>CRS</abbr> parsed from a definition without identifier,
+ * for example the {@code .prj} file of a shapefile, without comparing that <abbr>CRS</abbr> with all the
+ * <abbr>CRS</abbr> of the database. The index is built once from an authority factory, can be saved in a file
+ * and read again in a next execution. Then the lookup of a <abbr>CRS</abbr> is a hash table lookup.
+ *
+ * <p>The <abbr>CRS</abbr> are compared by a fingerprint made of the type of <abbr>CRS</abbr>,
+ * the ellipsoid axis lengths and the prime meridian of the datum, the projection method and the parameter
+ * names and values, and the direction and unit of each axis. Names are not compared, except the names of
+ * the projection method and parameters, because the same object may have different names in different sources.
+ * Parameters having their default value are omitted, since a definition may either specify them or not.
+ * Consequently, the codes returned by {@link #lookup(CoordinateReferenceSystem)} should be considered as
+ * candidates. For example, two datums using the same ellipsoid have the same fingerprint. Because axis order
+ * is part of the fingerprint, the index should be built with a factory using the same axis order convention
+ * as the <abbr>CRS</abbr> to identify.</p>
+ *
+ * <p>Instances of this class are immutable and thread-safe.</p>
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+public final class IdentificationIndex {
+    /**
+     * Number of significant digits of the numbers in a fingerprint.
+     * Numbers are rounded for tolerating the small differences caused by conversions.
+     */
+    private static final int DIGITS = 9;
+
+    /**
+     * First line of the files written by this class.
+     */
+    private static final String HEADER = "# Fingerprints of CRS definitions and their authority codes, version 2.";
+
+    /**
+     * The shift of a datum to <abbr>WGS</abbr> 84 in the <abbr>WKT</abbr> of the datum.
+     * The GeoAPI interfaces do not provide this information in another way.
+     */
+    private static final Pattern DATUM_SHIFT = Pattern.compile("TOWGS84\\[[^\\]]*\\]");
+
+    /**
+     * The codes of the <abbr>CRS</abbr> for each fingerprint.
+     */
+    private final Map<String, Set<String>> codes;
+
+    /**
+     * Creates an index for the given codes for each fingerprint.
+     *
+     * @param  codes  the codes of the <abbr>CRS</abbr> for each fingerprint. Values shall be unmodifiable.
+     */
+    IdentificationIndex(final Map<String, Set<String>> codes) {
+        this.codes = codes;
+    }
+
+    /**
+     * Builds an index of all <abbr>CRS</abbr> of the given factory. The <abbr>CRS</abbr> are created in parallel
+     * by {@link BulkCreation}. The codes of the <abbr>CRS</abbr> that cannot be created are not indexed.
+     *
+     * @param  factory   the factory of the <abbr>CRS</abbr> to index.
+     * @param  listener  where to report progress, or {@code null} if none.
+     * @return index of the <abbr>CRS</abbr> of the given factory.
+     * @throws FactoryException if the authority codes cannot be obtained.
+     * @throws InterruptedException if the current thread has been interrupted while building the index.
+     */
+    public static IdentificationIndex build(final CRSAuthorityFactory factory, final BulkCreation.ProgressListener listener)
+            throws FactoryException, InterruptedException
+    {
+        final Set<String> all = factory.getAuthorityCodes(CoordinateReferenceSystem.class);
+        final var result = BulkCreation.create(all, (code) -> fingerprint(factory.createCoordinateReferenceSystem(code)), listener);
+        final var grouped = new HashMap<String, Set<String>>();
+        result.objects().forEach((code, fingerprint) -> grouped.computeIfAbsent(fingerprint, (key) -> new TreeSet<>()).add(code));
+        return new IdentificationIndex(unmodifiable(grouped));
+    }
+
+    /**
+     * Replaces the sets of codes by unmodifiable sets.
+     */
+    private static Map<String, Set<String>> unmodifiable(final Map<String, Set<String>> codes) {
+        codes.replaceAll((fingerprint, set) -> Collections.unmodifiableSet(set));
+        return codes;
+    }
+
+    /**
+     * Reads an index previously written by {@link #write(Path)}.
+     * The index is valid only for the version of the database from which it has been built.
+     *
+     * @param  file  the file to read.
+     * @return the index read from the given file.
+     * @throws IOException if an error occurred while reading the file, or if the file is not an index.
+     */
+    public static IdentificationIndex read(final Path file) throws IOException {
+        final var grouped = new HashMap<String, Set<String>>();
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (!HEADER.equals(in.readLine())) {
+                throw new IOException("Not an identification index: " + file);
+            }
+            String line;
+            while ((line = in.readLine()) != null) {
+                final String[] columns = line.split("\t");
+                if (columns.length >= 2) {
+                    grouped.put(columns[0], new TreeSet<>(Arrays.asList(columns).subList(1, columns.length)));
+                }
+            }
+        }
+        return new IdentificationIndex(unmodifiable(grouped));
+    }
+
+    /**
+     * Writes this index in the given file, replacing the previous content.
+     * Each line contains a fingerprint followed by the codes, separated by tabulations.
+     *
+     * @param  file  the file where to write the index.
+     * @throws IOException if an error occurred while writing the file.
+     */
+    public void write(final Path file) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write(HEADER);
+            out.newLine();
+            for (final Map.Entry<String, Set<String>> entry : new TreeMap<>(codes).entrySet()) {
+                out.write(entry.getKey());
+                for (final String code : entry.getValue()) {
+                    out.write('\t');
+                    out.write(code);
+                }
+                out.newLine();
+            }
+        }
+    }
+
+    /**
+     * {@return the number of indexed codes}.
+     */
+    public int size() {
+        int n = 0;
+        for (final Set<String> c : codes.values()) {
+            n += c.size();
+        }
+        return n;
+    }
+
+    /**
+     * Returns the codes of the <abbr>CRS</abbr> which are equivalent to the given <abbr>CRS</abbr>,
+     * ignoring names and identifiers.
+     *
+     * @param  crs  the <abbr>CRS</abbr> for which to find the authority codes.
+     * @return codes of the <abbr>CRS</abbr> having the same fingerprint, or an empty set if none.
+     */
+    public Set<String> lookup(final CoordinateReferenceSystem crs) {
+        return lookup(fingerprint(crs));
+    }
+
+    /**
+     * Returns the codes of the <abbr>CRS</abbr> having the given fingerprint.
+     *
+     * @param  fingerprint  the value computed by {@link #fingerprint(CoordinateReferenceSystem)}.
+     * @return codes of the <abbr>CRS</abbr> having the given fingerprint, or an empty set if none.
+     */
+    Set<String> lookup(final String fingerprint) {
+        return codes.getOrDefault(fingerprint, Set.of());
+    }
+
+    /**
+     * Computes the fingerprint of the given <abbr>CRS</abbr>. The fingerprint does not contain
+     * tabulation or line separator characters, so it can be written in a line of a text file.
+     *
+     * @param  crs  the <abbr>CRS</abbr> for which to compute the fingerprint.
+     * @return the fingerprint of the given <abbr>CRS</abbr>.
+     */
+    static String fingerprint(final CoordinateReferenceSystem crs) {
+        return fingerprint(crs, false);
+    }
+
+    /**
+     * Computes the fingerprint of the given <abbr>CRS</abbr>, optionally in a strict mode.
+     * The strict mode adds the names and the shifts to <abbr>WGS</abbr> 84 of the datums,
+     * which distinguish datums using the same ellipsoid but having different realizations,
+     * and writes the numbers without rounding. The strict fingerprints of two <abbr>CRS</abbr>
+     * are equal only if the <abbr>CRS</abbr> differ by nothing else than metadata.
+     *
+     * @param  crs     the <abbr>CRS</abbr> for which to compute the fingerprint.
+     * @param  strict  whether to include the datums and write the numbers without rounding.
+     * @return the fingerprint of the given <abbr>CRS</abbr>.
+     * @throws UnsupportedOperationException if the strict mode is requested
+     *         and the <abbr>WKT</abbr> of a datum is not available.
+     */
+    static String fingerprint(final CoordinateReferenceSystem crs, final boolean strict) {
+        final var buffer = new StringBuilder(200);
+        append(buffer, crs, strict);
+        return buffer.toString();
+    }
+
+    /**
+     * Appends the fingerprint of the given <abbr>CRS</abbr>.
+     */
+    private static void append(final StringBuilder buffer, final CoordinateReferenceSystem crs, final boolean strict) {
+        buffer.append(typeName(crs, "CRS"));
+        if (crs instanceof CompoundCRS c) {
+            buffer.append('[');
+            for (final CoordinateReferenceSystem component : c.getComponents()) {
+                append(buffer, component, strict);
+                buffer.append(';');
+            }
+            buffer.append(']');
+            return;
+        }
+        if (crs instanceof SingleCRS c) {
+            final Datum datum = c.getDatum();
+            if (strict && datum != null) {
+                buffer.append(" D(").append(words(datum.getName().getCode()));
+                final Matcher shift = DATUM_SHIFT.matcher(datum.toWKT());
+                if (shift.find()) {
+                    buffer.append(' ').append(shift.group().replaceAll("\\s+", ""));
+                }
+                buffer.append(')');
+            }
+            if (datum instanceof GeodeticDatum d) {
+                final Ellipsoid ellipsoid = d.getEllipsoid();
+                final PrimeMeridian pm = d.getPrimeMeridian();
+                buffer.append(" E(");
+                append(buffer, toSystemUnit(ellipsoid.getSemiMajorAxis(), ellipsoid.getAxisUnit()), strict).append(' ');
+                append(buffer, toSystemUnit(ellipsoid.getSemiMinorAxis(), ellipsoid.getAxisUnit()), strict).append(") PM(");
+                append(buffer, toSystemUnit(pm.getGreenwichLongitude(), pm.getAngularUnit()), strict).append(')');
+            } else if (datum != null) {
+                buffer.append(' ').append(typeName(datum, "Datum"));
+            }
+        }
+        if (crs instanceof GeneralDerivedCRS c) {
+            final Conversion conversion = c.getConversionFromBase();
+            buffer.append(" M(").append(words(conversion.getMethod().getName().getCode())).append(')');
+            final var values = new TreeMap<String, String>();
+            for (final GeneralParameterValue p : conversion.getParameterValues().values()) {
+                if (p instanceof ParameterValue<?> v && v.getValue() instanceof Number n && !isDefault(v, n)) {
+                    values.put(words(v.getDescriptor().getName().getCode()),
+                               append(new StringBuilder(), toSystemUnit(n.doubleValue(), v.getUnit()), strict).toString());
+                }
+            }
+            buffer.append(" P").append(values);
+        }
+        final CoordinateSystem cs = crs.getCoordinateSystem();
+        buffer.append(" CS(");
+        for (int i=0; i<cs.getDimension(); i++) {
+            final CoordinateSystemAxis axis = cs.getAxis(i);
+            final Unit<?> unit = axis.getUnit();
+            buffer.append(axis.getDirection().name());
+            if (unit != null) {
+                buffer.append(' ').append(unit.getSystemUnit()).append('*');
+                append(buffer, toSystemUnit(1, unit), strict);
+            }
+            buffer.append(';');
+        }
+        buffer.append(')');
+    }
+
+    /**
+     * Returns whether the given parameter value is equal to the default value of its descriptor.
+     *
+     * @param  parameter  the parameter to test.
+     * @param  value      the value of the parameter.
+     * @return whether the parameter can be omitted from the fingerprint.
+     */
+    private static boolean isDefault(final ParameterValue<?> parameter, final Number value) {
+        final Object def = parameter.getDescriptor().getDefaultValue();
+        if (def instanceof Number d) {
+            final Unit<?> unit = parameter.getDescriptor().getUnit();
+            final double v = (unit != null && parameter.getUnit() != null) ? parameter.doubleValue(unit) : value.doubleValue();
+            return v == d.doubleValue();
+        }
+        return false;
+    }
+
+    /**
+     * Returns the simple name of the most specialized interface implemented by the given object.
+     * The GeoTools interfaces have the same simple names as the GeoAPI interfaces.
+     */
+    private static String typeName(final IdentifiedObject object, final String fallback) {
+        final Class<?> type = AuthorityFactoryFromGT.GEOTOOLS_TYPE.get(object.getClass());
+        return (type != null) ? type.getSimpleName() : fallback;
+    }
+
+    /**
+     * Appends the given number, rounded to {@value #DIGITS} significant digits if not in strict mode.
+     *
+     * @return the given buffer.
+     */
+    private static StringBuilder append(final StringBuilder buffer, final double value, final boolean strict) {
+        if (strict) {
+            return buffer.append(value + 0.0);                                                 // Replace -0 by +0.
+        }
+        return buffer.append(String.format(Locale.ROOT, "%." + DIGITS + "g", value + 0.0));
+    }
+
+    /**
+     * Converts the given value to the system unit of the given unit of measurement.
+     *
+     * @param  <Q>    the quantity measured by the unit.
+     * @param  value  the value to convert.
+     * @param  unit   the unit of the given value, or {@code null} if unknown.
+     * @return the value in the system unit, or the given value if the unit is unknown.
+     */
+    private static <Q extends Quantity<Q>> double toSystemUnit(final double value, final Unit<Q> unit) {
+        return (unit != null) ? unit.getConverterTo(unit.getSystemUnit()).convert(value) : value;
+    }
+
+    /**
+     * Returns the words of the given name in lower case and alphabetical order.
+     * This is for tolerating different conventions, for example {@code "Lambert Conic Conformal (2SP)"}
+     * in the <abbr>EPSG</abbr> database and {@code "Lambert_Conformal_Conic_2SP"} in <abbr>WKT</abbr>.
+     */
+    private static String words(final String name) {
+        final var words = new TreeSet<String>();
+        for (final String word : name.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return String.join(" ", words);
+    }
+}
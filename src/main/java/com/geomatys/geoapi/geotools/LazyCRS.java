@@ -0,0 +1,234 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import org.opengis.metadata.citation.Citation;
+import org.opengis.referencing.NoSuchAuthorityCodeException;
+import org.opengis.referencing.ReferenceIdentifier;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.util.FactoryException;
+
+
+/**
+ * Handler of a <abbr>CRS</abbr> proxy which is created from the database only when first needed.
+ * The identifiers are answered from the authority code, and the name from the description of the code,
+ * without creating the <abbr>CRS</abbr>. Any other method creates the <abbr>CRS</abbr> once, through
+ * the cache of the factory, then delegates to it. The proxies are also kept in the cache of the factory,
+ * so repeated requests for the same code return the same proxy without new access to the database.
+ *
+ * <p>Two proxies are equal if they are of the same type and have the same code in the same factory.
+ * A proxy is not equal to the <abbr>CRS</abbr> that it represents.</p>
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+final class LazyCRS implements InvocationHandler {
+    /**
+     * An identifier built from the authority code, without access to the database.
+     *
+     * @param codeSpace  the authority part of the code, or {@code null} if none.
+     * @param code       the code without the authority part.
+     */
+    private record Id(String codeSpace, String code) implements ReferenceIdentifier {
+        @Override public String   getCodeSpace() {return codeSpace;}
+        @Override public String   getCode()      {return code;}
+        @Override public String   getVersion()   {return null;}
+        @Override public Citation getAuthority() {return null;}
+        @Override public String   toString()     {return (codeSpace != null) ? codeSpace + ':' + code : code;}
+    }
+
+    /**
+     * Key of a proxy in the cache of the factory. This is distinct from the key of the <abbr>CRS</abbr>
+     * created by the proxy, which is the code itself.
+     *
+     * @param code  the normalized authority code.
+     */
+    private record Key(String code) {
+    }
+
+    /**
+     * The factory to use for creating the <abbr>CRS</abbr>.
+     */
+    private final AuthorityFactoryFromGT factory;
+
+    /**
+     * The GeoAPI interface implemented by the proxy.
+     */
+    private final Class<CoordinateReferenceSystem> type;
+
+    /**
+     * The authority code, normalized.
+     */
+    private final String code;
+
+    /**
+     * The function creating the <abbr>CRS</abbr> if it is not in the cache.
+     */
+    private final ObjectCache.Creator<? extends CoordinateReferenceSystem> creator;
+
+    /**
+     * The lock used for creating the <abbr>CRS</abbr> only once.
+     */
+    private final ReentrantLock lock;
+
+    /**
+     * The identifier built from the code.
+     */
+    private final Id identifier;
+
+    /**
+     * The name built from the description of the code, or {@code null} if not yet fetched.
+     */
+    private volatile Id name;
+
+    /**
+     * The <abbr>CRS</abbr>, or {@code null} if not yet created.
+     */
+    private volatile CoordinateReferenceSystem target;
+
+    /**
+     * Creates a new handler for the given code.
+     */
+    @SuppressWarnings("unchecked")      // The cast is safe because the creator returns instances of `type`.
+    private LazyCRS(final AuthorityFactoryFromGT factory, final Class<? extends CoordinateReferenceSystem> type,
+                    final String code, final ObjectCache.Creator<? extends CoordinateReferenceSystem> creator)
+    {
+        this.factory = factory;
+        this.type    = (Class<CoordinateReferenceSystem>) type;
+        this.code    = ObjectCache.normalize(code);
+        this.creator = creator;
+        lock = new ReentrantLock();
+        final int s = this.code.indexOf(':');
+        identifier = (s >= 0) ? new Id(this.code.substring(0, s), this.code.substring(s+1)) : new Id(null, this.code);
+    }
+
+    /**
+     * Returns a proxy for the <abbr>CRS</abbr> of the given code. The existence of the code is verified
+     * by fetching its description, which is much cheaper than creating the <abbr>CRS</abbr> and is kept
+     * for answering {@code getName()}. Consequently, an unknown code causes an exception at this time
+     * instead of when the <abbr>CRS</abbr> is first used. The proxy, or the unknown code, is cached.
+     *
+     * @param  <T>      the type of <abbr>CRS</abbr>.
+     * @param  factory  the factory to use for creating the <abbr>CRS</abbr>.
+     * @param  type     the GeoAPI interface of the <abbr>CRS</abbr>.
+     * @param  code     the authority code.
+     * @param  creator  the function creating the <abbr>CRS</abbr> if it is not in the cache.
+     * @return a proxy creating the <abbr>CRS</abbr> when first needed.
+     * @throws NoSuchAuthorityCodeException if the given code is unknown to the factory.
+     * @throws FactoryException if the description of the code cannot be fetched for another reason.
+     */
+    static <T extends CoordinateReferenceSystem> T create(final AuthorityFactoryFromGT factory, final Class<T> type,
+            final String code, final ObjectCache.Creator<? extends T> creator) throws FactoryException
+    {
+        return factory.cache.compute(type, new Key(ObjectCache.normalize(code)), () -> {
+            final var handler = new LazyCRS(factory, type, code, creator);
+            handler.fetchName();
+            return type.cast(Proxy.newProxyInstance(LazyCRS.class.getClassLoader(), new Class<?>[] {type}, handler));
+        });
+    }
+
+    /**
+     * Returns the <abbr>CRS</abbr>, creating it if needed.
+     *
+     * @return the <abbr>CRS</abbr>.
+     * @throws IllegalStateException if the <abbr>CRS</abbr> cannot be created.
+     */
+    CoordinateReferenceSystem materialize() {
+        CoordinateReferenceSystem crs = target;
+        if (crs == null) {
+            lock.lock();
+            try {
+                crs = target;
+                if (crs == null) {
+                    target = crs = factory.create(type, code, creator);
+                }
+            } catch (FactoryException e) {
+                throw new IllegalStateException("Cannot create the CRS for \"" + code + "\".", e);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return crs;
+    }
+
+    /**
+     * Fetches the description of the code and stores it as the name.
+     * If the code has no description, then the code is used as the name.
+     *
+     * @return the name built from the description of the code.
+     * @throws org.geotools.api.referencing.FactoryException if the code is unknown or its description cannot be fetched.
+     */
+    private Id fetchName() throws org.geotools.api.referencing.FactoryException {
+        final var description = factory.implementation().getDescriptionText(code);
+        final Id n = (description != null) ? new Id(identifier.codeSpace(), description.toString()) : identifier;
+        name = n;
+        return n;
+    }
+
+    /**
+     * Returns the name, fetching the description of the code if needed.
+     * If the description cannot be fetched, then the code is used as the name.
+     */
+    private Id name() {
+        Id n = name;
+        if (n == null) {
+            try {
+                n = fetchName();
+            } catch (org.geotools.api.referencing.FactoryException e) {
+                name = n = identifier;      // Use the code instead.
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Answers the given method call from the code if possible, or delegates to the <abbr>CRS</abbr> otherwise.
+     *
+     * @param  proxy   the proxy on which the method is invoked.
+     * @param  method  the invoked method.
+     * @param  args    arguments of the method call.
+     * @return the value returned by the method.
+     * @throws Throwable the exception thrown by the method.
+     */
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        if (args == null) {
+            switch (method.getName()) {
+                case "getIdentifiers": return Set.of(identifier);
+                case "getName":        return name();
+                case "hashCode":       return code.hashCode() ^ type.hashCode();
+                case "toString": {
+                    final CoordinateReferenceSystem crs = target;
+                    return (crs != null) ? crs.toString() : type.getSimpleName() + '[' + identifier + ']';
+                }
+            }
+        } else if (args.length == 1 && method.getName().equals("equals")) {
+            return (args[0] instanceof Proxy other)
+                    && Proxy.getInvocationHandler(other) instanceof LazyCRS h
+                    && h.factory == factory && h.type == type && h.code.equals(code);
+        }
+        try {
+            return method.invoke(materialize(), args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
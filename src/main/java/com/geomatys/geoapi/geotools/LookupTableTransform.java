@@ -0,0 +1,436 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.util.Objects;
+import org.opengis.geometry.DirectPosition;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.referencing.operation.MathTransform1D;
+import org.opengis.referencing.operation.Matrix;
+import org.opengis.referencing.operation.NoninvertibleTransformException;
+import org.opengis.referencing.operation.TransformException;
+import org.geotools.geometry.GeneralPosition;
+import org.geotools.referencing.operation.matrix.Matrix1;
+
+
+/**
+ * Approximation of a one-dimensional transform by interpolation in a table of precomputed values.
+ * The table covers a domain of validity specified at construction time. The number of table entries
+ * is determined automatically for keeping the interpolation error below a given tolerance.
+ * Values outside the domain are delegated to the exact transform.
+ *
+ * <p>The approximated transform must be monotonic in the domain. This condition ensures that the
+ * interpolation does not introduce spurious extremum, and that the approximation stay monotonic.
+ * The cubic interpolation uses the derivatives of the exact transform as tangents, adjusted by the
+ * Fritsch–Carlson conditions for preserving monotonicity.</p>
+ *
+ * <p>The inverse transform is not approximated: {@link #inverse()} returns the exact inverse.</p>
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+public final class LookupTableTransform implements MathTransform1D {
+    /**
+     * The interpolation method between table entries.
+     */
+    public enum Interpolation {
+        /** Linear interpolation between two consecutive table entries. */
+        LINEAR,
+
+        /** Monotone cubic Hermite interpolation using the derivatives of the exact transform. */
+        CUBIC
+    }
+
+    /**
+     * Number of intervals in the first table tried by the construction.
+     */
+    private static final int INITIAL_INTERVALS = 64;
+
+    /**
+     * Maximal number of intervals before to give up.
+     */
+    private static final int MAXIMUM_INTERVALS = 1 << 20;
+
+    /**
+     * The exact transform, used for values outside the domain.
+     */
+    private final MathTransform1D transform;
+
+    /**
+     * The domain covered by the table.
+     */
+    private final double minimum, maximum;
+
+    /**
+     * Number of intervals per unit of input value. This is the inverse of the table step.
+     */
+    private final double scale;
+
+    /**
+     * The transformed values at each table entry.
+     */
+    private final double[] values;
+
+    /**
+     * The derivatives at each table entry multiplied by the table step, or {@code null} for linear interpolation.
+     */
+    private final double[] tangents;
+
+    /**
+     * Creates a new approximation with the given table.
+     */
+    private LookupTableTransform(final MathTransform1D transform, final double minimum, final double maximum,
+                                 final double[] values, final double[] tangents)
+    {
+        this.transform = transform;
+        this.minimum   = minimum;
+        this.maximum   = maximum;
+        this.values    = values;
+        this.tangents  = tangents;
+        this.scale     = (values.length - 1) / (maximum - minimum);
+    }
+
+    /**
+     * Creates an approximation of the given transform in the given domain.
+     * The table size is doubled until the interpolation error, estimated at a few positions
+     * inside each table interval, is not greater than the given tolerance.
+     *
+     * @param  transform      the transform to approximate.
+     * @param  minimum        minimal input value of the domain.
+     * @param  maximum        maximal input value of the domain.
+     * @param  tolerance      maximal error allowed in output values.
+     * @param  interpolation  the interpolation method.
+     * @return the approximated transform.
+     * @throws IllegalArgumentException if the domain is empty, if the transform is not monotonic in the domain,
+     *         or if the requested tolerance cannot be achieved with a table of reasonable size.
+     * @throws TransformException if a value or a derivative cannot be computed by the exact transform.
+     */
+    public static LookupTableTransform create(final MathTransform1D transform, final double minimum, final double maximum,
+                                              final double tolerance, final Interpolation interpolation)
+            throws TransformException
+    {
+        Objects.requireNonNull(transform, "transform");
+        Objects.requireNonNull(interpolation, "interpolation");
+        if (!(minimum < maximum) || Double.isInfinite(minimum) || Double.isInfinite(maximum)) {
+            throw new IllegalArgumentException("Invalid domain: [" + minimum + " … " + maximum + "].");
+        }
+        if (!(tolerance > 0)) {
+            throw new IllegalArgumentException("Tolerance must be strictly positive.");
+        }
+        for (int n = INITIAL_INTERVALS; n <= MAXIMUM_INTERVALS; n <<= 1) {
+            final double[] values = new double[n + 1];
+            final double step = (maximum - minimum) / n;
+            for (int i=0; i<=n; i++) {
+                values[i] = transform.transform((i == n) ? maximum : Math.fma(i, step, minimum));
+            }
+            verifyMonotonic(values);
+            double[] tangents = null;
+            if (interpolation == Interpolation.CUBIC) {
+                tangents = new double[n + 1];
+                for (int i=0; i<=n; i++) {
+                    tangents[i] = transform.derivative((i == n) ? maximum : Math.fma(i, step, minimum)) * step;
+                }
+                limitTangents(values, tangents);
+            }
+            final var candidate = new LookupTableTransform(transform, minimum, maximum, values, tangents);
+            if (candidate.maximalError(step) <= tolerance) {
+                return candidate;
+            }
+        }
+        throw new IllegalArgumentException("Cannot approximate the transform with a tolerance of " + tolerance + '.');
+    }
+
+    /**
+     * Verifies that the given values are monotonic, either increasing or decreasing.
+     */
+    private static void verifyMonotonic(final double[] values) {
+        boolean increasing = true, decreasing = true;
+        for (int i=1; i<values.length; i++) {
+            final double previous = values[i-1];
+            final double value    = values[i];
+            if (!(value >= previous)) increasing = false;
+            if (!(value <= previous)) decreasing = false;
+        }
+        if (!(increasing | decreasing)) {
+            throw new IllegalArgumentException("The transform is not monotonic in the given domain.");
+        }
+    }
+
+    /**
+     * Adjusts the tangents (multiplied by the table step) for preserving monotonicity.
+     * Tangents are initially the exact derivatives, or the mean of adjacent secants where the
+     * derivative is not finite. Then the Fritsch–Carlson conditions are applied. Since the table
+     * step is constant, the secants are simply differences between consecutive values.
+     */
+    private static void limitTangents(final double[] values, final double[] m) {
+        final int n = values.length - 1;
+        for (int k=0; k<=n; k++) {
+            final double d0 = values[Math.max(k, 1)    ] - values[Math.max(k, 1) - 1];
+            final double d1 = values[Math.min(k, n-1)+1] - values[Math.min(k, n-1)];
+            if (!Double.isFinite(m[k])) {
+                m[k] = (d0 + d1) / 2;
+            }
+            if (d0 * d1 <= 0 || m[k] * d0 < 0) {
+                m[k] = 0;               // Local extremum or inconsistent sign.
+            }
+        }
+        for (int k=0; k<n; k++) {
+            final double d = values[k+1] - values[k];
+            if (d == 0) {
+                m[k] = m[k+1] = 0;
+            } else {
+                final double a = m[k]   / d;
+                final double b = m[k+1] / d;
+                final double s = a*a + b*b;
+                if (s > 9) {
+                    final double tau = 3 / Math.sqrt(s);
+                    m[k]   = tau * a * d;
+                    m[k+1] = tau * b * d;
+                }
+            }
+        }
+    }
+
+    /**
+     * Estimates the maximal interpolation error by comparing with the exact transform inside each interval.
+     * The linear interpolation is tested in the middle of intervals, where its error is usually the largest.
+     * The cubic interpolation is tested at one quarter and three quarters of the intervals.
+     */
+    private double maximalError(final double step) throws TransformException {
+        final double[] positions = (tangents == null) ? new double[] {0.5} : new double[] {0.25, 0.5, 0.75};
+        double error = 0;
+        for (int i = values.length - 1; --i >= 0;) {
+            for (final double t : positions) {
+                final double x = Math.fma(i + t, step, minimum);
+                final double e = Math.abs(interpolate(x) - transform.transform(x));
+                if (!(e <= error)) {
+                    error = e;      // Use `!` for catching NaN.
+                }
+            }
+        }
+        return error;
+    }
+
+    /**
+     * Interpolates the value at the given position, which must be inside the domain.
+     */
+    private double interpolate(final double x) {
+        final double p = (x - minimum) * scale;
+        final int    i = Math.min((int) p, values.length - 2);
+        final double t = p - i;
+        final double y0 = values[i];
+        final double y1 = values[i+1];
+        if (tangents == null) {
+            return Math.fma(t, y1 - y0, y0);
+        }
+        final double t2 = t * t;
+        final double t3 = t2 * t;
+        return (2*t3 - 3*t2 + 1) * y0 + (t3 - 2*t2 + t) * tangents[i]
+             + (3*t2 - 2*t3)     * y1 + (t3 - t2)       * tangents[i+1];
+    }
+
+    /**
+     * {@return the lower bound of the domain where this transform uses the table}.
+     */
+    public double getMinimum() {
+        return minimum;
+    }
+
+    /**
+     * {@return the upper bound of the domain where this transform uses the table}.
+     */
+    public double getMaximum() {
+        return maximum;
+    }
+
+    /**
+     * {@return the number of entries in the table}.
+     */
+    public int getTableSize() {
+        return values.length;
+    }
+
+    /**
+     * Transforms the given value, using the table if the value is inside the domain.
+     *
+     * @param  value  the value to transform.
+     * @return the transformed value.
+     * @throws TransformException if the value is outside the domain and cannot be transformed by the exact transform.
+     */
+    @Override
+    public double transform(final double value) throws TransformException {
+        if (value >= minimum && value <= maximum) {
+            return interpolate(value);
+        }
+        return transform.transform(value);
+    }
+
+    /**
+     * Computes the derivative at the given value, using the table if the value is inside the domain.
+     * With linear interpolation, the derivative is the slope of the interval containing the value.
+     *
+     * @param  value  the value where to evaluate the derivative.
+     * @return the derivative at the given value.
+     * @throws TransformException if the value is outside the domain and the derivative cannot be computed.
+     */
+    @Override
+    public double derivative(final double value) throws TransformException {
+        if (!(value >= minimum && value <= maximum)) {
+            return transform.derivative(value);
+        }
+        final double p = (value - minimum) * scale;
+        final int    i = Math.min((int) p, values.length - 2);
+        final double y0 = values[i];
+        final double y1 = values[i+1];
+        if (tangents == null) {
+            return (y1 - y0) * scale;
+        }
+        final double t  = p - i;
+        final double t2 = t * t;
+        return ((6*t2 - 6*t) * y0 + (3*t2 - 4*t + 1) * tangents[i]
+              + (6*t - 6*t2) * y1 + (3*t2 - 2*t)     * tangents[i+1]) * scale;
+    }
+
+    /**
+     * Transforms an array of values. The source and target ranges may overlap.
+     */
+    @Override
+    public void transform(final double[] srcPts, int srcOff, final double[] dstPts, int dstOff, int numPts)
+            throws TransformException
+    {
+        if (srcPts == dstPts && srcOff < dstOff) {
+            srcOff += numPts;       // Iterate backward for avoiding to overwrite values not yet read.
+            dstOff += numPts;
+            while (--numPts >= 0) {
+                dstPts[--dstOff] = transform(srcPts[--srcOff]);
+            }
+        } else {
+            while (--numPts >= 0) {
+                dstPts[dstOff++] = transform(srcPts[srcOff++]);
+            }
+        }
+    }
+
+    /**
+     * Transforms an array of values. The source and target ranges may overlap.
+     */
+    @Override
+    public void transform(final float[] srcPts, int srcOff, final float[] dstPts, int dstOff, int numPts)
+            throws TransformException
+    {
+        if (srcPts == dstPts && srcOff < dstOff) {
+            srcOff += numPts;
+            dstOff += numPts;
+            while (--numPts >= 0) {
+                dstPts[--dstOff] = (float) transform(srcPts[--srcOff]);
+            }
+        } else {
+            while (--numPts >= 0) {
+                dstPts[dstOff++] = (float) transform(srcPts[srcOff++]);
+            }
+        }
+    }
+
+    /**
+     * Transforms an array of values.
+     */
+    @Override
+    public void transform(final float[] srcPts, int srcOff, final double[] dstPts, int dstOff, int numPts)
+            throws TransformException
+    {
+        while (--numPts >= 0) {
+            dstPts[dstOff++] = transform(srcPts[srcOff++]);
+        }
+    }
+
+    /**
+     * Transforms an array of values.
+     */
+    @Override
+    public void transform(final double[] srcPts, int srcOff, final float[] dstPts, int dstOff, int numPts)
+            throws TransformException
+    {
+        while (--numPts >= 0) {
+            dstPts[dstOff++] = (float) transform(srcPts[srcOff++]);
+        }
+    }
+
+    /**
+     * Transforms the given position, using the table if the value is inside the domain.
+     * If {@code ptDst} is null, a new position without <abbr>CRS</abbr> is created.
+     */
+    @Override
+    public DirectPosition transform(final DirectPosition ptSrc, final DirectPosition ptDst)
+            throws MismatchedDimensionException, TransformException
+    {
+        if (ptSrc.getDimension() != 1 || (ptDst != null && ptDst.getDimension() != 1)) {
+            throw new MismatchedDimensionException("Expected one-dimensional positions.");
+        }
+        final double value = transform(ptSrc.getOrdinate(0));
+        if (ptDst == null) {
+            return DirectPositionFromGT.wrap(new GeneralPosition(value));
+        }
+        ptDst.setOrdinate(0, value);
+        return ptDst;
+    }
+
+    /**
+     * Computes the derivative at the given position as a 1×1 matrix.
+     * The value is the same as the one computed by {@link #derivative(double)}.
+     */
+    @Override
+    public Matrix derivative(final DirectPosition point) throws MismatchedDimensionException, TransformException {
+        if (point.getDimension() != 1) {
+            throw new MismatchedDimensionException("Expected a one-dimensional position.");
+        }
+        return MatrixFromGT.wrap(new Matrix1(derivative(point.getOrdinate(0))));
+    }
+
+    @Override
+    public int getSourceDimensions() {
+        return 1;
+    }
+
+    @Override
+    public int getTargetDimensions() {
+        return 1;
+    }
+
+    /**
+     * {@return the exact inverse transform}.
+     */
+    @Override
+    public MathTransform1D inverse() throws NoninvertibleTransformException {
+        return transform.inverse();
+    }
+
+    @Override
+    public boolean isIdentity() {
+        return transform.isIdentity();
+    }
+
+    @Override
+    public String toWKT() throws UnsupportedOperationException {
+        return transform.toWKT();
+    }
+
+    /**
+     * {@return the string representation of the approximated transform}.
+     */
+    @Override
+    public String toString() {
+        return transform.toString();
+    }
+}
@@ -25,7 +25,7 @@ import org.opengis.referencing.operation.TransformException;
  *
  * @author Martin Desruisseaux (Geomatys)
  */
-final class MathTransform1DFromGT extends MathTransformFromGT<org.geotools.api.referencing.operation.MathTransform1D>
+class MathTransform1DFromGT extends MathTransformFromGT<org.geotools.api.referencing.operation.MathTransform1D>
         implements MathTransform1D
 {
     /**
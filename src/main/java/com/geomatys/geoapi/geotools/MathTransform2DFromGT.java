@@ -28,7 +28,7 @@ import org.opengis.referencing.operation.TransformException;
  *
  * @author Martin Desruisseaux (Geomatys)
  */
-final class MathTransform2DFromGT extends MathTransformFromGT<org.geotools.api.referencing.operation.MathTransform2D>
+class MathTransform2DFromGT extends MathTransformFromGT<org.geotools.api.referencing.operation.MathTransform2D>
         implements MathTransform2D
 {
     /**
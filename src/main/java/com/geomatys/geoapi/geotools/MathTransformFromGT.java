@@ -107,6 +107,10 @@ class MathTransformFromGT<S extends org.geotools.api.referencing.operation.MathT
 
     @Override
     public void transform(float[] srcPts, int srcOff, float[] dstPts, int dstOff, int numPts) throws TransformException {
+        if (MixedPrecision.isChunked(impl, numPts)) {
+            MixedPrecision.transform(this, srcPts, srcOff, dstPts, dstOff, numPts);
+            return;
+        }
         try {
             impl.transform(srcPts, srcOff, dstPts, dstOff, numPts);
         } catch (org.geotools.api.referencing.operation.TransformException e) {
@@ -116,6 +120,10 @@ class MathTransformFromGT<S extends org.geotools.api.referencing.operation.MathT
 
     @Override
     public void transform(float[] srcPts, int srcOff, double[] dstPts, int dstOff, int numPts) throws TransformException {
+        if (MixedPrecision.isChunked(impl, numPts)) {
+            MixedPrecision.transform(this, srcPts, srcOff, dstPts, dstOff, numPts);
+            return;
+        }
         try {
             impl.transform(srcPts, srcOff, dstPts, dstOff, numPts);
         } catch (org.geotools.api.referencing.operation.TransformException e) {
@@ -125,6 +133,10 @@ class MathTransformFromGT<S extends org.geotools.api.referencing.operation.MathT
 
     @Override
     public void transform(double[] srcPts, int srcOff, float[] dstPts, int dstOff, int numPts) throws TransformException {
+        if (MixedPrecision.isChunked(impl, numPts)) {
+            MixedPrecision.transform(this, srcPts, srcOff, dstPts, dstOff, numPts);
+            return;
+        }
         try {
             impl.transform(srcPts, srcOff, dstPts, dstOff, numPts);
         } catch (org.geotools.api.referencing.operation.TransformException e) {
@@ -108,6 +108,10 @@ class MathTransformToGT<S extends org.opengis.referencing.operation.MathTransfor
     @Override
     public void transform(float[] srcPts, int srcOff, float[] dstPts, int dstOff, int numPts) throws TransformException {
         try {
+            if (MixedPrecision.isChunked(impl, numPts)) {
+                MixedPrecision.transform(impl, srcPts, srcOff, dstPts, dstOff, numPts);
+                return;
+            }
             impl.transform(srcPts, srcOff, dstPts, dstOff, numPts);
         } catch (org.opengis.referencing.operation.TransformException e) {
             throw new TransformException(e.getMessage(), e);
@@ -117,6 +121,10 @@ class MathTransformToGT<S extends org.opengis.referencing.operation.MathTransfor
     @Override
     public void transform(float[] srcPts, int srcOff, double[] dstPts, int dstOff, int numPts) throws TransformException {
         try {
+            if (MixedPrecision.isChunked(impl, numPts)) {
+                MixedPrecision.transform(impl, srcPts, srcOff, dstPts, dstOff, numPts);
+                return;
+            }
             impl.transform(srcPts, srcOff, dstPts, dstOff, numPts);
         } catch (org.opengis.referencing.operation.TransformException e) {
             throw new TransformException(e.getMessage(), e);
@@ -126,6 +134,10 @@ class MathTransformToGT<S extends org.opengis.referencing.operation.MathTransfor
     @Override
     public void transform(double[] srcPts, int srcOff, float[] dstPts, int dstOff, int numPts) throws TransformException {
         try {
+            if (MixedPrecision.isChunked(impl, numPts)) {
+                MixedPrecision.transform(impl, srcPts, srcOff, dstPts, dstOff, numPts);
+                return;
+            }
             impl.transform(srcPts, srcOff, dstPts, dstOff, numPts);
         } catch (org.opengis.referencing.operation.TransformException e) {
             throw new TransformException(e.getMessage(), e);
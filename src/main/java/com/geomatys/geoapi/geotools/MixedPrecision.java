@@ -0,0 +1,270 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
+
+
+/**
+ * Transforms of single-precision coordinates done by chunks through a buffer of bounded length.
+ * Implementations of {@code transform(float[], …)} methods often copy all coordinates in a
+ * temporary {@code double[]} array of the same length, which may be large for vertex buffers.
+ * The methods in this class copy instead a fixed number of points at a time in a buffer taken
+ * from a small pool, so the extra memory does not depend on the number of points.
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+final class MixedPrecision {
+    /**
+     * Length of the buffers in the pool. The size in bytes (32 kB) is chosen for fitting in the
+     * L1 or L2 cache while being large enough for making negligible the cost of calling the
+     * {@code transform(double[], …)} method once per chunk.
+     */
+    private static final int BUFFER_LENGTH = 4096;
+
+    /**
+     * Number of points below which the transforms are delegated directly to the implementation.
+     * For small arrays, the temporary arrays allocated by the implementation are not a concern.
+     */
+    private static final int MIN_POINTS = 1024;
+
+    /**
+     * Buffers available for reuse. Elements are null when the buffer is in use or not yet created.
+     * The number of slots limits the memory retained when no transformation is in progress.
+     */
+    private static final AtomicReferenceArray<double[]> POOL =
+            new AtomicReferenceArray<>(Math.max(2, Runtime.getRuntime().availableProcessors()));
+
+    /**
+     * Do not allow instantiation of this class.
+     */
+    private MixedPrecision() {
+    }
+
+    /**
+     * Returns whether the methods of this class should be used for transforming the given number of points.
+     * This is {@code false} for small arrays and for implementations known to transform single-precision
+     * coordinates without temporary arrays.
+     *
+     * @param  impl    the implementation which would be invoked directly.
+     * @param  numPts  number of points to transform.
+     * @return whether to transform the points by chunks.
+     */
+    static boolean isChunked(final Object impl, final int numPts) {
+        return numPts > MIN_POINTS && !(impl instanceof java.awt.geom.AffineTransform);
+    }
+
+    /**
+     * Takes a buffer from the pool, or creates a new one if the pool is empty.
+     *
+     * @param  dimension  the maximal number of dimensions of source and target points.
+     * @return a buffer capable to hold at least one point.
+     */
+    static double[] acquire(final int dimension) {
+        if (dimension > BUFFER_LENGTH) {
+            return new double[dimension];
+        }
+        final int length = POOL.length();
+        final int start  = (int) (Thread.currentThread().threadId() % length);
+        for (int i=0; i<length; i++) {
+            final double[] buffer = POOL.getAndSet((start + i) % length, null);
+            if (buffer != null) {
+                return buffer;
+            }
+        }
+        return new double[BUFFER_LENGTH];
+    }
+
+    /**
+     * Returns a buffer to the pool. If the pool is full, the buffer is left to the garbage collector.
+     * The buffer shall not be used anymore by the caller after this method call.
+     *
+     * @param  buffer  the buffer to recycle.
+     */
+    static void release(final double[] buffer) {
+        if (buffer.length == BUFFER_LENGTH) {
+            final int length = POOL.length();
+            final int start  = (int) (Thread.currentThread().threadId() % length);
+            for (int i=0; i<length; i++) {
+                if (POOL.compareAndSet((start + i) % length, null, buffer)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Transforms a list of single-precision coordinate tuples by chunks.
+     * The source and target ranges may overlap in the same array. In such case, the chunks
+     * are processed in an order such as each chunk is read before it is overwritten, even
+     * when the source and target points do not have the same number of dimensions.
+     *
+     * @param  transform  the transform to apply on double-precision coordinates.
+     * @param  srcPts     the array containing the source point coordinates.
+     * @param  srcOff     the offset to the first point to be transformed in the source array.
+     * @param  dstPts     the array into which the transformed point coordinates are returned.
+     * @param  dstOff     the offset to the location of the first transformed point in the destination array.
+     * @param  numPts     the number of point objects to be transformed.
+     * @throws TransformException if a point cannot be transformed.
+     */
+    static void transform(final MathTransform transform, final float[] srcPts, final int srcOff,
+                          final float[] dstPts, final int dstOff, final int numPts) throws TransformException
+    {
+        final int srcDim = transform.getSourceDimensions();
+        final int tgtDim = transform.getTargetDimensions();
+        final double[] buffer = acquire(Math.max(srcDim, tgtDim));
+        try {
+            final int chunk = buffer.length / Math.max(srcDim, tgtDim);
+            /*
+             * Points before `split` are processed in one direction and points after `split` in the other
+             * direction. When the target tuples are shorter than the source tuples, the writes move behind
+             * the reads when iterating forward, so the upper part is processed in ascending order first.
+             * When the target tuples are longer, the writes move ahead of the reads and the lower part is
+             * processed in ascending order first. The split point is where the writes cross the reads.
+             * In the case of distinct arrays, any order is safe and `split` is the number of points.
+             */
+            final int  delta = tgtDim - srcDim;
+            final long gap   = (long) dstOff - srcOff;
+            int split = numPts;
+            if (srcPts == dstPts) {
+                if (delta < 0) {
+                    split = Math.clamp(Math.floorDiv(gap, -delta), 0, numPts);
+                } else if (delta > 0) {
+                    split = Math.clamp(Math.floorDiv(-gap, delta), 0, numPts);
+                } else if (gap > 0) {
+                    split = 0;
+                }
+            }
+            if (delta < 0 && srcPts == dstPts) {
+                for (int p = split; p < numPts; p += chunk) {
+                    transform(transform, srcPts, srcOff, dstPts, dstOff, p, Math.min(chunk, numPts - p), buffer, srcDim, tgtDim);
+                }
+                for (int p = lastChunk(0, split, chunk); p >= 0; p -= chunk) {
+                    transform(transform, srcPts, srcOff, dstPts, dstOff, p, Math.min(chunk, split - p), buffer, srcDim, tgtDim);
+                }
+            } else {
+                for (int p = 0; p < split; p += chunk) {
+                    transform(transform, srcPts, srcOff, dstPts, dstOff, p, Math.min(chunk, split - p), buffer, srcDim, tgtDim);
+                }
+                for (int p = lastChunk(split, numPts, chunk); p >= split; p -= chunk) {
+                    transform(transform, srcPts, srcOff, dstPts, dstOff, p, Math.min(chunk, numPts - p), buffer, srcDim, tgtDim);
+                }
+            }
+        } finally {
+            release(buffer);
+        }
+    }
+
+    /**
+     * Returns the index of the first point of the last chunk in the given range,
+     * or a value lower than {@code lower} if the range is empty.
+     */
+    private static int lastChunk(final int lower, final int upper, final int chunk) {
+        return (upper > lower) ? lower + ((upper - lower - 1) / chunk) * chunk : lower - 1;
+    }
+
+    /**
+     * Transforms a single chunk. All source coordinates of the chunk are copied in the buffer
+     * before any target coordinate is written, so the chunk can overlap itself.
+     *
+     * @param  start  index of the first point of the chunk, relative to the offsets.
+     * @param  n      number of points in the chunk.
+     */
+    private static void transform(final MathTransform transform, final float[] srcPts, final int srcOff,
+                                  final float[] dstPts, final int dstOff, final int start, final int n,
+                                  final double[] buffer, final int srcDim, final int tgtDim) throws TransformException
+    {
+        final int src = srcOff + start * srcDim;
+        for (int i = n * srcDim; --i >= 0;) {
+            buffer[i] = srcPts[src + i];
+        }
+        transform.transform(buffer, 0, buffer, 0, n);
+        final int dst = dstOff + start * tgtDim;
+        for (int i = n * tgtDim; --i >= 0;) {
+            dstPts[dst + i] = (float) buffer[i];
+        }
+    }
+
+    /**
+     * Transforms a list of single-precision coordinate tuples to double-precision by chunks.
+     * The arrays cannot overlap since they are of different types.
+     *
+     * @param  transform  the transform to apply on double-precision coordinates.
+     * @param  srcPts     the array containing the source point coordinates.
+     * @param  srcOff     the offset to the first point to be transformed in the source array.
+     * @param  dstPts     the array into which the transformed point coordinates are returned.
+     * @param  dstOff     the offset to the location of the first transformed point in the destination array.
+     * @param  numPts     the number of point objects to be transformed.
+     * @throws TransformException if a point cannot be transformed.
+     */
+    static void transform(final MathTransform transform, final float[] srcPts, int srcOff,
+                          final double[] dstPts, int dstOff, int numPts) throws TransformException
+    {
+        final int srcDim = transform.getSourceDimensions();
+        final int tgtDim = transform.getTargetDimensions();
+        final double[] buffer = acquire(srcDim);
+        try {
+            final int chunk = buffer.length / srcDim;
+            while (numPts > 0) {
+                final int n = Math.min(chunk, numPts);
+                for (int i=0; i < n*srcDim; i++) {
+                    buffer[i] = srcPts[srcOff++];
+                }
+                transform.transform(buffer, 0, dstPts, dstOff, n);
+                dstOff += n * tgtDim;
+                numPts -= n;
+            }
+        } finally {
+            release(buffer);
+        }
+    }
+
+    /**
+     * Transforms a list of double-precision coordinate tuples to single-precision by chunks.
+     * The arrays cannot overlap since they are of different types.
+     *
+     * @param  transform  the transform to apply on double-precision coordinates.
+     * @param  srcPts     the array containing the source point coordinates.
+     * @param  srcOff     the offset to the first point to be transformed in the source array.
+     * @param  dstPts     the array into which the transformed point coordinates are returned.
+     * @param  dstOff     the offset to the location of the first transformed point in the destination array.
+     * @param  numPts     the number of point objects to be transformed.
+     * @throws TransformException if a point cannot be transformed.
+     */
+    static void transform(final MathTransform transform, final double[] srcPts, int srcOff,
+                          final float[] dstPts, int dstOff, int numPts) throws TransformException
+    {
+        final int srcDim = transform.getSourceDimensions();
+        final int tgtDim = transform.getTargetDimensions();
+        final double[] buffer = acquire(tgtDim);
+        try {
+            final int chunk = buffer.length / tgtDim;
+            while (numPts > 0) {
+                final int n = Math.min(chunk, numPts);
+                transform.transform(srcPts, srcOff, buffer, 0, n);
+                for (int i=0; i < n*tgtDim; i++) {
+                    dstPts[dstOff++] = (float) buffer[i];
+                }
+                srcOff += n * srcDim;
+                numPts -= n;
+            }
+        } finally {
+            release(buffer);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletionException;
+import java.util.stream.IntStream;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.CoordinateOperationFactory;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.util.FactoryException;
+
+
+/**
+ * Transforms batches of points having different source <abbr>CRS</abbr>s to a single target <abbr>CRS</abbr>.
+ * The source <abbr>CRS</abbr> of each point is given by an index in the list of sources specified at
+ * construction time. Points are grouped by source <abbr>CRS</abbr> with a counting sort, each group is
+ * transformed in bulk with the operation for its source, then results are written back in the original
+ * order. Large batches are transformed in parallel.
+ *
+ * <p>The coordinate operations are created once at construction time, so instances of this class should be
+ * reused for all batches having the same sources and target. Instances are immutable and thread-safe if the
+ * coordinate operations are thread-safe.</p>
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+public final class MultiSourceTransform {
+    /**
+     * Minimal number of points for transforming in parallel.
+     */
+    private static final int PARALLEL_THRESHOLD = 16384;
+
+    /**
+     * Maximal number of points transformed by a single task in a parallel execution.
+     * Large groups are split in many tasks, so that one dominant source does not
+     * prevent the parallelization.
+     */
+    private static final int TASK_SIZE = 8192;
+
+    /**
+     * The transforms from each source <abbr>CRS</abbr> to the target <abbr>CRS</abbr>.
+     */
+    private final MathTransform[] transforms;
+
+    /**
+     * Number of dimensions of the source and target coordinates.
+     */
+    private final int sourceDimension, targetDimension;
+
+    /**
+     * Creates a new transform from the given source <abbr>CRS</abbr>s to the given target <abbr>CRS</abbr>.
+     * The factory is typically the one returned by {@link Services#getCoordinateOperationFactory(boolean)}.
+     *
+     * @param  factory  the factory to use for creating the coordinate operations.
+     * @param  sources  the source <abbr>CRS</abbr>s. Indexes in this list are the values of the
+     *                  {@code sources} argument given to the {@code transform(…)} method.
+     * @param  target   the target <abbr>CRS</abbr> of all points.
+     * @throws FactoryException if an operation cannot be created for one of the sources.
+     * @throws MismatchedDimensionException if the source <abbr>CRS</abbr>s do not all have the same number of dimensions.
+     */
+    public MultiSourceTransform(final CoordinateOperationFactory factory,
+                                final List<? extends CoordinateReferenceSystem> sources,
+                                final CoordinateReferenceSystem target) throws FactoryException
+    {
+        Objects.requireNonNull(factory, "factory");
+        Objects.requireNonNull(target,  "target");
+        if (sources.isEmpty()) {
+            throw new IllegalArgumentException("At least one source CRS is required.");
+        }
+        transforms = new MathTransform[sources.size()];
+        for (int i=0; i<transforms.length; i++) {
+            transforms[i] = factory.createOperation(sources.get(i), target).getMathTransform();
+        }
+        sourceDimension = transforms[0].getSourceDimensions();
+        targetDimension = transforms[0].getTargetDimensions();
+        for (int i=1; i<transforms.length; i++) {
+            if (transforms[i].getSourceDimensions() != sourceDimension) {
+                throw new MismatchedDimensionException("Source CRS #" + i + " has " + transforms[i].getSourceDimensions()
+                        + " dimensions while source CRS #0 has " + sourceDimension + " dimensions.");
+            }
+        }
+    }
+
+    /**
+     * {@return the number of source <abbr>CRS</abbr>s}.
+     */
+    public int getSourceCount() {
+        return transforms.length;
+    }
+
+    /**
+     * Returns the transform from the source <abbr>CRS</abbr> at the given index to the target <abbr>CRS</abbr>.
+     *
+     * @param  source  index of the source <abbr>CRS</abbr>.
+     * @return the transform from the specified source to the target.
+     * @throws IndexOutOfBoundsException if the given index is out of bounds.
+     */
+    public MathTransform getTransform(final int source) {
+        return transforms[source];
+    }
+
+    /**
+     * Transforms a batch of points having heterogeneous source <abbr>CRS</abbr>s.
+     * Source and target coordinates are packed as in {@link MathTransform#transform(double[], int, double[], int, int)}.
+     * The source and target ranges may overlap, since all source coordinates are read before any result is written.
+     *
+     * @param  srcPts   the array containing the source point coordinates.
+     * @param  srcOff   the offset to the first point to be transformed in the source array.
+     * @param  sources  for each point, the index of its source <abbr>CRS</abbr> in the list given at construction time.
+     * @param  srcIdx   the offset to the first index in the {@code sources} array.
+     * @param  dstPts   the array into which the transformed point coordinates are returned.
+     * @param  dstOff   the offset to the location of the first transformed point in the destination array.
+     * @param  numPts   the number of points to be transformed.
+     * @throws IndexOutOfBoundsException if a source index is out of bounds.
+     * @throws TransformException if a point cannot be transformed.
+     */
+    public void transform(final double[] srcPts, final int srcOff, final int[] sources, final int srcIdx,
+                          final double[] dstPts, final int dstOff, final int numPts) throws TransformException
+    {
+        Objects.checkFromIndexSize(srcIdx, numPts, sources.length);
+        /*
+         * Counting sort of point indexes by source CRS. After this loop, `start[k]` is the index of the
+         * first point of group k in `order`, and `order` lists the points of each group in original order.
+         */
+        final int[] start = new int[transforms.length + 1];
+        for (int i=0; i<numPts; i++) {
+            start[Objects.checkIndex(sources[srcIdx + i], transforms.length) + 1]++;
+        }
+        for (int k=1; k<start.length; k++) {
+            start[k] += start[k-1];
+        }
+        final int[] order  = new int[numPts];
+        final int[] cursor = start.clone();
+        for (int i=0; i<numPts; i++) {
+            order[cursor[sources[srcIdx + i]]++] = i;
+        }
+        /*
+         * Gather the source coordinates in group order, transform each group, then scatter the results.
+         */
+        final double[] grouped = new double[numPts * sourceDimension];
+        for (int j=0, t=0; j<numPts; j++) {
+            System.arraycopy(srcPts, srcOff + order[j] * sourceDimension, grouped, t, sourceDimension);
+            t += sourceDimension;
+        }
+        final double[] result = new double[numPts * targetDimension];
+        if (numPts >= PARALLEL_THRESHOLD) {
+            transformParallel(start, grouped, result);
+        } else {
+            for (int k=0; k<transforms.length; k++) {
+                final int lower = start[k];
+                final int count = start[k+1] - lower;
+                if (count != 0) {
+                    transforms[k].transform(grouped, lower * sourceDimension, result, lower * targetDimension, count);
+                }
+            }
+        }
+        for (int j=0, t=0; j<numPts; j++) {
+            System.arraycopy(result, t, dstPts, dstOff + order[j] * targetDimension, targetDimension);
+            t += targetDimension;
+        }
+    }
+
+    /**
+     * Transforms all groups using many threads. Each group is split in tasks of at most {@link #TASK_SIZE} points.
+     *
+     * @param  start    index of the first point of each group, followed by the total number of points.
+     * @param  grouped  source coordinates sorted by group.
+     * @param  result   where to store the target coordinates, sorted by group.
+     * @throws TransformException if a point cannot be transformed.
+     */
+    private void transformParallel(final int[] start, final double[] grouped, final double[] result)
+            throws TransformException
+    {
+        int numTasks = 0;
+        final int[] firstTask = new int[transforms.length + 1];
+        for (int k=0; k<transforms.length; k++) {
+            firstTask[k] = numTasks;
+            numTasks += Math.ceilDiv(start[k+1] - start[k], TASK_SIZE);
+        }
+        firstTask[transforms.length] = numTasks;
+        try {
+            IntStream.range(0, numTasks).parallel().forEach((task) -> {
+                int k = 0;
+                while (firstTask[k+1] <= task) {
+                    k++;
+                }
+                final int lower = start[k] + (task - firstTask[k]) * TASK_SIZE;
+                final int count = Math.min(TASK_SIZE, start[k+1] - lower);
+                try {
+                    transforms[k].transform(grouped, lower * sourceDimension, result, lower * targetDimension, count);
+                } catch (TransformException e) {
+                    throw new CompletionException(e);
+                }
+            });
+        } catch (CompletionException e) {
+            // The exception may have been wrapped again if it was thrown in another thread.
+            Throwable cause = e;
+            do {
+                cause = cause.getCause();
+            } while (cause instanceof CompletionException);
+            if (cause instanceof TransformException te) {
+                throw te;
+            }
+            throw e;
+        }
+    }
+}
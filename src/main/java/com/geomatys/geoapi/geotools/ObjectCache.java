@@ -0,0 +1,646 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.opengis.referencing.NoSuchAuthorityCodeException;
+import org.opengis.util.FactoryException;
+
+
+/**
+ * Cache of the objects created by an authority factory, keyed by normalized code and object type.
+ * There is one cache per GeoTools factory, shared by all wrappers of that factory, so that the
+ * cached objects survive the creation of new wrappers.
+ *
+ * <p>Lookups are lock-free. Eviction uses the <cite>clock</cite> approximation of the least recently
+ * used policy: entries are queued in insertion order, and a hit only sets a flag on the entry.
+ * When the cache exceeds its bounds, entries are taken from the head of the queue and either
+ * evicted if their flag is not set, or given a second chance at the tail of the queue otherwise.</p>
+ *
+ * <p>Concurrent requests for the same missing object are coalesced: only one thread invokes the creator,
+ * and the other threads wait for its result or its exception. Waiting does not hold any monitor,
+ * so virtual threads are unmounted from their carrier while they wait. If the creating thread
+ * is interrupted, the exception is thrown only in that thread and the waiting threads try again.</p>
+ *
+ * <p>Codes that are not found are remembered for a limited time, together with the GeoTools exception.
+ * Each request of the same code throws a new exception without stack trace, which is cheap to create,
+ * so invalid codes do not cause a new database query. Those requests are counted as cache misses.</p>
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+final class ObjectCache {
+    /**
+     * Creates an object for an authority code. This is typically a method of a GeoTools authority factory
+     * followed by the wrapping of the result.
+     *
+     * @param <T> the type of objects created.
+     */
+    @FunctionalInterface
+    interface Creator<T> {
+        /**
+         * Creates the object for the given code.
+         *
+         * @param  code  the authority code, as given by the user.
+         * @return the object for the given code.
+         * @throws org.geotools.api.referencing.FactoryException if the object cannot be created.
+         */
+        T create(String code) throws org.geotools.api.referencing.FactoryException;
+    }
+
+    /**
+     * The caches for each GeoTools factory. All accesses shall be synchronized on this map.
+     */
+    private static final Map<Object, ObjectCache> INSTANCES = new WeakHashMap<>();
+
+    /**
+     * The policy of new caches. All accesses shall be synchronized on {@link #INSTANCES}.
+     */
+    private static CachePolicy defaultPolicy = CachePolicy.DEFAULT;
+
+    /**
+     * Result of a creation which failed because the creating thread has been interrupted.
+     * Threads waiting for that creation shall try again instead of failing.
+     */
+    private static final Object RETRY = new Object();
+
+    /**
+     * Key of a cached object.
+     *
+     * @param type  the GeoAPI interface of the requested object.
+     * @param code  the normalized authority code, or another object identifying the requested object.
+     */
+    private record Key(Class<?> type, Object code) {
+    }
+
+    /**
+     * A cached object, together with the information needed for the eviction policy.
+     */
+    private static final class Entry {
+        /** The key of this entry in the map. */
+        final Key key;
+
+        /** The cached object if strongly referenced, or {@code null} otherwise. */
+        private final Object value;
+
+        /** The cached object if softly or weakly referenced, or {@code null} otherwise. */
+        private final Reference<Object> reference;
+
+        /** The weight of this entry, as computed by the policy at insertion time. */
+        final long weight;
+
+        /** Whether this entry has been used since the last pass of the clock hand. */
+        volatile boolean used;
+
+        /** Whether this entry has been removed from the map. */
+        volatile boolean removed;
+
+        /** Creates a new entry for the given object. */
+        Entry(final Key key, final Object value, final long weight,
+              final CachePolicy.References type, final ReferenceQueue<Object> queue)
+        {
+            this.key    = key;
+            this.weight = weight;
+            switch (type) {
+                case SOFT: {
+                    this.value = null;
+                    reference  = new Soft(value, queue, this);
+                    break;
+                }
+                case WEAK: {
+                    this.value = null;
+                    reference  = new Weak(value, queue, this);
+                    break;
+                }
+                default: {
+                    this.value = value;
+                    reference  = null;
+                    break;
+                }
+            }
+        }
+
+        /** Returns the cached object, or {@code null} if it has been garbage-collected. */
+        Object get() {
+            return (reference != null) ? reference.get() : value;
+        }
+    }
+
+    /**
+     * A code which was not found by the factory.
+     *
+     * @param cause   the exception thrown by the GeoTools factory.
+     * @param expiry  value of {@link System#nanoTime()} when this entry expires.
+     */
+    private record NotFound(org.geotools.api.referencing.NoSuchAuthorityCodeException cause, long expiry) {
+    }
+
+    /**
+     * Exception thrown for codes that are in the cache of unknown codes. A new instance is created for each
+     * request, so that the suppressed exceptions added by a caller are not seen by other callers. For making
+     * the construction cheap, the stack trace is not filled.
+     */
+    @SuppressWarnings("serial")
+    private static final class UnknownCodeException extends NoSuchAuthorityCodeException {
+        /** Creates a new exception for the given GeoTools exception. */
+        UnknownCodeException(final org.geotools.api.referencing.NoSuchAuthorityCodeException cause) {
+            super(cause.getMessage(), cause.getAuthority(), cause.getAuthorityCode());
+            initCause(cause);
+        }
+
+        /** Does not fill the stack trace, as this exception is thrown for a cached failure. */
+        @Override
+        public Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
+    /**
+     * Soft reference to a cached object, remembering its entry for removal after garbage collection.
+     */
+    private static final class Soft extends SoftReference<Object> {
+        /** The entry which contains this reference. */
+        final Entry entry;
+
+        /** Creates a new reference to the given object. */
+        Soft(final Object value, final ReferenceQueue<Object> queue, final Entry entry) {
+            super(value, queue);
+            this.entry = entry;
+        }
+    }
+
+    /**
+     * Weak reference to a cached object, remembering its entry for removal after garbage collection.
+     */
+    private static final class Weak extends WeakReference<Object> {
+        /** The entry which contains this reference. */
+        final Entry entry;
+
+        /** Creates a new reference to the given object. */
+        Weak(final Object value, final ReferenceQueue<Object> queue, final Entry entry) {
+            super(value, queue);
+            this.entry = entry;
+        }
+    }
+
+    /**
+     * The cached entries.
+     */
+    private final ConcurrentHashMap<Key, Entry> entries;
+
+    /**
+     * The codes which were not found, with the exception to throw.
+     */
+    private final ConcurrentHashMap<Key, NotFound> notFound;
+
+    /**
+     * The creations in progress. Threads requesting an object which is being created wait for these tasks.
+     */
+    private final ConcurrentHashMap<Key, CompletableFuture<Object>> pending;
+
+    /**
+     * The entries in the order to examine for eviction. May contain entries that are no longer in the map.
+     */
+    private final ConcurrentLinkedQueue<Entry> clock;
+
+    /**
+     * The references cleared by the garbage collector.
+     */
+    private final ReferenceQueue<Object> collected;
+
+    /**
+     * Sum of the weights of all entries in the map.
+     */
+    private final AtomicLong weight;
+
+    /**
+     * Approximate number of removed entries which may still be in the {@linkplain #clock} queue.
+     */
+    private final AtomicInteger stale;
+
+    /**
+     * Statistics about cache usage.
+     */
+    private final LongAdder hits, misses, evictions;
+
+    /**
+     * The bounds and reference type of this cache.
+     */
+    private volatile CachePolicy policy;
+
+    /**
+     * Creates a new cache with the given policy.
+     *
+     * @param policy  the bounds and reference type of the cache.
+     */
+    ObjectCache(final CachePolicy policy) {
+        this.policy = policy;
+        entries   = new ConcurrentHashMap<>();
+        pending   = new ConcurrentHashMap<>();
+        notFound  = new ConcurrentHashMap<>();
+        clock     = new ConcurrentLinkedQueue<>();
+        collected = new ReferenceQueue<>();
+        weight    = new AtomicLong();
+        stale     = new AtomicInteger();
+        hits      = new LongAdder();
+        misses    = new LongAdder();
+        evictions = new LongAdder();
+    }
+
+    /**
+     * Returns the cache for the given GeoTools factory. The same cache is returned
+     * for all factories that are equal to each other, as long as they are in use.
+     *
+     * @param  factory  the GeoTools factory for which to get the cache.
+     * @return the cache for the given factory.
+     */
+    static ObjectCache forFactory(final Object factory) {
+        synchronized (INSTANCES) {
+            return INSTANCES.computeIfAbsent(factory, (key) -> new ObjectCache(defaultPolicy));
+        }
+    }
+
+    /**
+     * {@return the policy of all caches}.
+     */
+    static CachePolicy getDefaultPolicy() {
+        synchronized (INSTANCES) {
+            return defaultPolicy;
+        }
+    }
+
+    /**
+     * Sets the policy of all caches, including the existing ones.
+     * The existing entries keep their reference type.
+     *
+     * @param  policy  the new policy.
+     */
+    static void setDefaultPolicy(final CachePolicy policy) {
+        synchronized (INSTANCES) {
+            defaultPolicy = policy;
+            for (final ObjectCache cache : INSTANCES.values()) {
+                cache.setPolicy(policy);
+            }
+        }
+    }
+
+    /**
+     * Sets the policy of this cache and evicts entries if the new bounds are exceeded.
+     *
+     * @param  policy  the new policy.
+     */
+    void setPolicy(final CachePolicy policy) {
+        this.policy = policy;
+        evict(policy);
+        notFound.clear();
+    }
+
+    /**
+     * Normalizes the given code for use as a cache key. This method removes the leading and trailing spaces,
+     * including around the first {@code ':'} separator, and puts the authority name in upper cases.
+     *
+     * @param  code  the code to normalize.
+     * @return the normalized code.
+     */
+    static String normalize(String code) {
+        code = code.strip();
+        final int s = code.indexOf(':');
+        if (s >= 0) {
+            code = code.substring(0, s).stripTrailing().toUpperCase(Locale.ROOT) + ':' + code.substring(s + 1).stripLeading();
+        }
+        return code;
+    }
+
+    /**
+     * Returns the cached object for the given code, creating it if needed.
+     * The creator receives the code as given by the user, not the normalized code.
+     * If another thread is already creating the object for the same key, then this
+     * method waits for that thread and returns the same object or throws the same exception.
+     * If that thread has been interrupted, then this method tries again to create the object.
+     * Requests for codes that were recently not found are served from the cache as well.
+     *
+     * @param  <T>      the type of object to get.
+     * @param  type     the GeoAPI interface of the object to get.
+     * @param  code     the authority code of the object to get.
+     * @param  creator  the function to invoke if the object is not in the cache.
+     * @return the object for the given code.
+     * @throws FactoryException if the object cannot be created.
+     */
+    <T> T get(final Class<T> type, final String code, final Creator<? extends T> creator) throws FactoryException {
+        return get(type, new Key(type, normalize(code)), () -> creator.create(code));
+    }
+
+    /**
+     * Returns the cached object for the given key, computing it if needed.
+     * This method is like {@link #get(Class, String, Creator)}, but for objects
+     * identified by a key other than an authority code.
+     *
+     * @param  <T>      the type of object to get.
+     * @param  type     the GeoAPI interface of the object to get.
+     * @param  key      an object identifying the object to get. Shall implement {@code equals} and {@code hashCode}.
+     * @param  creator  the function to invoke if the object is not in the cache.
+     * @return the object for the given key.
+     * @throws FactoryException if the object cannot be created.
+     */
+    <T> T compute(final Class<T> type, final Object key, final Offloader.Call<? extends T> creator) throws FactoryException {
+        return get(type, new Key(type, key), creator);
+    }
+
+    /**
+     * Implementation of {@link #get(Class, String, Creator)} and {@link #compute(Class, Object, Offloader.Call)}.
+     */
+    private <T> T get(final Class<T> type, final Key key, final Offloader.Call<? extends T> creator) throws FactoryException {
+        drain();
+        Object value;
+        do {
+            value = lookup(key);
+            if (value != null) {
+                hits.increment();
+                return type.cast(value);
+            }
+            final NotFound unknown = notFound.get(key);
+            if (unknown != null) {
+                if (System.nanoTime() - unknown.expiry < 0) {
+                    misses.increment();
+                    throw new UnknownCodeException(unknown.cause);
+                }
+                notFound.remove(key, unknown);
+            }
+            misses.increment();
+            final var task = new CompletableFuture<Object>();
+            final CompletableFuture<Object> running = pending.putIfAbsent(key, task);
+            if (running != null) {
+                value = await(running);
+                continue;
+            }
+            try {
+                // Check again in case another thread completed the creation before we registered our task.
+                value = lookup(key);
+                if (value == null) {
+                    value = creator.call();
+                    final CachePolicy policy = this.policy;
+                    if (value != null && policy.maximumSize() != 0) {
+                        value = add(key, value, policy);
+                    }
+                }
+                task.complete(value);
+                return type.cast(value);
+            } catch (org.geotools.api.referencing.FactoryException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    task.complete(RETRY);
+                    throw AuthorityFactoryFromGT.wrap(e);
+                }
+                final FactoryException converted = notFound(key, e);
+                task.completeExceptionally(converted);
+                throw converted;
+            } catch (RuntimeException | Error e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    task.complete(RETRY);
+                } else {
+                    task.completeExceptionally(e);
+                }
+                throw e;
+            } finally {
+                pending.remove(key, task);
+            }
+        } while (value == RETRY);
+        return type.cast(value);
+    }
+
+    /**
+     * Returns the cached object, or the creation in progress, for the given code without starting a new creation.
+     * If the code was recently not found, then the returned future is completed with an exception like the
+     * one thrown by {@link #get(Class, String, Creator)}. If the creation in progress fails because the
+     * creating thread has been interrupted, then the returned future is completed by the given fallback.
+     *
+     * @param  <T>    the type of object to get.
+     * @param  type   the GeoAPI interface of the object to get.
+     * @param  code   the authority code of the object to get.
+     * @param  retry  the creation to start if the creation in progress is interrupted.
+     * @return the cached object or the creation in progress, or {@code null} if none.
+     */
+    <T> CompletableFuture<T> find(final Class<T> type, final String code, final Supplier<CompletableFuture<T>> retry) {
+        final Key key = new Key(type, normalize(code));
+        final Object value = lookup(key);
+        if (value != null) {
+            hits.increment();
+            return CompletableFuture.completedFuture(type.cast(value));
+        }
+        final NotFound unknown = notFound.get(key);
+        if (unknown != null && System.nanoTime() - unknown.expiry < 0) {
+            misses.increment();
+            return CompletableFuture.failedFuture(new UnknownCodeException(unknown.cause));
+        }
+        final CompletableFuture<Object> running = pending.get(key);
+        if (running == null) {
+            return null;
+        }
+        misses.increment();
+        return running.thenCompose((result) -> (result != RETRY) ? CompletableFuture.completedFuture(type.cast(result)) : retry.get());
+    }
+
+    /**
+     * Converts the given GeoTools exception to a GeoAPI exception, remembering the code if it was not found.
+     *
+     * @param  key  the key of the object that the factory failed to create.
+     * @param  e    the exception thrown by the factory.
+     * @return the exception to throw.
+     */
+    private FactoryException notFound(final Key key, final org.geotools.api.referencing.FactoryException e) {
+        if (e instanceof org.geotools.api.referencing.NoSuchAuthorityCodeException c) {
+            final CachePolicy policy = this.policy;
+            final Duration duration = policy.unknownCodeExpiration();
+            final long expiration = (duration.getSeconds() < Integer.MAX_VALUE) ? duration.toNanos() : Long.MAX_VALUE / 2;
+            if (expiration > 0 && policy.maximumSize() != 0) {
+                final long now = System.nanoTime();
+                if (notFound.size() >= policy.maximumSize()) {
+                    notFound.values().removeIf((entry) -> now - entry.expiry >= 0);
+                    if (notFound.size() >= policy.maximumSize()) {
+                        notFound.clear();
+                    }
+                }
+                notFound.put(key, new NotFound(c, now + expiration));
+                return new UnknownCodeException(c);
+            }
+        }
+        return AuthorityFactoryFromGT.wrap(e);
+    }
+
+    /**
+     * Returns the cached object for the given key, or {@code null} if none.
+     * If an object is found, it is marked as recently used.
+     */
+    private Object lookup(final Key key) {
+        final Entry entry = entries.get(key);
+        if (entry != null) {
+            final Object value = entry.get();
+            if (value != null) {
+                if (!entry.used) {
+                    entry.used = true;
+                }
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Waits for the creation of an object by another thread.
+     * The exception thrown by the other thread, if any, is thrown again.
+     *
+     * @param  task  the creation in progress in another thread.
+     * @return the object created by the other thread.
+     * @throws FactoryException if the other thread failed to create the object,
+     *         or if this thread has been interrupted while waiting.
+     */
+    private static Object await(final CompletableFuture<Object> task) throws FactoryException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FactoryException("Interrupted while waiting for the object creation.", e);
+        } catch (ExecutionException e) {
+            switch (e.getCause()) {
+                case FactoryException c: throw c;
+                case RuntimeException c: throw c;
+                case Error c: throw c;
+                default: throw new FactoryException(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Adds the given object in the cache, unless another thread added an object for the same key concurrently.
+     *
+     * @param  key     the key of the object to add.
+     * @param  value   the object to add.
+     * @param  policy  the policy of this cache.
+     * @return the object in the cache, which may be an object added concurrently by another thread.
+     */
+    private Object add(final Key key, final Object value, final CachePolicy policy) {
+        final Entry added = new Entry(key, value, policy.weigher().applyAsLong(value), policy.references(), collected);
+        Entry old;
+        while ((old = entries.putIfAbsent(key, added)) != null) {
+            final Object existing = old.get();
+            if (existing != null) {
+                return existing;
+            }
+            if (entries.replace(key, old, added)) {
+                removed(old);
+                evictions.increment();
+                break;
+            }
+        }
+        weight.addAndGet(added.weight);
+        clock.offer(added);
+        evict(policy);
+        return value;
+    }
+
+    /**
+     * Removes the given entry from the map if it is still there.
+     *
+     * @param  entry  the entry to remove.
+     * @return whether the entry has been removed by this method call.
+     */
+    private boolean remove(final Entry entry) {
+        if (entries.remove(entry.key, entry)) {
+            removed(entry);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Updates the state after the given entry has been removed from the map.
+     * This method shall be invoked exactly once for each removed entry.
+     */
+    private void removed(final Entry entry) {
+        entry.removed = true;
+        weight.addAndGet(-entry.weight);
+        stale.incrementAndGet();
+    }
+
+    /**
+     * Removes the entries that have been cleared by the garbage collector.
+     */
+    private void drain() {
+        Reference<?> ref;
+        while ((ref = collected.poll()) != null) {
+            final Entry entry = (ref instanceof Soft s) ? s.entry : ((Weak) ref).entry;
+            if (remove(entry)) {
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Evicts the entries which have not been used recently until this cache is within the bounds of the given policy.
+     *
+     * @param  policy  the policy of this cache.
+     */
+    private void evict(final CachePolicy policy) {
+        Entry entry;
+        while ((entries.size() > policy.maximumSize() || weight.get() > policy.maximumWeight())
+                && (entry = clock.poll()) != null)
+        {
+            if (entry.removed) {
+                stale.decrementAndGet();
+            } else if (entry.used) {
+                entry.used = false;
+                clock.offer(entry);
+            } else if (remove(entry)) {
+                evictions.increment();
+                stale.decrementAndGet();
+            }
+        }
+        if (stale.get() > entries.size() + 64) {
+            stale.set(0);
+            clock.removeIf((e) -> e.removed);
+        }
+    }
+
+    /**
+     * Removes all entries from this cache. The statistics are not reset.
+     */
+    void clear() {
+        notFound.clear();
+        entries.values().forEach(this::remove);
+        clock.removeIf((e) -> e.removed);
+        stale.set(0);
+    }
+
+    /**
+     * {@return a snapshot of the cache statistics}.
+     */
+    CacheStatistics getStatistics() {
+        return new CacheStatistics(hits.sum(), misses.sum(), evictions.sum(), entries.size());
+    }
+}
@@ -0,0 +1,365 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.geotools.api.referencing.FactoryException;
+
+
+/**
+ * Executes the blocking calls to GeoTools factories on a small pool of platform threads.
+ * The GeoTools <abbr>EPSG</abbr> factories perform <abbr>JDBC</abbr> calls while holding monitors,
+ * which pins the carrier thread when the caller is a virtual thread. When offloading is enabled,
+ * virtual threads submit the call to the pool and park until the result is available, without pinning.
+ *
+ * <p>The number of calls running concurrently is bounded by an adaptive limit, for protecting
+ * the database against overload. See {@link Limiter} for the algorithm. Calls in excess of the
+ * limit wait for a permit. The permit of an offloaded call is released when the call finishes
+ * in the platform thread, even if the caller stopped waiting because it has been interrupted.</p>
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+final class Offloader {
+    /**
+     * A call to a GeoTools factory.
+     *
+     * @param  <T>  type of the value returned by the call.
+     */
+    @FunctionalInterface
+    interface Call<T> {
+        /**
+         * Invokes the GeoTools factory.
+         *
+         * @return the value returned by the factory.
+         * @throws FactoryException if the factory failed.
+         */
+        T call() throws FactoryException;
+    }
+
+    /**
+     * Whether the calls are offloaded to the pool of platform threads.
+     */
+    static volatile boolean enabled;
+
+    /**
+     * Maximal number of concurrent calls, which is also the number of threads in the pool.
+     */
+    static final int MAXIMUM = Math.clamp(Runtime.getRuntime().availableProcessors(), 2, 8);
+
+    /**
+     * The pool of platform threads, created when first needed.
+     */
+    private static final class Pool {
+        /** The threads executing the offloaded calls. */
+        static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(MAXIMUM,
+                Thread.ofPlatform().name("GeoTools factory ", 0).daemon().factory());
+    }
+
+    /**
+     * The limit on the number of concurrent calls to the GeoTools factories.
+     */
+    static final Limiter LIMITER = new Limiter(MAXIMUM);
+
+    /**
+     * Do not allow instantiation of this class.
+     */
+    private Offloader() {
+    }
+
+    /**
+     * {@return the current limit on the number of concurrent calls}.
+     */
+    static int limit() {
+        return LIMITER.limit();
+    }
+
+    /**
+     * Executes the given call, in a platform thread if offloading is enabled and the current thread is virtual.
+     * If offloading is disabled, then the call is executed directly.
+     *
+     * @param  <T>   type of the value returned by the call.
+     * @param  kind  the kind of call (usually the type of the created object), for tracking latencies separately.
+     * @param  task  the call to the GeoTools factory.
+     * @return the value returned by the call.
+     * @throws FactoryException if the factory failed or if the current thread has been interrupted.
+     */
+    static <T> T call(final Class<?> kind, final Call<T> task) throws FactoryException {
+        if (!enabled) {
+            return task.call();
+        }
+        try {
+            LIMITER.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FactoryException("Interrupted while waiting for the factory.", e);
+        }
+        if (!Thread.currentThread().isVirtual()) {
+            return measure(kind, task);
+        }
+        final Future<T> result;
+        try {
+            result = Pool.EXECUTOR.submit(() -> measure(kind, task));
+        } catch (RejectedExecutionException e) {
+            LIMITER.release();
+            throw e;
+        }
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            // Do not interrupt the platform thread, as it may close the database connection.
+            // The permit will be released by the platform thread when the call finishes.
+            Thread.currentThread().interrupt();
+            throw new FactoryException("Interrupted while waiting for the factory.", e);
+        } catch (ExecutionException e) {
+            switch (e.getCause()) {
+                case FactoryException c: throw c;
+                case RuntimeException c: throw c;
+                case Error c: throw c;
+                default: throw new FactoryException(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Executes the given call in the current thread, then releases the permit acquired by the caller.
+     *
+     * @param  <T>   type of the value returned by the call.
+     * @param  kind  the kind of call, for tracking latencies separately.
+     * @param  task  the call to the GeoTools factory.
+     * @return the value returned by the call.
+     * @throws FactoryException if the factory failed.
+     */
+    private static <T> T measure(final Class<?> kind, final Call<T> task) throws FactoryException {
+        final long start = System.nanoTime();
+        try {
+            return task.call();
+        } finally {
+            LIMITER.release(kind, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Adaptive limit on the number of concurrent calls, adjusted according to the gradient of the latencies.
+     * For each kind of call, two exponentially weighted moving averages of the latency are maintained:
+     * a short-term average which reacts in a few samples, and a long-term average which represents the
+     * latency under normal load. The ratio of the long-term to the short-term average, multiplied by a
+     * tolerance factor and clamped to the [½ … 1] range, is a gradient which is 1 when the latency is less
+     * than twice the usual one, and decreases when the database becomes slower. The new limit is the current
+     * limit multiplied by the gradient, plus one if all permits were in use, then smoothed with the previous limit.
+     *
+     * <p>Latencies are tracked separately for each kind of call, because some calls are naturally
+     * slower than others. Since the averages are smoothed, a single slow call does not reduce the
+     * limit, and a durable change of the database speed is absorbed by the long-term average.</p>
+     */
+    static final class Limiter {
+        /**
+         * Weight of a new sample in the short-term average of latencies.
+         */
+        private static final double SHORT_WEIGHT = 0.1;
+
+        /**
+         * Weight of a new sample in the long-term average of latencies.
+         */
+        private static final double LONG_WEIGHT = 0.01;
+
+        /**
+         * Weight of a new estimation in the smoothed limit.
+         */
+        private static final double LIMIT_WEIGHT = 0.2;
+
+        /**
+         * Ratio of short-term to long-term latencies below which the limit is not reduced.
+         */
+        private static final double TOLERANCE = 2;
+
+        /**
+         * Minimal value of the gradient, for avoiding to divide the limit by more than 2 in one step.
+         */
+        private static final double MIN_GRADIENT = 0.5;
+
+        /**
+         * The moving averages of the latencies of one kind of call, in nanoseconds.
+         */
+        private static final class Latency {
+            /** Short-term and long-term averages. */
+            double shortTerm, longTerm;
+
+            /** Creates averages initialized to the given sample. */
+            Latency(final double sample) {
+                shortTerm = longTerm = sample;
+            }
+        }
+
+        /**
+         * The lock which guards the fields below.
+         */
+        private final ReentrantLock lock;
+
+        /**
+         * Signaled when a permit is released.
+         */
+        private final Condition released;
+
+        /**
+         * Maximal value of the limit.
+         */
+        private final int maximum;
+
+        /**
+         * The smoothed limit, as a real number for allowing gradual changes.
+         */
+        private double estimate;
+
+        /**
+         * The current limit on the number of concurrent calls. This is {@link #estimate} rounded.
+         */
+        private int limit;
+
+        /**
+         * Number of calls currently running.
+         */
+        private int running;
+
+        /**
+         * The moving averages of latencies for each kind of call.
+         */
+        private final Map<Class<?>, Latency> latencies;
+
+        /**
+         * Creates a new limiter with an initial limit equal to the given maximum.
+         *
+         * @param  maximum  maximal number of concurrent calls.
+         */
+        Limiter(final int maximum) {
+            this.maximum = maximum;
+            lock      = new ReentrantLock();
+            released  = lock.newCondition();
+            latencies = new HashMap<>();
+            estimate  = maximum;
+            limit     = maximum;
+        }
+
+        /**
+         * {@return the current limit on the number of concurrent calls}.
+         */
+        int limit() {
+            lock.lock();
+            try {
+                return limit;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * {@return the number of permits currently taken}.
+         */
+        int running() {
+            lock.lock();
+            try {
+                return running;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Waits until a permit is available, then takes it.
+         *
+         * @throws InterruptedException if the current thread has been interrupted while waiting.
+         */
+        void acquire() throws InterruptedException {
+            lock.lock();
+            try {
+                while (running >= limit) {
+                    released.await();
+                }
+                running++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Releases a permit without adjusting the limit. This is used when the call has not been executed,
+         * in which case there is no latency to take in account.
+         */
+        void release() {
+            lock.lock();
+            try {
+                running--;
+                released.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Releases a permit and adjusts the limit according to the latency of the call.
+         *
+         * @param  kind     the kind of call.
+         * @param  latency  duration of the call in nanoseconds.
+         */
+        void release(final Class<?> kind, final long latency) {
+            lock.lock();
+            try {
+                final boolean saturated = (running >= limit);
+                running--;
+                final int previous = limit;
+                update(kind, latency, saturated);
+                released.signal();
+                if (limit > previous) {
+                    released.signal();      // One more waiting call can start.
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Updates the averages of latencies and the limit for a new sample.
+         * The caller shall hold the lock, except in tests.
+         *
+         * @param  kind       the kind of call.
+         * @param  latency    duration of the call in nanoseconds.
+         * @param  saturated  whether all permits were in use when the call finished.
+         */
+        void update(final Class<?> kind, final long latency, final boolean saturated) {
+            final Latency stats = latencies.get(kind);
+            double gradient = 1;
+            if (stats == null) {
+                latencies.put(kind, new Latency(latency));
+            } else {
+                stats.shortTerm += SHORT_WEIGHT * (latency - stats.shortTerm);
+                stats.longTerm  += LONG_WEIGHT  * (latency - stats.longTerm);
+                if (stats.shortTerm > 0) {
+                    gradient = Math.clamp(TOLERANCE * stats.longTerm / stats.shortTerm, MIN_GRADIENT, 1);
+                }
+            }
+            final double target = estimate * gradient + (saturated ? 1 : 0);
+            estimate = Math.clamp(estimate + LIMIT_WEIGHT * (target - estimate), 1, maximum);
+            limit = (int) Math.round(estimate);
+        }
+    }
+}
@@ -0,0 +1,591 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import org.opengis.referencing.AuthorityFactory;
+import org.opengis.referencing.IdentifiedObject;
+import org.opengis.util.GenericName;
+import org.opengis.util.InternationalString;
+
+
+/**
+ * An in-memory index for searching authority codes by words of their code, name or aliases.
+ * The search is insensitive to case and accents, matches words by prefix, and optionally
+ * tolerates typing errors. The index is built in background threads. The codes indexed so far
+ * are published for searches in batches, every {@value #PUBLISH_INTERVAL} milliseconds or more often,
+ * so that searches are possible before the completion of the whole index.
+ *
+ * <p>Each query word shall match at least one word of a code, name or alias. Results are ranked
+ * by the quality of the matches: exact words first, then prefixes, then approximate matches.
+ * Codes of equal rank are sorted by increasing name length, then by code.</p>
+ *
+ * <p>Instances of this class are thread-safe.</p>
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+public final class SearchIndex {
+    /**
+     * A code found by a search, together with its name and the rank of the match.
+     *
+     * @param  code   the authority code.
+     * @param  name   the name or description of the object, or the code if none.
+     * @param  score  the rank of the match. Higher values are better matches.
+     */
+    public record Match(String code, String name, int score) {
+    }
+
+    /**
+     * Score of a query word equal to a word of the code, name or alias.
+     */
+    private static final int EXACT = 4;
+
+    /**
+     * Score of a query word which is a prefix of a word of the code, name or alias.
+     */
+    private static final int PREFIX = 3;
+
+    /**
+     * Score of a query word which is approximately a prefix of a word of the code, name or alias.
+     */
+    private static final int FUZZY = 1;
+
+    /**
+     * Minimal number of characters of a query word for tolerating one typing error.
+     * Words of twice this length tolerate two errors.
+     */
+    private static final int FUZZY_LENGTH = 3;
+
+    /**
+     * Maximal time in milliseconds between the addition of codes and their publication for searches,
+     * provided that codes continue to be added. The remaining codes are published when the index is complete.
+     */
+    static final long PUBLISH_INTERVAL = 100;
+
+    /**
+     * The combining diacritical marks to remove after decomposition of the characters.
+     */
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    /**
+     * The characters which separate words.
+     */
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * The codes indexed since the last snapshot, in order of insertion.
+     * Shall be accessed only while holding the {@link #lock}.
+     */
+    private final List<String> codes;
+
+    /**
+     * The names of the codes indexed since the last snapshot, in the same order as {@link #codes}.
+     * Shall be accessed only while holding the {@link #lock}.
+     */
+    private final List<String> names;
+
+    /**
+     * Indexes in {@link #codes} of the codes for each word. The first element of each array is the number
+     * of valid indexes. Shall be accessed only while holding the {@link #lock}.
+     */
+    private final Map<String, int[]> postings;
+
+    /**
+     * The lock for adding codes.
+     */
+    private final ReentrantLock lock;
+
+    /**
+     * The immutable state used by searches. Replaced by a new snapshot when enough codes have been added.
+     */
+    private volatile Snapshot snapshot;
+
+    /**
+     * Value of {@link System#nanoTime()} when the last snapshot was taken.
+     * Shall be accessed only while holding the {@link #lock}.
+     */
+    private long publishTime;
+
+    /**
+     * Maximal time in nanoseconds between two snapshots while codes are added.
+     */
+    private final long publishInterval;
+
+    /**
+     * Completed when all codes have been indexed.
+     */
+    private final CompletableFuture<SearchIndex> completion;
+
+    /**
+     * Creates an initially empty index publishing new codes every {@value #PUBLISH_INTERVAL} milliseconds.
+     */
+    SearchIndex() {
+        this(PUBLISH_INTERVAL * 1_000_000);
+    }
+
+    /**
+     * Creates an initially empty index publishing new codes at the given interval.
+     *
+     * @param  publishInterval  maximal time in nanoseconds between two snapshots while codes are added.
+     */
+    SearchIndex(final long publishInterval) {
+        this.publishInterval = publishInterval;
+        codes      = new ArrayList<>();
+        names      = new ArrayList<>();
+        postings   = new HashMap<>();
+        lock       = new ReentrantLock();
+        snapshot   = new Snapshot(new Segment[0], 0);
+        completion = new CompletableFuture<>();
+        publishTime = System.nanoTime();
+    }
+
+    /**
+     * Starts building an index of the codes of the given type in the given factory.
+     * This method returns immediately, and the index is filled in background.
+     * If {@code aliases} is {@code false}, then the index contains the codes and their descriptions.
+     * If {@code aliases} is {@code true}, then the objects are created for getting their names and aliases,
+     * which is more expensive.
+     *
+     * @param  factory  the factory of the codes to index.
+     * @param  type     the type of objects for which to index the codes.
+     * @param  aliases  whether to create the objects for indexing their names and aliases.
+     * @return the index, initially empty or incomplete.
+     *
+     * @see #completion()
+     */
+    public static SearchIndex build(final AuthorityFactory factory, final Class<? extends IdentifiedObject> type,
+                                    final boolean aliases)
+    {
+        final var index = new SearchIndex();
+        Thread.ofVirtual().name("GeoTools search index").start(() -> {
+            try {
+                BulkCreation.create(factory.getAuthorityCodes(type), (code) -> {
+                    if (aliases) {
+                        final IdentifiedObject object = factory.createObject(code);
+                        final var labels = new ArrayList<String>();
+                        for (final GenericName alias : object.getAlias()) {
+                            labels.add(alias.toString());
+                        }
+                        index.add(code, object.getName().getCode(), labels);
+                    } else {
+                        final InternationalString description = factory.getDescriptionText(code);
+                        index.add(code, (description != null) ? description.toString() : null, List.of());
+                    }
+                    return null;
+                }, null);
+                index.publish();
+                index.completion.complete(index);
+            } catch (Exception e) {
+                index.publish();
+                index.completion.completeExceptionally(e);
+            }
+        });
+        return index;
+    }
+
+    /**
+     * {@return a future completed when all codes have been indexed}.
+     * The future completes exceptionally if the codes cannot be obtained.
+     * The codes that cannot be indexed individually are ignored.
+     */
+    public CompletableFuture<SearchIndex> completion() {
+        return completion.copy();
+    }
+
+    /**
+     * {@return the number of codes indexed so far and available for searches}.
+     */
+    public int size() {
+        return snapshot.size;
+    }
+
+    /**
+     * Adds a code to this index. A new snapshot is published when the number of codes has doubled
+     * since the last snapshot, or when the last snapshot is older than {@value #PUBLISH_INTERVAL} milliseconds,
+     * so that new codes do not wait too long. See {@link #publish()} for the cost of a snapshot.
+     *
+     * @param  code     the authority code.
+     * @param  name     the name or description of the object, or {@code null} if none.
+     * @param  aliases  other names of the object.
+     */
+    void add(final String code, final String name, final List<String> aliases) {
+        final var words = new LinkedHashSet<String>();
+        words(code, words);
+        if (name != null) {
+            words(name, words);
+        }
+        for (final String alias : aliases) {
+            words(alias, words);
+        }
+        lock.lock();
+        try {
+            final int id = codes.size();
+            codes.add(code);
+            names.add((name != null) ? name : code);
+            for (final String word : words) {
+                int[] ids = postings.get(word);
+                if (ids == null) {
+                    ids = new int[4];
+                } else if (ids[0] + 1 == ids.length) {
+                    ids = Arrays.copyOf(ids, ids.length * 2);
+                }
+                ids[++ids[0]] = id;
+                postings.put(word, ids);
+            }
+            if (codes.size() >= Math.max(snapshot.size, 64)
+                    || System.nanoTime() - publishTime >= publishInterval)
+            {
+                publish();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Publishes the codes added so far for making them available to searches.
+     * The codes added since the last snapshot are published in a new immutable segment,
+     * so the previous segments are not copied. Then, the last segments are merged while
+     * they are not larger than the new one. Consequently, the sizes of segments decrease
+     * geometrically, their number is logarithmic, and each code is copied a logarithmic
+     * number of times during the whole construction of the index.
+     */
+    void publish() {
+        lock.lock();
+        try {
+            publishTime = System.nanoTime();
+            if (codes.isEmpty()) {
+                return;
+            }
+            final String[] terms = postings.keySet().toArray(String[]::new);
+            Arrays.sort(terms);
+            final int[][] ids = new int[terms.length][];
+            for (int i=0; i<terms.length; i++) {
+                final int[] p = postings.get(terms[i]);
+                ids[i] = Arrays.copyOfRange(p, 1, p[0] + 1);
+            }
+            var segment = new Segment(codes.toArray(String[]::new), names.toArray(String[]::new), terms, ids);
+            final var segments = new ArrayList<Segment>(Arrays.asList(snapshot.segments));
+            int last;
+            while ((last = segments.size() - 1) >= 0 && segments.get(last).codes.length <= segment.codes.length) {
+                segment = Segment.merge(segments.remove(last), segment);
+            }
+            segments.add(segment);
+            snapshot = new Snapshot(segments.toArray(Segment[]::new), snapshot.size + codes.size());
+            codes.clear();
+            names.clear();
+            postings.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds the normalized words of the given text to the given set.
+     * Words are in lower case, without accents.
+     */
+    private static void words(final String text, final Set<String> words) {
+        final String normalized = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        for (final String word : SEPARATORS.split(normalized.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+    }
+
+    /**
+     * Searches the codes matching all words of the given query.
+     * The search uses the codes indexed so far, even if the index is not complete.
+     *
+     * @param  query  the words to search, in any case and with or without accents.
+     * @param  fuzzy  whether to tolerate typing errors in the query words.
+     * @param  limit  maximal number of results.
+     * @return the codes matching the query, best matches first.
+     */
+    public List<Match> search(final String query, final boolean fuzzy, final int limit) {
+        final var words = new LinkedHashSet<String>();
+        words(query, words);
+        return snapshot.search(words.toArray(String[]::new), fuzzy, limit);
+    }
+
+    /**
+     * An immutable state of the index at the time it was published.
+     *
+     * @param  segments  the indexed codes, in segments of decreasing sizes.
+     * @param  size      total number of codes in all segments.
+     */
+    private record Snapshot(Segment[] segments, int size) {
+        /**
+         * Searches the codes matching all given words.
+         */
+        List<Match> search(final String[] words, final boolean fuzzy, final int limit) {
+            if (words.length == 0 || limit <= 0) {
+                return List.of();
+            }
+            final var matches = new ArrayList<Match>();
+            for (final Segment segment : segments) {
+                segment.search(words, fuzzy, matches);
+            }
+            matches.sort(Comparator.comparingInt(Match::score).reversed()
+                    .thenComparingInt((Match m) -> m.name().length())
+                    .thenComparing(Match::code));
+            return (matches.size() > limit) ? List.copyOf(matches.subList(0, limit)) : matches;
+        }
+    }
+
+    /**
+     * An immutable part of the index. All words of a code are in the same segment as that code,
+     * so each segment can be searched independently of the other segments.
+     *
+     * @param  codes     the indexed codes.
+     * @param  names     the names of the codes, in the same order.
+     * @param  terms     all words of the codes, names and aliases, in alphabetical order.
+     * @param  postings  indexes of the codes for each term, in the same order as {@code terms}.
+     */
+    private record Segment(String[] codes, String[] names, String[] terms, int[][] postings) {
+        /**
+         * Merges the given segments. The codes of the first segment are before the codes of the second one.
+         *
+         * @param  first   the older segment.
+         * @param  second  the newer segment.
+         * @return a segment with the codes of both segments.
+         */
+        static Segment merge(final Segment first, final Segment second) {
+            final int offset = first.codes.length;
+            final String[] codes = Arrays.copyOf(first.codes, offset + second.codes.length);
+            final String[] names = Arrays.copyOf(first.names, offset + second.names.length);
+            System.arraycopy(second.codes, 0, codes, offset, second.codes.length);
+            System.arraycopy(second.names, 0, names, offset, second.names.length);
+            final var terms    = new String[first.terms.length + second.terms.length];
+            final var postings = new int[terms.length][];
+            int i = 0, j = 0, n = 0;
+            while (i < first.terms.length || j < second.terms.length) {
+                final int c;
+                if (i == first.terms.length) {
+                    c = 1;
+                } else if (j == second.terms.length) {
+                    c = -1;
+                } else {
+                    c = first.terms[i].compareTo(second.terms[j]);
+                }
+                int[] ids;
+                if (c <= 0) {
+                    terms[n] = first.terms[i];
+                    ids = first.postings[i++];
+                    if (c == 0) {
+                        final int[] more = second.postings[j++];
+                        final int length = ids.length;
+                        ids = Arrays.copyOf(ids, length + more.length);
+                        for (int k=0; k<more.length; k++) {
+                            ids[length + k] = more[k] + offset;
+                        }
+                    }
+                } else {
+                    terms[n] = second.terms[j];
+                    ids = second.postings[j++].clone();
+                    for (int k=0; k<ids.length; k++) {
+                        ids[k] += offset;
+                    }
+                }
+                postings[n++] = ids;
+            }
+            return new Segment(codes, names, Arrays.copyOf(terms, n), Arrays.copyOf(postings, n));
+        }
+
+        /**
+         * Searches the codes of this segment matching all given words, and adds them to the given list.
+         */
+        void search(final String[] words, final boolean fuzzy, final List<Match> matches) {
+            final int[] scores = new int[codes.length];
+            final int[] best   = new int[codes.length];
+            for (int w=0; w<words.length; w++) {
+                final String word = words[w];
+                Arrays.fill(best, 0);
+                int i = Arrays.binarySearch(terms, word);
+                if (i < 0) {
+                    i = ~i;
+                }
+                while (i < terms.length && terms[i].startsWith(word)) {
+                    mark(best, postings[i], terms[i].length() == word.length() ? EXACT : PREFIX);
+                    i++;
+                }
+                if (fuzzy && word.length() >= FUZZY_LENGTH) {
+                    approximate(word, (word.length() >= 2*FUZZY_LENGTH) ? 2 : 1, best);
+                }
+                // Keep only the codes matched by all words so far.
+                for (int j=0; j<scores.length; j++) {
+                    scores[j] = (best[j] != 0 && (scores[j] != 0 || w == 0)) ? scores[j] + best[j] : 0;
+                }
+            }
+            for (int j=0; j<scores.length; j++) {
+                if (scores[j] != 0) {
+                    matches.add(new Match(codes[j], names[j], scores[j]));
+                }
+            }
+        }
+
+        /**
+         * Marks the codes of all terms for which {@link #isApproximatePrefix(String, String, int)} is true.
+         * The sorted terms are traversed as a trie: the rows of the edit distance matrix computed for a prefix
+         * are reused by all terms sharing that prefix, and when a prefix already matches the word or is already
+         * too different, all terms starting with that prefix are marked or skipped together. Consequently,
+         * only the terms close to the word are examined, instead of all terms of the index.
+         *
+         * @param  word       the query word.
+         * @param  tolerance  maximal number of edits.
+         * @param  best       the scores to update.
+         */
+        private void approximate(final String word, final int tolerance, final int[] best) {
+            final int n = word.length();
+            int[][] rows = new int[16][];
+            rows[0] = new int[n + 1];
+            for (int j=0; j<=n; j++) {
+                rows[0][j] = j;
+            }
+            String previous = "";
+            int valid = 0;                      // Number of characters of `previous` for which rows are computed.
+            int i = 0;
+            while (i < terms.length) {
+                final String term = terms[i];
+                int depth = 0;
+                final int common = Math.min(valid, term.length());
+                while (depth < common && term.charAt(depth) == previous.charAt(depth)) {
+                    depth++;
+                }
+                int next = i + 1;
+                while (depth < term.length()) {
+                    if (depth + 1 >= rows.length) {
+                        rows = Arrays.copyOf(rows, rows.length * 2);
+                    }
+                    final int[] above = rows[depth];
+                    int[] row = rows[depth + 1];
+                    if (row == null) {
+                        rows[depth + 1] = row = new int[n + 1];
+                    }
+                    final char c = term.charAt(depth++);
+                    row[0] = depth;
+                    int min = depth;
+                    for (int j=1; j<=n; j++) {
+                        final int substitution = above[j-1] + (word.charAt(j - 1) == c ? 0 : 1);
+                        row[j] = Math.min(substitution, Math.min(above[j], row[j-1]) + 1);
+                        min = Math.min(min, row[j]);
+                    }
+                    final boolean matched = (row[n] <= tolerance);
+                    if (matched || min > tolerance) {
+                        next = endOfPrefix(term, depth, i);
+                        if (matched) {
+                            for (int k=i; k<next; k++) {
+                                mark(best, postings[k], FUZZY);
+                            }
+                        }
+                        break;
+                    }
+                }
+                previous = term;
+                valid    = depth;
+                i        = next;
+            }
+        }
+
+        /**
+         * Returns the index after the last term starting with the given number of characters of the given term.
+         *
+         * @param  term    the term at index {@code from}.
+         * @param  length  number of characters of the prefix.
+         * @param  from    index of the given term.
+         * @return index of the first term after {@code from} which does not start with the prefix.
+         */
+        private int endOfPrefix(final String term, final int length, final int from) {
+            int low  = from + 1;
+            int high = terms.length;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (terms[mid].regionMatches(0, term, 0, length)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Sets the score of the given codes to the given value if it is better than their current score.
+         */
+        private static void mark(final int[] best, final int[] ids, final int score) {
+            for (final int id : ids) {
+                best[id] = Math.max(best[id], score);
+            }
+        }
+    }
+
+    /**
+     * Returns whether the given word is a prefix of the given term with at most the given number of
+     * insertions, deletions or substitutions. This is the minimal Levenshtein distance between the word
+     * and all prefixes of the term, computed row by row with an early exit when the tolerance is exceeded.
+     *
+     * @param  word       the query word.
+     * @param  term       the indexed term.
+     * @param  tolerance  maximal number of edits.
+     * @return whether the word approximately matches a prefix of the term.
+     */
+    static boolean isApproximatePrefix(final String word, final String term, final int tolerance) {
+        final int n = word.length();
+        if (term.length() < n - tolerance) {
+            return false;
+        }
+        int[] previous = new int[n + 1];
+        int[] current  = new int[n + 1];
+        for (int j=0; j<=n; j++) {
+            previous[j] = j;
+        }
+        if (previous[n] <= tolerance) {
+            return true;
+        }
+        for (int i=1; i<=term.length(); i++) {
+            current[0] = i;
+            int min = i;
+            final char c = term.charAt(i - 1);
+            for (int j=1; j<=n; j++) {
+                final int substitution = previous[j-1] + (word.charAt(j - 1) == c ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j-1]) + 1);
+                min = Math.min(min, current[j]);
+            }
+            if (current[n] <= tolerance) {
+                return true;
+            }
+            if (min > tolerance) {
+                return false;
+            }
+            final int[] swap = previous;
+            previous = current;
+            current  = swap;
+        }
+        return false;
+    }
+}
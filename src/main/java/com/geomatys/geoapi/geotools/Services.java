@@ -15,8 +15,23 @@
  */
 package com.geomatys.geoapi.geotools;
 
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.ServiceLoader;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 import org.opengis.util.FactoryException;
+import org.opengis.referencing.AuthorityFactory;
 import org.opengis.referencing.cs.CSFactory;
 import org.opengis.referencing.cs.CSAuthorityFactory;
 import org.opengis.referencing.crs.CRSFactory;
@@ -29,10 +44,162 @@ import org.opengis.referencing.operation.CoordinateOperationAuthorityFactory;
 
 /**
  * Views overs GeoTools factories.
+ * The factories are discovered and wrapped once, then shared by all callers.
+ * The {@link #refresh()} method can be invoked for discovering them again,
+ * for example after a change in the class-path or in the GeoTools configuration.
  *
  * @author Martin Desruisseaux (Geomatys)
  */
 public final class Services {
+    /**
+     * The methods of the GeoTools {@code CRS} class, resolved only when first needed.
+     * Reflection is used because the {@code gt-referencing} module is not a compile-time dependency.
+     */
+    private static final class GeoTools {
+        /** The {@code getAuthorityFactory(boolean)} method, or {@code null} if not found. */
+        static final MethodHandle AUTHORITY_FACTORY;
+
+        /** The {@code getCoordinateOperationFactory(boolean)} method, or {@code null} if not found. */
+        static final MethodHandle OPERATION_FACTORY;
+
+        /** The reason why the methods were not found, or {@code null} if they were found. */
+        static final ReflectiveOperationException FAILURE;
+
+        static {
+            MethodHandle authority = null, operation = null;
+            ReflectiveOperationException failure = null;
+            try {
+                final Class<?> c = Class.forName("org.geotools.referencing.CRS");
+                final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+                final MethodType type = MethodType.methodType(Object.class, Boolean.TYPE);
+                authority = lookup.unreflect(c.getMethod("getAuthorityFactory", Boolean.TYPE)).asType(type);
+                operation = lookup.unreflect(c.getMethod("getCoordinateOperationFactory", Boolean.TYPE)).asType(type);
+            } catch (ReflectiveOperationException e) {
+                failure = e;
+            }
+            AUTHORITY_FACTORY = authority;
+            OPERATION_FACTORY = operation;
+            FAILURE = failure;
+        }
+
+        /** Do not allow instantiations of this class. */
+        private GeoTools() {
+        }
+    }
+
+    /**
+     * The wrapped factories returned by {@code getAuthorityFactory(false)}, {@code getAuthorityFactory(true)},
+     * {@code getCoordinateOperationFactory(false)} and {@code getCoordinateOperationFactory(true)}, in that order.
+     * Elements are {@code null} until first requested.
+     */
+    private static final AtomicReferenceArray<Object> FACTORIES = new AtomicReferenceArray<>(4);
+
+    /**
+     * The providers found by {@link ServiceLoader} for a type of service, discovered only when first needed.
+     *
+     * @param <S> the GeoTools interface of the service.
+     * @param <T> the GeoAPI interface of the service.
+     */
+    private static final class Registry<S,T> {
+        /** The GeoTools interface of the service. */
+        private final Class<S> service;
+
+        /** The function to invoke for wrapping each provider. */
+        private final Function<S,T> wrapper;
+
+        /** Lock used during the discovery of providers. Does not pin virtual threads. */
+        private final ReentrantLock lock;
+
+        /** The wrapped providers, or {@code null} if not yet discovered. */
+        private volatile List<T> providers;
+
+        /** Creates a new registry for the given service. */
+        Registry(final Class<S> service, final Function<S,T> wrapper) {
+            this.service = service;
+            this.wrapper = wrapper;
+            lock = new ReentrantLock();
+        }
+
+        /** Returns the wrapped providers, discovering them if not already done. */
+        List<T> providers() {
+            List<T> list = providers;
+            if (list == null) {
+                lock.lock();
+                try {
+                    list = providers;
+                    if (list == null) {
+                        final var found = new ArrayList<T>();
+                        for (final S provider : ServiceLoader.load(service)) {
+                            found.add(wrapper.apply(provider));
+                        }
+                        providers = list = Collections.unmodifiableList(found);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            return list;
+        }
+
+        /** Forgets the providers, so that they will be discovered again when next requested. */
+        void clear() {
+            lock.lock();
+            try {
+                providers = null;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Providers of <abbr>CRS</abbr> authority factories.
+     */
+    private static final Registry<?,CRSAuthorityFactory> CRS_AUTHORITY_FACTORIES = new Registry<>(
+            org.geotools.api.referencing.crs.CRSAuthorityFactory.class, CRSAuthorityFactoryFromGT::wrap);
+
+    /**
+     * Providers of <abbr>CS</abbr> authority factories.
+     */
+    private static final Registry<?,CSAuthorityFactory> CS_AUTHORITY_FACTORIES = new Registry<>(
+            org.geotools.api.referencing.cs.CSAuthorityFactory.class, CSAuthorityFactoryFromGT::wrap);
+
+    /**
+     * Providers of datum authority factories.
+     */
+    private static final Registry<?,DatumAuthorityFactory> DATUM_AUTHORITY_FACTORIES = new Registry<>(
+            org.geotools.api.referencing.datum.DatumAuthorityFactory.class, DatumAuthorityFactoryFromGT::wrap);
+
+    /**
+     * Providers of coordinate operation authority factories.
+     */
+    private static final Registry<?,CoordinateOperationAuthorityFactory> OPERATION_AUTHORITY_FACTORIES = new Registry<>(
+            org.geotools.api.referencing.operation.CoordinateOperationAuthorityFactory.class, CoordinateOperationAuthorityFactoryFromGT::wrap);
+
+    /**
+     * Providers of <abbr>CRS</abbr> object factories.
+     */
+    private static final Registry<?,CRSFactory> CRS_FACTORIES = new Registry<>(
+            org.geotools.api.referencing.crs.CRSFactory.class, CRSFactoryFromGT::wrap);
+
+    /**
+     * Providers of <abbr>CS</abbr> object factories.
+     */
+    private static final Registry<?,CSFactory> CS_FACTORIES = new Registry<>(
+            org.geotools.api.referencing.cs.CSFactory.class, CSFactoryFromGT::wrap);
+
+    /**
+     * Providers of datum object factories.
+     */
+    private static final Registry<?,DatumFactory> DATUM_FACTORIES = new Registry<>(
+            org.geotools.api.referencing.datum.DatumFactory.class, DatumFactoryFromGT::wrap);
+
+    /**
+     * Providers of coordinate operation object factories.
+     */
+    private static final Registry<?,CoordinateOperationFactory> OPERATION_FACTORIES = new Registry<>(
+            org.geotools.api.referencing.operation.CoordinateOperationFactory.class, CoordinateOperationFactoryFromGT::wrap);
+
     /**
      * Do not allow instantiations of this class.
      */
@@ -42,16 +209,19 @@ public final class Services {
     /**
      * {@return the default factory as provided by the GeoTools <code>CRS</code> class}.
      *
-     * @todo {@code CoordinateOperationFactory} is not yet available.
-     *
-     * @param  method    {@code "getAuthorityFactory"} or {@code "getCoordinateOperationFactory"}.
+     * @param  method    {@link GeoTools#AUTHORITY_FACTORY} or {@link GeoTools#OPERATION_FACTORY}.
      * @param  argument  the {@code longitudeFirst} or {@code lenient} argument, for CRS and operation factory respectively.
      * @throws FactoryException if the GeoTools {@code org.geotools.referencing.CRS} class has not been found.
      */
-    private static Object provider(final String method, final boolean argument) throws FactoryException {
+    private static Object provider(final MethodHandle method, final boolean argument) throws FactoryException {
+        if (method == null) {
+            throw new FactoryException(GeoTools.FAILURE);
+        }
         try {
-            return Class.forName("org.geotools.referencing.CRS").getMethod(method, Boolean.TYPE).invoke(null, argument);
-        } catch (ReflectiveOperationException e) {
+            return (Object) method.invokeExact(argument);
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
             throw new FactoryException(e);
         }
     }
@@ -59,25 +229,259 @@ public final class Services {
     /**
      * {@return the default <abbr>CRS</abbr> authority factory}. This method delegates to the
      * method of the same name in {@code org.geotools.referencing.CRS} and wraps the result.
+     * The same instance is returned on each invocation with the same argument value,
+     * until {@link #refresh()} is invoked.
      *
      * @param  longitudeFirst  whether to force (<var>longitude</var>, <var>latitude</var>) axis order.
      * @throws FactoryException if the GeoTools {@code org.geotools.referencing.CRS} class has not been found.
      */
     public static CRSAuthorityFactory getAuthorityFactory(boolean longitudeFirst) throws FactoryException {
-        final Object factory = provider("getAuthorityFactory", longitudeFirst);
-        return CRSAuthorityFactoryFromGT.wrap((org.geotools.api.referencing.crs.CRSAuthorityFactory) factory);
+        final int slot = longitudeFirst ? 1 : 0;
+        Object factory = FACTORIES.get(slot);
+        if (factory == null) {
+            factory = singleton(slot, CRSAuthorityFactoryFromGT.wrap((org.geotools.api.referencing.crs.CRSAuthorityFactory)
+                    provider(GeoTools.AUTHORITY_FACTORY, longitudeFirst)));
+        }
+        return (CRSAuthorityFactory) factory;
+    }
+
+    /**
+     * {@return a view of the default <abbr>CRS</abbr> authority factory which creates the <abbr>CRS</abbr> lazily}.
+     * The objects returned by this factory answer {@code getIdentifiers()} from the authority code
+     * and {@code getName()} from the description of the code, without building the <abbr>CRS</abbr>.
+     * The <abbr>CRS</abbr> is built from the database, once, when another property is first requested.
+     * The existence of the code is verified when the lazy object is created, so unknown codes cause
+     * a {@link org.opengis.referencing.NoSuchAuthorityCodeException} as with the eager factory.
+     * The lazy objects implement the GeoAPI interface of the {@code create} method which returned them,
+     * not necessarily the most specific interface. They are not equal to the <abbr>CRS</abbr> that they
+     * represent. This factory shares its cache with the factory returned by {@link #getAuthorityFactory(boolean)}.
+     *
+     * @param  longitudeFirst  whether to force (<var>longitude</var>, <var>latitude</var>) axis order.
+     * @throws FactoryException if the GeoTools {@code org.geotools.referencing.CRS} class has not been found.
+     */
+    public static CRSAuthorityFactory getLazyAuthorityFactory(boolean longitudeFirst) throws FactoryException {
+        final CRSAuthorityFactory factory = getAuthorityFactory(longitudeFirst);
+        return (factory instanceof CRSAuthorityFactoryFromGT w) ? w.lazyView : factory;
     }
 
     /**
      * {@return the default coordinate operation factory}. This method delegates to the method
      * of the same name in {@code org.geotools.referencing.CRS} and wraps the result.
+     * The same instance is returned on each invocation with the same argument value,
+     * until {@link #refresh()} is invoked.
      *
      * @param  lenient  whether to be lenient about datum shifts without transformation parameters.
      * @throws FactoryException if the GeoTools {@code org.geotools.referencing.CRS} class has not been found.
      */
     public static CoordinateOperationFactory getCoordinateOperationFactory(boolean lenient) throws FactoryException {
-        final Object factory = provider("getCoordinateOperationFactory", lenient);
-        return CoordinateOperationFactoryFromGT.wrap((org.geotools.api.referencing.operation.CoordinateOperationFactory) factory);
+        final int slot = lenient ? 3 : 2;
+        Object factory = FACTORIES.get(slot);
+        if (factory == null) {
+            factory = singleton(slot, CoordinateOperationFactoryFromGT.wrap((org.geotools.api.referencing.operation.CoordinateOperationFactory)
+                    provider(GeoTools.OPERATION_FACTORY, lenient)));
+        }
+        return (CoordinateOperationFactory) factory;
+    }
+
+    /**
+     * Stores the given factory in the given slot, unless another thread stored a factory concurrently.
+     *
+     * @param  slot     index in the {@link #FACTORIES} array.
+     * @param  factory  the factory to store.
+     * @return the factory in the slot.
+     */
+    private static Object singleton(final int slot, final Object factory) {
+        final Object existing = FACTORIES.compareAndExchange(slot, null, factory);
+        return (existing != null) ? existing : factory;
+    }
+
+    /**
+     * Returns the argument given to {@code getAuthorityFactory(…)} or {@code getCoordinateOperationFactory(…)}
+     * for obtaining the given factory, or {@code null} if the factory has not been obtained by those methods.
+     * The lazy view of an authority factory is considered obtained with the same argument.
+     *
+     * @param  factory  the factory for which to get the argument.
+     * @return the {@code longitudeFirst} or {@code lenient} argument, or {@code null} if unknown.
+     */
+    static Boolean argument(final Object factory) {
+        for (int slot=0; slot < FACTORIES.length(); slot++) {
+            final Object f = FACTORIES.get(slot);
+            if (f != null && (f == factory || (f instanceof CRSAuthorityFactoryFromGT w && w.lazyView == factory))) {
+                return (slot & 1) != 0;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Discards all factories and providers, so that they will be discovered again when next requested.
+     * This method can be invoked after a change in the class-path or in the GeoTools configuration.
+     * The sets of authority codes are discarded as well, but the caches of objects created by the
+     * authority factories are not cleared.
+     */
+    public static void refresh() {
+        AuthorityCodes.clearAll();
+        for (int i = FACTORIES.length(); --i >= 0;) {
+            FACTORIES.set(i, null);
+        }
+        for (final Registry<?,?> registry : List.of(CRS_AUTHORITY_FACTORIES, CS_AUTHORITY_FACTORIES,
+                DATUM_AUTHORITY_FACTORIES, OPERATION_AUTHORITY_FACTORIES, CRS_FACTORIES, CS_FACTORIES,
+                DATUM_FACTORIES, OPERATION_FACTORIES))
+        {
+            registry.clear();
+        }
+    }
+
+    /**
+     * {@return the policy of the caches of objects created by authority and coordinate operation factories}.
+     */
+    public static CachePolicy getCachePolicy() {
+        return ObjectCache.getDefaultPolicy();
+    }
+
+    /**
+     * Sets the policy of the caches of objects created by authority and coordinate operation factories.
+     * The new bounds apply to existing caches as well, but objects already in a cache keep their reference type.
+     *
+     * @param  policy  the new cache policy.
+     */
+    public static void setCachePolicy(final CachePolicy policy) {
+        ObjectCache.setDefaultPolicy(Objects.requireNonNull(policy, "policy"));
+    }
+
+    /**
+     * {@return the statistics of the cache of objects created by the given authority factory}.
+     * The cache is shared by all views over the same GeoTools factory. This method returns an
+     * empty value if the given factory is not a view over a GeoTools factory.
+     *
+     * @param  factory  the factory for which to get the cache statistics.
+     */
+    public static Optional<CacheStatistics> getCacheStatistics(final AuthorityFactory factory) {
+        if (factory instanceof AuthorityFactoryFromGT w) {
+            return Optional.of(w.cache.getStatistics());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * {@return the statistics of the cache of operations created by the given coordinate operation factory}.
+     * The cache is shared by all views over the same GeoTools factory. This method returns an
+     * empty value if the given factory is not a view over a GeoTools factory.
+     *
+     * @param  factory  the factory for which to get the cache statistics.
+     */
+    public static Optional<CacheStatistics> getCacheStatistics(final CoordinateOperationFactory factory) {
+        if (factory instanceof CoordinateOperationFactoryFromGT w) {
+            return Optional.of(w.cache.getStatistics());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * {@return whether the operations are cached by the structure of their source and target <abbr>CRS</abbr>}.
+     *
+     * @see #setOperationCacheIgnoringMetadata(boolean)
+     */
+    public static boolean isOperationCacheIgnoringMetadata() {
+        return CoordinateOperationFactoryFromGT.ignoreMetadata;
+    }
+
+    /**
+     * Sets whether the operations are cached by the structure of their source and target <abbr>CRS</abbr>.
+     * By default, the operations created by {@link #getCoordinateOperationFactory(boolean)} are cached
+     * for each pair of <abbr>CRS</abbr> which are equal. If this option is enabled, a cached operation is
+     * also returned for <abbr>CRS</abbr> which differ only by their metadata, such as identifiers or the
+     * names of objects other than datums, projection methods and parameters. Parameter values and datum shifts
+     * are compared without rounding, so <abbr>CRS</abbr> which are nearly equal still get distinct operations.
+     * This increases the hit rate when the same <abbr>CRS</abbr> are parsed many times, at the cost of computing
+     * a fingerprint for each request.
+     *
+     * @param  enabled  whether to ignore metadata in the keys of cached operations.
+     */
+    public static void setOperationCacheIgnoringMetadata(final boolean enabled) {
+        CoordinateOperationFactoryFromGT.ignoreMetadata = enabled;
+    }
+
+    /**
+     * {@return whether the blocking calls to GeoTools factories are offloaded to platform threads}.
+     *
+     * @see #setOffloading(boolean)
+     */
+    public static boolean isOffloading() {
+        return Offloader.enabled;
+    }
+
+    /**
+     * Sets whether the blocking calls to GeoTools factories are offloaded to a small pool of platform threads.
+     * The GeoTools <abbr>EPSG</abbr> factories access the database while holding monitors, which pins the
+     * carrier thread when the caller is a virtual thread. When offloading is enabled, the creations of objects
+     * from authority codes and the creations of coordinate operations requested by virtual threads are executed
+     * by platform threads while the virtual threads are parked. The number of concurrent calls is bounded by a
+     * limit which adapts to the latency of the database. Objects found in the caches are returned directly.
+     *
+     * @param  enabled  whether to offload the blocking calls to platform threads.
+     */
+    public static void setOffloading(final boolean enabled) {
+        Offloader.enabled = enabled;
+    }
+
+    /**
+     * Initializes the factories and creates the objects listed in the given profile in a background thread.
+     * The profile is a file written by {@link #writeProfile(Path)} during a previous execution.
+     * The objects are created in parallel, so that they are already in the caches when the application
+     * requests them. Codes which cannot be created are ignored. If the profile is {@code null} or the file
+     * does not exist, then only the factories and the underlying database are initialized.
+     * Each entry is replayed with the factory arguments which were recorded with it,
+     * or with the arguments given to this method if the entry does not specify them.
+     *
+     * @param  profile         the file of codes to create, or {@code null} if none.
+     * @param  longitudeFirst  default argument to give to {@link #getAuthorityFactory(boolean)}.
+     * @param  lenient         default argument to give to {@link #getCoordinateOperationFactory(boolean)}.
+     * @return number of entries of the profile which have been created, when the warm-up is finished.
+     */
+    public static CompletableFuture<Integer> warmUp(final Path profile, final boolean longitudeFirst, final boolean lenient) {
+        final var result = new CompletableFuture<Integer>();
+        Thread.ofVirtual().name("GeoTools warm-up").start(() -> {
+            try {
+                result.complete(AccessProfile.replay(profile, longitudeFirst, lenient));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Starts recording the <abbr>CRS</abbr> codes and the pairs of <abbr>CRS</abbr> used by the application.
+     * Codes and pairs recorded by a previous recording are discarded.
+     *
+     * @see #writeProfile(Path)
+     */
+    public static void startRecording() {
+        AccessProfile.clear();
+        AccessProfile.recording = true;
+    }
+
+    /**
+     * Stops recording the codes and pairs used by the application.
+     * The codes and pairs recorded so far are kept until written.
+     */
+    public static void stopRecording() {
+        AccessProfile.recording = false;
+    }
+
+    /**
+     * Writes the <abbr>CRS</abbr> codes and the pairs of <abbr>CRS</abbr> recorded since the last call
+     * to {@link #startRecording()}. The file can be given to {@link #warmUp(Path, boolean, boolean)}
+     * on the next startup. Pairs are recorded only if both <abbr>CRS</abbr> have an identifier.
+     * The {@code longitudeFirst} and {@code lenient} arguments of the factories which created
+     * the objects are recorded with each entry when the factories are the default ones.
+     *
+     * @param  profile  the file where to write the profile.
+     * @throws IOException if an error occurred while writing the file.
+     */
+    public static void writeProfile(final Path profile) throws IOException {
+        AccessProfile.write(Objects.requireNonNull(profile, "profile"));
     }
 
     /**
@@ -85,75 +489,75 @@ public final class Services {
      * Note that GeoTools provides many <abbr>EPSG</abbr> factories with different axis order policy.
      * It provides also factories for other authorities and for different code syntax (e.g. <abbr>URN</abbr>).
      * This method returns these factories in no particular order.
+     * The providers are discovered on the first invocation, then the same instances are returned.
      */
     public static Iterable<CRSAuthorityFactory> loadCRSAuthorityFactories() {
-        return Wrapper.wrap(ServiceLoader.load(org.geotools.api.referencing.crs.CRSAuthorityFactory.class),
-                CRSAuthorityFactoryFromGT::wrap);
+        return CRS_AUTHORITY_FACTORIES.providers();
     }
 
     /**
      * {@return all <abbr>CS</abbr> authority factories registered by GeoTools}.
      * Note that GeoTools provides many <abbr>EPSG</abbr> factories with different axis order policy.
      * This method returns these factories in no particular order.
+     * The providers are discovered on the first invocation, then the same instances are returned.
      */
     public static Iterable<CSAuthorityFactory> loadCSAuthorityFactories() {
-        return Wrapper.wrap(ServiceLoader.load(org.geotools.api.referencing.cs.CSAuthorityFactory.class),
-                CSAuthorityFactoryFromGT::wrap);
+        return CS_AUTHORITY_FACTORIES.providers();
     }
 
     /**
      * {@return all datum authority factories registered by GeoTools}.
      * Note that GeoTools provides many factories for different authorities and code syntax (e.g. <abbr>URN</abbr>).
      * This method returns these factories in no particular order.
+     * The providers are discovered on the first invocation, then the same instances are returned.
      */
     public static Iterable<DatumAuthorityFactory> loadDatumAuthorityFactories() {
-        return Wrapper.wrap(ServiceLoader.load(org.geotools.api.referencing.datum.DatumAuthorityFactory.class),
-                DatumAuthorityFactoryFromGT::wrap);
+        return DATUM_AUTHORITY_FACTORIES.providers();
     }
 
     /**
      * {@return all coordinate operation authority factories registered by GeoTools}.
      * Note that GeoTools provides many factories for different code syntax (e.g. <abbr>URN</abbr>).
      * This method returns these factories in no particular order.
+     * The providers are discovered on the first invocation, then the same instances are returned.
      */
     public static Iterable<CoordinateOperationAuthorityFactory> loadCoordinateOperationAuthorityFactories() {
-        return Wrapper.wrap(ServiceLoader.load(org.geotools.api.referencing.operation.CoordinateOperationAuthorityFactory.class),
-                CoordinateOperationAuthorityFactoryFromGT::wrap);
+        return OPERATION_AUTHORITY_FACTORIES.providers();
     }
 
     /**
      * {@return all <abbr>CRS</abbr> object factories registered by GeoTools}.
      * This method returns these factories in no particular order.
+     * The providers are discovered on the first invocation, then the same instances are returned.
      */
     public static Iterable<CRSFactory> loadCRSFactories() {
-        return Wrapper.wrap(ServiceLoader.load(org.geotools.api.referencing.crs.CRSFactory.class),
-                CRSFactoryFromGT::wrap);
+        return CRS_FACTORIES.providers();
     }
 
     /**
      * {@return all <abbr>CS</abbr> object factories registered by GeoTools}.
      * This method returns these factories in no particular order.
+     * The providers are discovered on the first invocation, then the same instances are returned.
      */
     public static Iterable<CSFactory> loadCSFactories() {
-        return Wrapper.wrap(ServiceLoader.load(org.geotools.api.referencing.cs.CSFactory.class),
-                CSFactoryFromGT::wrap);
+        return CS_FACTORIES.providers();
     }
 
     /**
      * {@return all datum object factories registered by GeoTools}.
      * This method returns these factories in no particular order.
+     * The providers are discovered on the first invocation, then the same instances are returned.
      */
     public static Iterable<DatumFactory> loadDatumFactories() {
-        return Wrapper.wrap(ServiceLoader.load(org.geotools.api.referencing.datum.DatumFactory.class),
-                DatumFactoryFromGT::wrap);
+        return DATUM_FACTORIES.providers();
     }
 
     /**
      * {@return all coordinate operation object factories registered by GeoTools}.
      * This method returns these factories in no particular order.
+     * The providers are discovered on the first invocation, then the same instances are returned.
      */
     public static Iterable<CoordinateOperationFactory> loadCoordinateOperationFactories() {
-        return Wrapper.wrap(ServiceLoader.load(org.geotools.api.referencing.operation.CoordinateOperationFactory.class),
-                CoordinateOperationFactoryFromGT::wrap);
+        return OPERATION_FACTORIES.providers();
     }
 }
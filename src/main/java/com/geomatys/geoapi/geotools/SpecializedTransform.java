@@ -0,0 +1,106 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import org.opengis.geometry.DirectPosition;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.referencing.operation.TransformException;
+
+
+/**
+ * Template of wrappers specialized for a single class of GeoTools transforms.
+ * This class is never instantiated directly. Instead, {@link TransformSpecializer} defines a copy
+ * of this class as a hidden class for each concrete class of GeoTools transforms. Because each copy
+ * has its own profiling data, the calls to {@link #impl} in the methods below stay monomorphic and
+ * can be inlined by the compiler.
+ *
+ * <p>The method bodies are identical to the ones in the parent class. They are repeated on purpose,
+ * because only the code declared in this class is duplicated in the hidden classes.
+ * This class shall not contain lambda expressions or inner classes.</p>
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+final class SpecializedTransform extends MathTransformFromGT<org.geotools.api.referencing.operation.MathTransform> {
+    /**
+     * Creates a new wrapper for the given GeoTools implementation.
+     *
+     * @param impl the GeoTools implementation on which to delegate all methods
+     */
+    SpecializedTransform(final org.geotools.api.referencing.operation.MathTransform impl) {
+        super(impl);
+    }
+
+    @Override
+    public DirectPosition transform(final DirectPosition ptSrc, final DirectPosition ptDst)
+            throws MismatchedDimensionException, TransformException
+    {
+        try {
+            return DirectPositionFromGT.wrap(impl.transform(DirectPositionToGT.wrap(ptSrc), DirectPositionToGT.wrap(ptDst)));
+        } catch (org.geotools.api.geometry.MismatchedDimensionException e) {
+            throw new MismatchedDimensionException(e.getMessage(), e);
+        } catch (org.geotools.api.referencing.operation.TransformException e) {
+            throw new TransformException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void transform(double[] srcPts, int srcOff, double[] dstPts, int dstOff, int numPts) throws TransformException {
+        try {
+            impl.transform(srcPts, srcOff, dstPts, dstOff, numPts);
+        } catch (org.geotools.api.referencing.operation.TransformException e) {
+            throw new TransformException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void transform(float[] srcPts, int srcOff, float[] dstPts, int dstOff, int numPts) throws TransformException {
+        if (MixedPrecision.isChunked(impl, numPts)) {
+            MixedPrecision.transform(this, srcPts, srcOff, dstPts, dstOff, numPts);
+            return;
+        }
+        try {
+            impl.transform(srcPts, srcOff, dstPts, dstOff, numPts);
+        } catch (org.geotools.api.referencing.operation.TransformException e) {
+            throw new TransformException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void transform(float[] srcPts, int srcOff, double[] dstPts, int dstOff, int numPts) throws TransformException {
+        if (MixedPrecision.isChunked(impl, numPts)) {
+            MixedPrecision.transform(this, srcPts, srcOff, dstPts, dstOff, numPts);
+            return;
+        }
+        try {
+            impl.transform(srcPts, srcOff, dstPts, dstOff, numPts);
+        } catch (org.geotools.api.referencing.operation.TransformException e) {
+            throw new TransformException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void transform(double[] srcPts, int srcOff, float[] dstPts, int dstOff, int numPts) throws TransformException {
+        if (MixedPrecision.isChunked(impl, numPts)) {
+            MixedPrecision.transform(this, srcPts, srcOff, dstPts, dstOff, numPts);
+            return;
+        }
+        try {
+            impl.transform(srcPts, srcOff, dstPts, dstOff, numPts);
+        } catch (org.geotools.api.referencing.operation.TransformException e) {
+            throw new TransformException(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import org.opengis.referencing.operation.TransformException;
+
+
+/**
+ * Template of wrappers specialized for a single class of one-dimensional GeoTools transforms.
+ * See {@link SpecializedTransform} for an explanation about how this class is used.
+ * This class shall not contain lambda expressions or inner classes.
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+final class SpecializedTransform1D extends MathTransform1DFromGT {
+    /**
+     * Creates a new wrapper for the given GeoTools implementation.
+     *
+     * @param impl the GeoTools implementation on which to delegate all methods
+     */
+    SpecializedTransform1D(final org.geotools.api.referencing.operation.MathTransform1D impl) {
+        super(impl);
+    }
+
+    @Override
+    public double transform(double value) throws TransformException {
+        try {
+            return impl.transform(value);
+        } catch (org.geotools.api.referencing.operation.TransformException e) {
+            throw new TransformException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public double derivative(double value) throws TransformException {
+        try {
+            return impl.derivative(value);
+        } catch (org.geotools.api.referencing.operation.TransformException e) {
+            throw new TransformException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void transform(double[] srcPts, int srcOff, double[] dstPts, int dstOff, int numPts) throws TransformException {
+        try {
+            impl.transform(srcPts, srcOff, dstPts, dstOff, numPts);
+        } catch (org.geotools.api.referencing.operation.TransformException e) {
+            throw new TransformException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void transform(float[] srcPts, int srcOff, float[] dstPts, int dstOff, int numPts) throws TransformException {
+        if (MixedPrecision.isChunked(impl, numPts)) {
+            MixedPrecision.transform(this, srcPts, srcOff, dstPts, dstOff, numPts);
+            return;
+        }
+        try {
+            impl.transform(srcPts, srcOff, dstPts, dstOff, numPts);
+        } catch (org.geotools.api.referencing.operation.TransformException e) {
+            throw new TransformException(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import org.opengis.referencing.operation.MathTransform;
+
+
+/**
+ * Creates wrappers specialized for the concrete class of the wrapped GeoTools transform.
+ * For each concrete class, the bytecode of a template ({@link SpecializedTransform} or a variant)
+ * is defined again as a hidden class. The hidden classes share the same code but not the same
+ * profiling data, so the JIT compiler sees monomorphic calls from each wrapper to the GeoTools
+ * implementation.
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+final class TransformSpecializer extends ClassValue<MethodHandle> {
+    /**
+     * The unique instance. Hidden classes are created when first needed and cached for the lifetime
+     * of the GeoTools transform class (a hidden class does not prevent the unloading of that class).
+     */
+    static final TransformSpecializer INSTANCE = new TransformSpecializer();
+
+    /**
+     * The type of the method handles returned by {@link #computeValue(Class)}.
+     */
+    private static final MethodType FACTORY_TYPE = MethodType.methodType(
+            MathTransform.class, org.geotools.api.referencing.operation.MathTransform.class);
+
+    /**
+     * Creates the unique instance.
+     */
+    private TransformSpecializer() {
+    }
+
+    /**
+     * Returns a wrapper specialized for the class of the transform wrapped by the given object.
+     * If the given transform is not a wrapper around a GeoTools transform, or if it is already
+     * specialized, then it is returned unchanged.
+     *
+     * @param  transform  the transform to specialize.
+     * @return the specialized transform.
+     */
+    static MathTransform specialize(final MathTransform transform) {
+        if (transform instanceof MathTransformFromGT<?> wrapper && !wrapper.getClass().isHidden()) {
+            final org.geotools.api.referencing.operation.MathTransform impl = wrapper.impl;
+            try {
+                return (MathTransform) INSTANCE.get(impl.getClass()).invokeExact(impl);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);   // Should never happen since constructors do not throw.
+            }
+        }
+        return transform;
+    }
+
+    /**
+     * Defines a hidden class for the given class of GeoTools transforms and returns its constructor.
+     *
+     * @param  type  the concrete class of a GeoTools transform.
+     * @return constructor of the specialized wrapper, with the {@link #FACTORY_TYPE} signature.
+     */
+    @Override
+    protected MethodHandle computeValue(final Class<?> type) {
+        final Class<?> template, parameter;
+        if (org.geotools.api.referencing.operation.MathTransform1D.class.isAssignableFrom(type)) {
+            template  = SpecializedTransform1D.class;
+            parameter = org.geotools.api.referencing.operation.MathTransform1D.class;
+        } else if (org.geotools.api.referencing.operation.MathTransform2D.class.isAssignableFrom(type)) {
+            template  = SpecializedTransform2D.class;
+            parameter = org.geotools.api.referencing.operation.MathTransform2D.class;
+        } else {
+            template  = SpecializedTransform.class;
+            parameter = org.geotools.api.referencing.operation.MathTransform.class;
+        }
+        final byte[] bytecode;
+        try (InputStream in = template.getResourceAsStream(template.getSimpleName() + ".class")) {
+            if (in == null) {
+                throw new IllegalStateException("Bytecode of " + template + " not found.");
+            }
+            bytecode = in.readAllBytes();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytecode, true);
+            return lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class, parameter))
+                         .asType(FACTORY_TYPE);
+        } catch (IllegalAccessException | NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
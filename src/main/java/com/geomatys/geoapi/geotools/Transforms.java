@@ -0,0 +1,56 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import org.opengis.referencing.operation.MathTransform;
+
+
+/**
+ * Static methods working on transforms wrapped by this package.
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+public final class Transforms {
+    /**
+     * Do not allow instantiation of this class.
+     */
+    private Transforms() {
+    }
+
+    /**
+     * Returns a wrapper specialized for the class of the GeoTools transform wrapped by the given object.
+     * By default, all GeoTools transforms are wrapped by the same few classes. Consequently, when many
+     * kinds of transforms are used, the calls from the wrapper to GeoTools are megamorphic and cannot
+     * be inlined by the <abbr>JIT</abbr> compiler. The specialized wrapper is an instance of a hidden
+     * class generated for the concrete class of the GeoTools transform, which keeps those calls monomorphic.
+     *
+     * <p>Specialization is beneficial when each call site in the application uses a few kinds of transforms.
+     * It may be counter-productive if a single call site uses many different specialized wrappers, because
+     * the megamorphic call is then moved from the wrapper to the application.</p>
+     *
+     * <p>The returned transform is functionally equivalent to the given one, implements the same
+     * interfaces among {@code MathTransform}, {@code MathTransform1D} and {@code MathTransform2D},
+     * and is unwrapped by {@link Wrappers#geotools(MathTransform)} in the same way. However, it is not
+     * {@linkplain Object#equals(Object) equal} to the given transform because it is an instance of another class.
+     * If the given transform is not a view of a GeoTools transform, it is returned unchanged.</p>
+     *
+     * @param  transform  the transform to specialize, or {@code null}.
+     * @return the specialized transform, or {@code null} if the given transform was null.
+     */
+    public static MathTransform specialize(final MathTransform transform) {
+        return TransformSpecializer.specialize(transform);
+    }
+}
@@ -0,0 +1,349 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import org.opengis.metadata.extent.Extent;
+import org.opengis.metadata.extent.GeographicBoundingBox;
+import org.opengis.metadata.extent.GeographicExtent;
+import org.opengis.referencing.AuthorityFactory;
+import org.opengis.referencing.IdentifiedObject;
+import org.opengis.referencing.ReferenceSystem;
+import org.opengis.referencing.crs.CRSAuthorityFactory;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.datum.Datum;
+import org.opengis.referencing.operation.CoordinateOperation;
+import org.opengis.referencing.operation.CoordinateOperationAuthorityFactory;
+import org.opengis.util.FactoryException;
+
+
+/**
+ * A spatial index over the geographic domains of validity of authority objects.
+ * This index is useful for suggesting the <abbr>CRS</abbr> valid at a location,
+ * or for selecting among candidate coordinate operations, without fetching the extent of each candidate.
+ * The index is a R-tree packed with the Sort-Tile-Recursive (<abbr>STR</abbr>) algorithm,
+ * so point and box queries take a time logarithmic in the number of domains.
+ *
+ * <p>Coordinates are longitudes and latitudes in degrees. Bounding boxes crossing the anti-meridian,
+ * which have a west bound longitude greater than the east bound longitude, are supported in both the
+ * indexed domains and the queries. Query results are sorted by increasing area of the domain,
+ * so the most local objects are first.</p>
+ *
+ * <p>Instances of this class are immutable and thread-safe.</p>
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+public final class ValidityIndex {
+    /**
+     * Maximal number of children of a node of the tree.
+     */
+    private static final int CAPACITY = 16;
+
+    /**
+     * The indexed codes, sorted by increasing area of their domain.
+     */
+    private final String[] codes;
+
+    /**
+     * The levels of the tree, from the leaves to the root. Each node has 4 values in the {@code bounds} array,
+     * in (west, east, south, north) order. The leaves are the bounding boxes, and the value in {@code children}
+     * is the index of the code. For other levels, the children of node <var>i</var> are the nodes from
+     * {@code children[2*i]} inclusive to {@code children[2*i+1]} exclusive in the previous level.
+     *
+     * @param  bounds    the bounding boxes of the nodes.
+     * @param  children  the index of the code for the leaves, or the range of the children for other nodes.
+     */
+    private record Level(double[] bounds, int[] children) {
+    }
+
+    /**
+     * The levels of the tree, from the leaves to the root.
+     */
+    private final Level[] levels;
+
+    /**
+     * Creates an index for the given domains.
+     *
+     * @param  domains  the bounding boxes of each code, as (west, east, south, north) tuples.
+     */
+    ValidityIndex(final Map<String, double[]> domains) {
+        final var sorted = new ArrayList<Map.Entry<String, double[]>>();
+        for (final Map.Entry<String, double[]> entry : domains.entrySet()) {
+            if (entry.getValue().length != 0) {
+                sorted.add(entry);
+            }
+        }
+        sorted.sort(Comparator.comparingDouble((Map.Entry<String, double[]> e) -> area(e.getValue()))
+                              .thenComparing(Map.Entry::getKey));
+        codes = new String[sorted.size()];
+        double[] bounds   = new double[0];
+        int[]    children = new int[0];
+        int count = 0;
+        for (int i=0; i<codes.length; i++) {
+            final Map.Entry<String, double[]> entry = sorted.get(i);
+            codes[i] = entry.getKey();
+            final double[] boxes = split(entry.getValue());
+            final int n = boxes.length / 4;
+            if (count + n > children.length) {
+                final int capacity = Math.max(count + n, children.length * 2);
+                bounds   = Arrays.copyOf(bounds, capacity * 4);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(boxes, 0, bounds, count * 4, boxes.length);
+            Arrays.fill(children, count, count + n, i);
+            count += n;
+        }
+        final var list = new ArrayList<Level>();
+        Level level = sort(new Level(Arrays.copyOf(bounds, count * 4), Arrays.copyOf(children, count)), 1);
+        list.add(level);
+        while (level.bounds().length > CAPACITY * 4) {
+            level = sort(parents(level), 2);
+            list.add(level);
+        }
+        levels = list.toArray(Level[]::new);
+    }
+
+    /**
+     * Builds an index of the domains of validity of all objects of the given type in the given factory.
+     * The objects are created in parallel by {@link BulkCreation}. The objects that cannot be created
+     * or that have no geographic bounding box are not indexed.
+     *
+     * @param  factory   the factory of the objects to index.
+     * @param  type      the type of objects to index, for example {@code CoordinateReferenceSystem.class}.
+     * @param  listener  where to report progress, or {@code null} if none.
+     * @return index of the domains of validity of the given objects.
+     * @throws FactoryException if the authority codes cannot be obtained.
+     * @throws InterruptedException if the current thread has been interrupted while building the index.
+     */
+    public static ValidityIndex build(final AuthorityFactory factory, final Class<? extends IdentifiedObject> type,
+                                      final BulkCreation.ProgressListener listener)
+            throws FactoryException, InterruptedException
+    {
+        final BulkCreation.Creator<IdentifiedObject> creator;
+        if (factory instanceof CRSAuthorityFactory f && CoordinateReferenceSystem.class.isAssignableFrom(type)) {
+            creator = f::createCoordinateReferenceSystem;
+        } else if (factory instanceof CoordinateOperationAuthorityFactory f && CoordinateOperation.class.isAssignableFrom(type)) {
+            creator = f::createCoordinateOperation;
+        } else {
+            creator = factory::createObject;
+        }
+        final var result = BulkCreation.create(factory.getAuthorityCodes(type), (code) -> boxes(creator.create(code)), listener);
+        return new ValidityIndex(result.objects());
+    }
+
+    /**
+     * Returns the geographic bounding boxes of the domain of validity of the given object.
+     *
+     * @param  object  the object for which to get the domain of validity.
+     * @return the (west, east, south, north) tuples of the bounding boxes, or an empty array if none.
+     */
+    private static double[] boxes(final IdentifiedObject object) {
+        final Extent extent;
+        if (object instanceof ReferenceSystem r) {
+            extent = r.getDomainOfValidity();
+        } else if (object instanceof CoordinateOperation r) {
+            extent = r.getDomainOfValidity();
+        } else if (object instanceof Datum r) {
+            extent = r.getDomainOfValidity();
+        } else {
+            extent = null;
+        }
+        double[] boxes = new double[0];
+        if (extent != null) {
+            for (final GeographicExtent element : extent.getGeographicElements()) {
+                if (element instanceof GeographicBoundingBox box && !Boolean.FALSE.equals(box.getInclusion())) {
+                    final int n = boxes.length;
+                    boxes = Arrays.copyOf(boxes, n + 4);
+                    boxes[n  ] = box.getWestBoundLongitude();
+                    boxes[n+1] = box.getEastBoundLongitude();
+                    boxes[n+2] = box.getSouthBoundLatitude();
+                    boxes[n+3] = box.getNorthBoundLatitude();
+                }
+            }
+        }
+        return boxes;
+    }
+
+    /**
+     * Splits the bounding boxes crossing the anti-meridian in two boxes, one on each side.
+     *
+     * @param  boxes  (west, east, south, north) tuples.
+     * @return the boxes with west bound longitudes not greater than east bound longitudes.
+     */
+    private static double[] split(final double[] boxes) {
+        final var result = new double[boxes.length * 2];
+        int n = 0;
+        for (int i=0; i<boxes.length; i += 4) {
+            final double west = boxes[i], east = boxes[i+1], south = boxes[i+2], north = boxes[i+3];
+            if (west > east) {
+                result[n++] = west; result[n++] = 180;  result[n++] = south; result[n++] = north;
+                result[n++] = -180; result[n++] = east; result[n++] = south; result[n++] = north;
+            } else {
+                result[n++] = west; result[n++] = east; result[n++] = south; result[n++] = north;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    /**
+     * Returns the sum of the areas of the given bounding boxes, in square degrees.
+     */
+    private static double area(final double[] boxes) {
+        final double[] split = split(boxes);
+        double area = 0;
+        for (int i=0; i<split.length; i += 4) {
+            area += (split[i+1] - split[i]) * (split[i+3] - split[i+2]);
+        }
+        return area;
+    }
+
+    /**
+     * Reorders the nodes of the given level with the Sort-Tile-Recursive algorithm: the nodes are sorted
+     * by the longitude of their center, divided in vertical slices, then sorted by latitude in each slice.
+     * Consecutive groups of {@value #CAPACITY} nodes are then spatially close to each other.
+     *
+     * @param  level   the level to sort.
+     * @param  stride  number of values per node in the {@code children} array.
+     * @return the sorted level.
+     */
+    private static Level sort(final Level level, final int stride) {
+        final double[] bounds = level.bounds();
+        final int count = bounds.length / 4;
+        final Integer[] order = new Integer[count];
+        for (int i=0; i<count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble((i) -> bounds[i*4] + bounds[i*4 + 1]));
+        final int groups = (count + CAPACITY - 1) / CAPACITY;
+        final int slice  = (int) Math.ceil(Math.sqrt(groups)) * CAPACITY;
+        for (int start = 0; start < count; start += slice) {
+            Arrays.sort(order, start, Math.min(start + slice, count),
+                        Comparator.comparingDouble((i) -> bounds[i*4 + 2] + bounds[i*4 + 3]));
+        }
+        final double[] sortedBounds   = new double[bounds.length];
+        final int[]    sortedChildren = new int[level.children().length];
+        for (int i=0; i<count; i++) {
+            final int j = order[i];
+            System.arraycopy(bounds, j*4, sortedBounds, i*4, 4);
+            System.arraycopy(level.children(), j*stride, sortedChildren, i*stride, stride);
+        }
+        return new Level(sortedBounds, sortedChildren);
+    }
+
+    /**
+     * Creates the parent level of the given level. Each parent has up to {@value #CAPACITY} consecutive children.
+     *
+     * @param  level  the level for which to create the parents.
+     * @return the parent level.
+     */
+    private static Level parents(final Level level) {
+        final double[] bounds = level.bounds();
+        final int count  = bounds.length / 4;
+        final int groups = (count + CAPACITY - 1) / CAPACITY;
+        final double[] parentBounds   = new double[groups * 4];
+        final int[]    parentChildren = new int[groups * 2];
+        for (int g=0; g<groups; g++) {
+            final int start = g * CAPACITY;
+            final int end   = Math.min(start + CAPACITY, count);
+            double west = Double.POSITIVE_INFINITY, east  = Double.NEGATIVE_INFINITY;
+            double south = Double.POSITIVE_INFINITY, north = Double.NEGATIVE_INFINITY;
+            for (int i=start; i<end; i++) {
+                west  = Math.min(west,  bounds[i*4]);
+                east  = Math.max(east,  bounds[i*4 + 1]);
+                south = Math.min(south, bounds[i*4 + 2]);
+                north = Math.max(north, bounds[i*4 + 3]);
+            }
+            parentBounds[g*4]     = west;
+            parentBounds[g*4 + 1] = east;
+            parentBounds[g*4 + 2] = south;
+            parentBounds[g*4 + 3] = north;
+            parentChildren[g*2]     = start;
+            parentChildren[g*2 + 1] = end;
+        }
+        return new Level(parentBounds, parentChildren);
+    }
+
+    /**
+     * {@return the number of indexed codes}.
+     */
+    public int size() {
+        return codes.length;
+    }
+
+    /**
+     * Returns the codes of the objects valid at the given location.
+     *
+     * @param  longitude  longitude of the location, in degrees. Values outside the [-180 … 180]° range are wrapped.
+     * @param  latitude   latitude of the location, in degrees.
+     * @return codes of the objects whose domain contains the given location, smallest domains first.
+     */
+    public List<String> containing(double longitude, final double latitude) {
+        if (longitude < -180 || longitude > 180) {
+            longitude -= 360 * Math.floor((longitude + 180) / 360);
+        }
+        return intersecting(longitude, longitude, latitude, latitude);
+    }
+
+    /**
+     * Returns the codes of the objects having a domain which intersects the given bounding box.
+     * If the west bound longitude is greater than the east bound longitude, then the box crosses the anti-meridian.
+     *
+     * @param  west   the west bound longitude, in degrees.
+     * @param  east   the east bound longitude, in degrees.
+     * @param  south  the south bound latitude, in degrees.
+     * @param  north  the north bound latitude, in degrees.
+     * @return codes of the objects whose domain intersects the given box, smallest domains first.
+     */
+    public List<String> intersecting(final double west, final double east, final double south, final double north) {
+        final var found = new BitSet(codes.length);
+        final double[] boxes = split(new double[] {west, east, south, north});
+        final int depth = levels.length - 1;
+        for (int i=0; i<boxes.length; i += 4) {
+            search(depth, 0, levels[depth].bounds().length / 4, boxes[i], boxes[i+1], boxes[i+2], boxes[i+3], found);
+        }
+        final var result = new ArrayList<String>(found.cardinality());
+        for (int i = found.nextSetBit(0); i >= 0; i = found.nextSetBit(i + 1)) {
+            result.add(codes[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Searches the codes whose domain intersects the given box in the given range of nodes of the given level.
+     */
+    private void search(final int depth, final int start, final int end,
+                        final double west, final double east, final double south, final double north,
+                        final BitSet found)
+    {
+        final Level level = levels[depth];
+        final double[] bounds = level.bounds();
+        final int[] children = level.children();
+        for (int i=start; i<end; i++) {
+            if (bounds[i*4] <= east && bounds[i*4 + 1] >= west && bounds[i*4 + 2] <= north && bounds[i*4 + 3] >= south) {
+                if (depth == 0) {
+                    found.set(children[i]);
+                } else {
+                    search(depth - 1, children[i*2], children[i*2 + 1], west, east, south, north, found);
+                }
+            }
+        }
+    }
+}
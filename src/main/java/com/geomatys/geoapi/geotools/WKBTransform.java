@@ -0,0 +1,287 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
+import java.util.Objects;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
+
+
+/**
+ * Transforms the coordinates of geometries encoded in Well-Known Binary (<abbr>WKB</abbr>) format.
+ * The <abbr>WKB</abbr> structure is walked without decoding the geometries into objects, and each
+ * run of coordinate tuples (a point, a line string or a polygon ring) is transformed in batch
+ * directly from the source buffer to the target buffer, which may be the same buffer.
+ * The structure of the geometry is unchanged: only the coordinate values are modified.
+ *
+ * <p>Both byte orders are supported, including geometries mixing different byte orders in their components.
+ * The geometry types are the ones of ISO 19125 (point, line string, polygon, triangle, multi-geometries,
+ * collections, polyhedral surfaces and <abbr>TIN</abbr>s) and the curves of ISO 13249-3.
+ * The <var>z</var> and <var>m</var> dimensions can be declared either in the ISO way
+ * (type code + 1000, 2000 or 3000) or in the "extended <abbr>WKB</abbr>" way (high bits of the
+ * type code), in which case an optional <abbr>SRID</abbr> is also accepted and copied unchanged.</p>
+ *
+ * <p>The transform is applied on the (<var>x</var>,<var>y</var>) coordinates if it is two-dimensional,
+ * or on the (<var>x</var>,<var>y</var>,<var>z</var>) coordinates if it is three-dimensional.
+ * Other coordinates, such as <var>m</var> values, are copied unchanged.</p>
+ *
+ * <p>Instances of this class are immutable and thread-safe if the transform is thread-safe.</p>
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+public final class WKBTransform {
+    /**
+     * Bits of an extended <abbr>WKB</abbr> type code telling
+     * whether the geometry has <var>z</var>, <var>m</var> or <abbr>SRID</abbr>.
+     */
+    private static final int EWKB_Z = 0x80000000, EWKB_M = 0x40000000, EWKB_SRID = 0x20000000;
+
+    /**
+     * The transform to apply on coordinate values.
+     */
+    private final MathTransform transform;
+
+    /**
+     * Number of source and target dimensions of the transform. This is 2 or 3.
+     */
+    private final int dimension;
+
+    /**
+     * Creates a new <abbr>WKB</abbr> transform.
+     *
+     * @param  transform  the transform to apply on coordinate values.
+     * @throws MismatchedDimensionException if the transform is not two- or three-dimensional,
+     *         or if its number of source and target dimensions differ.
+     */
+    public WKBTransform(final MathTransform transform) {
+        Objects.requireNonNull(transform, "transform");
+        dimension = transform.getSourceDimensions();
+        if (dimension < 2 || dimension > 3 || transform.getTargetDimensions() != dimension) {
+            throw new MismatchedDimensionException("Expected a transform from 2 to 2 or from 3 to 3 dimensions but got "
+                    + dimension + " to " + transform.getTargetDimensions() + " dimensions.");
+        }
+        this.transform = transform;
+    }
+
+    /**
+     * Transforms in-place the geometry encoded in the given array.
+     *
+     * @param  wkb  the geometry to transform.
+     * @throws IllegalArgumentException if the geometry is malformed or of an unsupported type.
+     * @throws TransformException if some coordinates cannot be transformed.
+     */
+    public void transform(final byte[] wkb) throws TransformException {
+        transform(ByteBuffer.wrap(wkb));
+    }
+
+    /**
+     * Transforms in-place the geometry starting at the position of the given buffer.
+     * On return, the buffer position is after the end of the geometry.
+     *
+     * @param  wkb  the geometry to transform.
+     * @throws IllegalArgumentException if the geometry is malformed or of an unsupported type.
+     * @throws ReadOnlyBufferException if the given buffer is read-only.
+     * @throws TransformException if some coordinates cannot be transformed.
+     */
+    public void transform(final ByteBuffer wkb) throws TransformException {
+        transform(wkb, wkb);
+    }
+
+    /**
+     * Transforms the geometry starting at the position of the source buffer and writes the result
+     * at the position of the target buffer. The two buffers may be the same, in which case the
+     * geometry is transformed in-place. On return, the positions of both buffers are after the
+     * end of the geometry. The byte order of the buffers is ignored and left unchanged, since
+     * <abbr>WKB</abbr> geometries declare their own byte order.
+     *
+     * @param  source  the geometry to transform.
+     * @param  target  the buffer where to write the transformed geometry.
+     * @throws IllegalArgumentException if the geometry is malformed or of an unsupported type.
+     * @throws IndexOutOfBoundsException if the target buffer does not have enough remaining space.
+     * @throws ReadOnlyBufferException if the target buffer is read-only.
+     * @throws TransformException if some coordinates cannot be transformed.
+     */
+    public void transform(final ByteBuffer source, final ByteBuffer target) throws TransformException {
+        if (target.isReadOnly()) {
+            throw new ReadOnlyBufferException();
+        }
+        final ByteBuffer src = source.duplicate();
+        final ByteBuffer dst = (target == source) ? src : target.duplicate();
+        final int start = source.position();
+        final int delta = target.position() - start;
+        final double[] buffer = MixedPrecision.acquire(dimension);
+        final int end;
+        try {
+            end = geometry(src, dst, delta, start, buffer);
+        } finally {
+            MixedPrecision.release(buffer);
+        }
+        source.position(end);
+        target.position(end + delta);
+    }
+
+    /**
+     * Copies bytes from the source to the target, unless the transformation is done in-place.
+     */
+    private static void copy(final ByteBuffer src, final ByteBuffer dst, final int delta, final int p, final int length) {
+        if (src != dst) {
+            dst.put(p + delta, src, p, length);
+        }
+    }
+
+    /**
+     * Reads the number of elements (points, rings or geometries) at the given position.
+     */
+    private static int count(final ByteBuffer src, final ByteBuffer dst, final int delta, final int p) {
+        final int n = src.getInt(p);
+        if (n < 0) {
+            throw new IllegalArgumentException("Invalid number of elements at offset " + p + '.');
+        }
+        copy(src, dst, delta, p, Integer.BYTES);
+        return n;
+    }
+
+    /**
+     * Transforms the geometry starting at the given position, including all its components.
+     *
+     * @param  src     the buffer from which to read the geometry.
+     * @param  dst     the buffer where to write the geometry. May be the same as {@code src}.
+     * @param  delta   difference between the positions in the target and source buffers.
+     * @param  p       position of the first byte of the geometry in the source buffer.
+     * @param  buffer  temporary buffer for the coordinates to transform.
+     * @return position after the end of the geometry in the source buffer.
+     */
+    private int geometry(final ByteBuffer src, final ByteBuffer dst, final int delta, int p, final double[] buffer)
+            throws TransformException
+    {
+        final ByteOrder order;
+        switch (src.get(p)) {
+            case 0:  order = ByteOrder.BIG_ENDIAN;    break;
+            case 1:  order = ByteOrder.LITTLE_ENDIAN; break;
+            default: throw new IllegalArgumentException("Invalid byte order mark at offset " + p + '.');
+        }
+        src.order(order);
+        dst.order(order);
+        int type = src.getInt(p + 1);
+        int headerLength = Byte.BYTES + Integer.BYTES;
+        final boolean hasZ, hasM;
+        if ((type & (EWKB_Z | EWKB_M | EWKB_SRID)) != 0) {
+            hasZ = (type & EWKB_Z) != 0;
+            hasM = (type & EWKB_M) != 0;
+            if ((type & EWKB_SRID) != 0) {
+                headerLength += Integer.BYTES;
+            }
+            type &= ~(EWKB_Z | EWKB_M | EWKB_SRID);
+        } else {
+            final int flavor = type / 1000;         // 1 for Z, 2 for M, 3 for ZM.
+            hasZ = (flavor & 1) != 0;
+            hasM = (flavor & 2) != 0;
+            type %= 1000;
+        }
+        if (dimension == 3 && !hasZ) {
+            throw new IllegalArgumentException("Geometry at offset " + p + " has no z coordinate.");
+        }
+        copy(src, dst, delta, p, headerLength);
+        p += headerLength;
+        final int tupleLength = (2 + (hasZ ? 1 : 0) + (hasM ? 1 : 0)) * Double.BYTES;
+        switch (type) {
+            case 1: {                                       // Point
+                if (Double.isNaN(src.getDouble(p)) && Double.isNaN(src.getDouble(p + Double.BYTES))) {
+                    copy(src, dst, delta, p, tupleLength);  // Empty point.
+                    return p + tupleLength;
+                }
+                return coordinates(src, dst, delta, p, 1, tupleLength, buffer);
+            }
+            case 2: case 8: {                               // LineString, CircularString
+                final int n = count(src, dst, delta, p);
+                return coordinates(src, dst, delta, p + Integer.BYTES, n, tupleLength, buffer);
+            }
+            case 3: case 17: {                              // Polygon, Triangle
+                final int n = count(src, dst, delta, p);
+                p += Integer.BYTES;
+                for (int i=0; i<n; i++) {
+                    final int numPts = count(src, dst, delta, p);
+                    p = coordinates(src, dst, delta, p + Integer.BYTES, numPts, tupleLength, buffer);
+                }
+                return p;
+            }
+            case 4: case 5: case 6: case 7:                 // Multi-geometries and GeometryCollection
+            case 9: case 10: case 11: case 12:              // CompoundCurve, CurvePolygon, MultiCurve, MultiSurface
+            case 15: case 16: {                             // PolyhedralSurface, TIN
+                final int n = count(src, dst, delta, p);
+                p += Integer.BYTES;
+                for (int i=0; i<n; i++) {
+                    p = geometry(src, dst, delta, p, buffer);
+                }
+                return p;
+            }
+            default: {
+                throw new IllegalArgumentException("Unsupported WKB geometry type " + type
+                        + " at offset " + (p - headerLength) + '.');
+            }
+        }
+    }
+
+    /**
+     * Transforms a run of coordinate tuples. The coordinates are copied by chunks in the temporary buffer,
+     * transformed in a single call for each chunk, then written in the target buffer. Coordinates not used
+     * by the transform (for example <var>m</var> values) are copied unchanged.
+     *
+     * @param  src          the buffer from which to read the coordinates.
+     * @param  dst          the buffer where to write the coordinates. May be the same as {@code src}.
+     * @param  delta        difference between the positions in the target and source buffers.
+     * @param  p            position of the first coordinate in the source buffer.
+     * @param  numPts       number of coordinate tuples to transform.
+     * @param  tupleLength  number of bytes in each coordinate tuple.
+     * @param  buffer       temporary buffer for the coordinates to transform.
+     * @return position after the last coordinate tuple in the source buffer.
+     */
+    private int coordinates(final ByteBuffer src, final ByteBuffer dst, final int delta, int p, int numPts,
+                            final int tupleLength, final double[] buffer) throws TransformException
+    {
+        if ((long) numPts * tupleLength > src.limit() - p) {
+            throw new IllegalArgumentException("Truncated WKB: " + numPts + " points declared at offset " + p + '.');
+        }
+        copy(src, dst, delta, p, numPts * tupleLength);
+        final int chunk = buffer.length / dimension;
+        while (numPts > 0) {
+            final int n = Math.min(chunk, numPts);
+            int q = p, j = 0;
+            for (int i=0; i<n; i++) {
+                for (int k=0; k<dimension; k++) {
+                    buffer[j++] = src.getDouble(q + k * Double.BYTES);
+                }
+                q += tupleLength;
+            }
+            transform.transform(buffer, 0, buffer, 0, n);
+            q = p + delta;
+            j = 0;
+            for (int i=0; i<n; i++) {
+                for (int k=0; k<dimension; k++) {
+                    dst.putDouble(q + k * Double.BYTES, buffer[j++]);
+                }
+                q += tupleLength;
+            }
+            p += n * tupleLength;
+            numPts -= n;
+        }
+        return p;
+    }
+}
@@ -15,6 +15,7 @@
  */
 package com.geomatys.geoapi.geotools.spi;
 
+import java.util.Optional;
 import java.util.Set;
 import org.opengis.util.FactoryException;
 import org.opengis.util.InternationalString;
@@ -31,6 +32,7 @@ import org.opengis.referencing.crs.ImageCRS;
 import org.opengis.referencing.crs.ProjectedCRS;
 import org.opengis.referencing.crs.TemporalCRS;
 import org.opengis.referencing.crs.VerticalCRS;
+import com.geomatys.geoapi.geotools.CacheStatistics;
 import com.geomatys.geoapi.geotools.Services;
 
 
@@ -68,6 +70,17 @@ public class AuthorityFactoryProxy implements CRSAuthorityFactory {
         return Services.getAuthorityFactory(false);
     }
 
+    /**
+     * {@return the statistics of the cache of objects created by this factory}.
+     * The objects created by the GeoTools factory are cached by the factory where this proxy delegates its work,
+     * so repeated requests for the same code return the same instance.
+     *
+     * @see Services#setCachePolicy(com.geomatys.geoapi.geotools.CachePolicy)
+     */
+    public Optional<CacheStatistics> getCacheStatistics() {
+        return Services.getCacheStatistics(factory);
+    }
+
     @Override
     public Citation getVendor() {
         return factory.getVendor();
@@ -0,0 +1,131 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import org.opengis.referencing.crs.CRSAuthorityFactory;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.CoordinateOperation;
+import org.opengis.referencing.operation.CoordinateOperationFactory;
+import org.opengis.util.FactoryException;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Tests {@link AsyncFactory}.
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+public class AsyncFactoryTest {
+    /**
+     * Creates a new test case.
+     */
+    public AsyncFactoryTest() {
+    }
+
+    /**
+     * Creates a dummy implementation of the given interface where all methods throw an exception.
+     */
+    private static <T> T unsupported(final Class<T> type) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            throw new UnsupportedOperationException(method.getName());
+        }));
+    }
+
+    /**
+     * Tests that cancelling a creation completes the future of the caller without interrupting
+     * the thread which is creating the object, since that creation may be shared with other callers.
+     *
+     * @throws InterruptedException if the test has been interrupted.
+     */
+    @Test
+    public void testCancellation() throws InterruptedException {
+        final var started     = new CountDownLatch(1);
+        final var release     = new CountDownLatch(1);
+        final var interrupted = new CompletableFuture<Boolean>();
+        final CoordinateReferenceSystem crs = unsupported(CoordinateReferenceSystem.class);
+        final var crsFactory  = (CRSAuthorityFactory) Proxy.newProxyInstance(CRSAuthorityFactory.class.getClassLoader(),
+                new Class<?>[] {CRSAuthorityFactory.class}, (proxy, method, args) -> {
+                    started.countDown();
+                    try {
+                        release.await();
+                        interrupted.complete(Boolean.FALSE);
+                    } catch (InterruptedException e) {
+                        interrupted.complete(Boolean.TRUE);
+                    }
+                    return crs;
+                });
+        final var factory = new AsyncFactory(crsFactory, unsupported(CoordinateOperationFactory.class));
+        final CompletableFuture<CoordinateReferenceSystem> task = factory.createCoordinateReferenceSystemAsync("EPSG:4326");
+        started.await();
+        assertTrue(task.cancel(true));
+        assertThrows(CancellationException.class, task::join);
+        release.countDown();
+        assertFalse(interrupted.join());
+    }
+
+    /**
+     * Tests the creation of an operation from authority codes.
+     * Verifies that the <abbr>CRS</abbr> are already cached on the second request.
+     *
+     * @throws FactoryException if the factories cannot be obtained.
+     */
+    @Test
+    public void testCreateOperation() throws FactoryException {
+        final var factory = new AsyncFactory(Services.getAuthorityFactory(true), Services.getCoordinateOperationFactory(true));
+        final CoordinateOperation operation = factory.createOperationAsync("EPSG:4326", "EPSG:3395").join();
+        assertNotNull(operation.getMathTransform());
+        final CompletableFuture<CoordinateReferenceSystem> source = factory.createCoordinateReferenceSystemAsync("EPSG:4326");
+        assertTrue(source.isDone());
+        assertSame(Services.getAuthorityFactory(true).createCoordinateReferenceSystem("EPSG:4326"), source.join());
+    }
+
+    /**
+     * Creates an authority factory which returns the given <abbr>CRS</abbr> after the given delay.
+     */
+    private static CRSAuthorityFactory slow(final CoordinateReferenceSystem crs, final long delay) {
+        return (CRSAuthorityFactory) Proxy.newProxyInstance(CRSAuthorityFactory.class.getClassLoader(),
+                new Class<?>[] {CRSAuthorityFactory.class}, (proxy, method, args) -> {
+                    Thread.sleep(delay);
+                    return crs;
+                });
+    }
+
+    /**
+     * Tests the failure when a deadline is exceeded, and the hedging to a faster factory.
+     *
+     * @throws FactoryException if an error occurred while creating the <abbr>CRS</abbr>.
+     */
+    @Test
+    public void testDeadlineAndHedging() throws FactoryException {
+        final CoordinateReferenceSystem crs1 = unsupported(CoordinateReferenceSystem.class);
+        final CoordinateReferenceSystem crs2 = unsupported(CoordinateReferenceSystem.class);
+        final var factory = new AsyncFactory(slow(crs1, 10_000), unsupported(CoordinateOperationFactory.class));
+        assertThrows(DeadlineExceededException.class, () -> factory.createCoordinateReferenceSystem("EPSG:4326", Duration.ofMillis(20)));
+        final AsyncFactory hedged = factory.withHedging(slow(crs2, 0), Duration.ofMillis(10));
+        assertSame(crs2, hedged.createCoordinateReferenceSystem("EPSG:4326", Duration.ofSeconds(5)));
+    }
+}
@@ -15,8 +15,18 @@
  */
 package com.geomatys.geoapi.geotools;
 
+import java.lang.reflect.Proxy;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.opengis.referencing.crs.CRSAuthorityFactory;
+import org.opengis.referencing.crs.GeographicCRS;
+import org.opengis.util.FactoryException;
+
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
@@ -47,4 +57,53 @@ public class AuthorityFactoryFromGTTest {
             assertEquals(api.getSimpleName(), gt.getSimpleName(), "Mismatched indexes.");
         }
     }
+
+    /**
+     * Verifies the resolution of the interface of the other <abbr>API</abbr>
+     * for interfaces and for implementation classes.
+     */
+    @Test
+    public void verifyTypeResolution() {
+        assertEquals(org.geotools.api.referencing.crs.ProjectedCRS.class,
+                AuthorityFactoryFromGT.GEOTOOLS_TYPE.get(org.opengis.referencing.crs.ProjectedCRS.class));
+        assertEquals(org.opengis.referencing.crs.GeographicCRS.class,
+                AuthorityFactoryFromGT.GEOAPI_TYPE.get(org.geotools.api.referencing.crs.GeographicCRS.class));
+
+        final Class<?> impl = Proxy.newProxyInstance(AuthorityFactoryFromGTTest.class.getClassLoader(),
+                new Class<?>[] {org.opengis.referencing.crs.ProjectedCRS.class},
+                (proxy, method, args) -> null).getClass();
+        assertEquals(org.geotools.api.referencing.crs.ProjectedCRS.class, AuthorityFactoryFromGT.GEOTOOLS_TYPE.get(impl));
+        assertNull(AuthorityFactoryFromGT.GEOAPI_TYPE.get(impl));
+        assertNull(AuthorityFactoryFromGT.GEOTOOLS_TYPE.get(String.class));
+    }
+
+    /**
+     * Verifies that the sets of authority codes are cached, and loaded again after {@link Services#refresh()}.
+     *
+     * @throws FactoryException should never happen.
+     */
+    @Test
+    public void verifyCodesRefresh() throws FactoryException {
+        final var loads = new AtomicInteger();
+        final var codes = new AtomicReference<Set<String>>(Set.of("4326"));
+        final var gt = (org.geotools.api.referencing.crs.CRSAuthorityFactory) Proxy.newProxyInstance(
+                AuthorityFactoryFromGTTest.class.getClassLoader(), new Class<?>[] {org.geotools.api.referencing.crs.CRSAuthorityFactory.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getAuthorityCodes": loads.incrementAndGet(); return codes.get();
+                        case "hashCode": return System.identityHashCode(proxy);
+                        case "equals":   return proxy == args[0];
+                        default: throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        final CRSAuthorityFactory factory = CRSAuthorityFactoryFromGT.wrap(gt);
+        assertEquals(Set.of("4326"), factory.getAuthorityCodes(GeographicCRS.class));
+        codes.set(Set.of("4326", "4269"));
+        assertFalse(factory.getAuthorityCodes(GeographicCRS.class).contains("4269"));
+        assertEquals(1, loads.get());
+
+        Services.refresh();
+        assertEquals(Set.of("4326", "4269"), factory.getAuthorityCodes(GeographicCRS.class));
+        assertEquals(2, loads.get());
+    }
 }
@@ -0,0 +1,99 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.awt.geom.AffineTransform;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
+import org.geotools.referencing.operation.transform.AffineTransform2D;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+/**
+ * Tests {@link BatchReprojection}.
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+public class BatchReprojectionTest {
+    /**
+     * Directory where to write the test files.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * The transform to apply, which multiplies <var>x</var> by 2 and adds 10 to <var>y</var>.
+     */
+    private final MathTransform transform;
+
+    /**
+     * Creates a new test case.
+     */
+    public BatchReprojectionTest() {
+        transform = MathTransformFromGT.wrap(new AffineTransform2D(new AffineTransform(2, 0, 0, 1, 0, 10)));
+    }
+
+    /**
+     * Tests the reprojection of a <abbr>CSV</abbr> file with a header, an empty line,
+     * different separators and extra columns.
+     *
+     * @throws IOException if an error occurred while reading or writing the files.
+     * @throws TransformException if a point cannot be transformed.
+     */
+    @Test
+    public void testCSV() throws IOException, TransformException {
+        final Path input  = directory.resolve("input.csv");
+        final Path output = directory.resolve("output.csv");
+        Files.writeString(input, "x,y,name\n1.5,2,A\n\n-3e2; 0.25\r\n4\t-5\n");
+        final var engine = new BatchReprojection(transform, BatchReprojection.Format.CSV, ByteOrder.LITTLE_ENDIAN, 2);
+        assertEquals(3, engine.transform(input, output, null));
+        assertEquals("x,y,name\n3.00,12.00,A\n\n-600.00;10.25\r\n8.00\t5.00\n", Files.readString(output));
+    }
+
+    /**
+     * Tests the reprojection of a binary file in big-endian byte order.
+     *
+     * @throws IOException if an error occurred while reading or writing the files.
+     * @throws TransformException if a point cannot be transformed.
+     */
+    @Test
+    public void testBinary() throws IOException, TransformException {
+        final Path input  = directory.resolve("input.bin");
+        final Path output = directory.resolve("output.bin");
+        final int numPts  = 100000;
+        final ByteBuffer buffer = ByteBuffer.allocate(numPts * 2 * Double.BYTES);
+        for (int i=0; i<numPts; i++) {
+            buffer.putDouble(i).putDouble(-i);
+        }
+        Files.write(input, buffer.array());
+        final var engine = new BatchReprojection(transform, BatchReprojection.Format.BINARY, ByteOrder.BIG_ENDIAN, 0);
+        assertEquals(numPts, engine.transform(input, output, null));
+        final ByteBuffer result = ByteBuffer.wrap(Files.readAllBytes(output));
+        assertEquals(buffer.capacity(), result.capacity());
+        for (int i=0; i<numPts; i++) {
+            assertEquals(2*i,    result.getDouble());
+            assertEquals(10 - i, result.getDouble());
+        }
+    }
+}
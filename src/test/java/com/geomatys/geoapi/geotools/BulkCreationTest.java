@@ -0,0 +1,114 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.opengis.util.FactoryException;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Tests {@link BulkCreation}.
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+public class BulkCreationTest {
+    /**
+     * Creates a new test case.
+     */
+    public BulkCreationTest() {
+    }
+
+    /**
+     * Tests the creation of objects where some codes fail.
+     * The failures shall not stop the creation of other objects.
+     *
+     * @throws InterruptedException if the test has been interrupted.
+     */
+    @Test
+    public void testPartialFailure() throws InterruptedException {
+        final var running  = new AtomicInteger();
+        final var maximum  = new AtomicInteger();
+        final var reported = new AtomicInteger();
+        final BulkCreation.Result<Integer> result = BulkCreation.create(List.of("1", "2", "3", "4", "2", "5", "6"), (code) -> {
+            maximum.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(10);
+                final int value = Integer.parseInt(code);
+                if ((value & 1) != 0) {
+                    throw new FactoryException("Odd code: " + code);
+                }
+                return value;
+            } catch (InterruptedException e) {
+                throw new FactoryException(e);
+            } finally {
+                running.decrementAndGet();
+            }
+        }, 2, (processed, failed, total) -> {
+            assertEquals(6, total);
+            reported.incrementAndGet();
+        });
+        assertEquals(List.of("2", "4", "6"), List.copyOf(result.objects().keySet()));
+        assertEquals(List.of("1", "3", "5"), List.copyOf(result.failures().keySet()));
+        assertEquals(4, result.objects().get("4"));
+        assertEquals("Odd code: 3", result.failures().get("3").getMessage());
+        assertEquals(6, reported.get());
+        assertTrue(maximum.get() <= 2);
+    }
+
+    /**
+     * Tests the interruption of the thread creating the objects.
+     * The codes that were not yet submitted shall not be processed.
+     *
+     * @throws InterruptedException if the test has been interrupted.
+     */
+    @Test
+    public void testInterruption() throws InterruptedException {
+        final var codes = new ArrayList<String>();
+        for (int i=0; i<1000; i++) {
+            codes.add(Integer.toString(i));
+        }
+        final var calls  = new AtomicInteger();
+        final var thrown = new AtomicReference<Throwable>();
+        final Thread caller = Thread.ofVirtual().start(() -> {
+            try {
+                BulkCreation.create(codes, (code) -> {
+                    calls.incrementAndGet();
+                    try {
+                        Thread.sleep(5);
+                    } catch (InterruptedException e) {
+                        throw new FactoryException(e);
+                    }
+                    return code;
+                }, 2, null);
+            } catch (Throwable e) {
+                thrown.set(e);
+            }
+        });
+        Thread.sleep(50);
+        caller.interrupt();
+        caller.join();
+        assertInstanceOf(InterruptedException.class, thrown.get());
+        assertTrue(calls.get() < codes.size());
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.awt.geom.AffineTransform;
+import java.util.Random;
+import org.opengis.geometry.DirectPosition;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
+import org.geotools.geometry.Position2D;
+import org.geotools.referencing.operation.transform.AffineTransform2D;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Tests {@link CachedTransform}.
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+public class CachedTransformTest {
+    /**
+     * Creates a new test case.
+     */
+    public CachedTransformTest() {
+    }
+
+    /**
+     * Transforms points with many duplicated values and compares with the uncached transform.
+     * The second pass is done in-place for testing overlapping arrays.
+     *
+     * @throws TransformException if a coordinate cannot be transformed.
+     */
+    @Test
+    public void testBatch() throws TransformException {
+        final var random = new Random(4326);
+        final MathTransform reference = MathTransformFromGT.wrap(new AffineTransform2D(new AffineTransform(2, 0.5, -1, 3, 10, 20)));
+        final var cached = new CachedTransform(reference, 100);
+        final double[] source = new double[2000];
+        for (int i=0; i<source.length; i++) {
+            source[i] = random.nextInt(20);
+        }
+        final double[] expected = new double[source.length];
+        final double[] actual   = new double[source.length];
+        reference.transform(source, 0, expected, 0, source.length / 2);
+        cached   .transform(source, 0, actual,   0, source.length / 2);
+        assertArrayEquals(expected, actual);
+
+        System.arraycopy(source, 0, actual, 0, source.length);
+        cached.transform(actual, 0, actual, 0, source.length / 2);
+        assertArrayEquals(expected, actual);
+
+        final CacheStatistics stats = cached.getStatistics();
+        assertEquals(source.length, stats.hitCount() + stats.missCount());
+        assertTrue(stats.hitCount() > 0);
+        assertTrue(stats.size() <= 100);
+    }
+
+    /**
+     * Tests the transformation of a single position without destination,
+     * which shall use the cache like the other methods.
+     *
+     * @throws TransformException if a coordinate cannot be transformed.
+     */
+    @Test
+    public void testPositionWithoutDestination() throws TransformException {
+        final MathTransform reference = MathTransformFromGT.wrap(new AffineTransform2D(new AffineTransform(2, 0, 0, 3, 10, 20)));
+        final var cached = new CachedTransform(reference, 100);
+        final DirectPosition source = DirectPositionFromGT.wrap(new Position2D(4, 5));
+        assertArrayEquals(new double[] {18, 35}, cached.transform(source, null).getCoordinate());
+        assertArrayEquals(new double[] {18, 35}, cached.transform(source, null).getCoordinate());
+        final CacheStatistics stats = cached.getStatistics();
+        assertEquals(1, stats.missCount());
+        assertEquals(1, stats.hitCount());
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Tests {@link CodeTable} and {@link AuthorityCodes}.
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+public class CodeTableTest {
+    /**
+     * Creates a new test case.
+     */
+    public CodeTableTest() {
+    }
+
+    /**
+     * Tests a table with numeric codes, prefixed codes and codes which cannot be stored as integers.
+     */
+    @Test
+    public void testMixedCodes() {
+        final List<String> codes = List.of("4326", "EPSG:3395", "EPSG:4326", "CRS:84", "AUTO:42001", "007", "abc", "1234567890", "3857");
+        final CodeTable table = CodeTable.of(codes);
+        assertEquals(codes.size(), table.size());
+        for (final String code : codes) {
+            assertEquals(code, table.code(table.indexOf(code)));
+        }
+        assertEquals(-1, table.indexOf("7"));
+        assertEquals(-1, table.indexOf("EPSG:3857"));
+        final Set<String> subset = table.subset(List.of("3857", "EPSG:3395", "abc", "007"));
+        assertEquals(4, subset.size());
+        assertTrue (subset.contains("EPSG:3395"));
+        assertTrue (subset.contains("007"));
+        assertFalse(subset.contains("4326"));
+        assertFalse(subset.contains("unknown"));
+        assertEquals(Set.of("3857", "EPSG:3395", "abc", "007"), new HashSet<>(subset));
+        assertEquals(subset, Set.of("3857", "EPSG:3395", "abc", "007"));
+    }
+
+    /**
+     * Tests the sharing of a table by the sets of many types, including the growth of the table.
+     *
+     * @throws org.geotools.api.referencing.FactoryException should never happen.
+     */
+    @Test
+    public void testSharedTable() throws org.geotools.api.referencing.FactoryException {
+        final var codes = AuthorityCodes.forFactory(new Object());
+        final Set<String> crs = codes.get(org.geotools.api.referencing.crs.CoordinateReferenceSystem.class, (type) -> Set.of("4326", "3395"));
+        final Set<String> geo = codes.get(org.geotools.api.referencing.crs.GeographicCRS.class, (type) -> Set.of("4326"));
+        final Set<String> dtm = codes.get(org.geotools.api.referencing.datum.Datum.class, (type) -> Set.of("6326", "EPSG:6326"));
+        assertSame(((CodeTable.Subset) crs).table, ((CodeTable.Subset) geo).table);
+        assertNotSame(((CodeTable.Subset) crs).table, ((CodeTable.Subset) dtm).table);
+        assertEquals(Set.of("4326", "3395"), crs);
+        assertEquals(Set.of("6326", "EPSG:6326"), dtm);
+        final Set<String> again = codes.get(org.geotools.api.referencing.crs.CoordinateReferenceSystem.class, (type) -> {
+            throw new AssertionError("Should be cached.");
+        });
+        assertSame(((CodeTable.Subset) dtm).table, ((CodeTable.Subset) again).table);
+        assertEquals(crs, again);
+    }
+}
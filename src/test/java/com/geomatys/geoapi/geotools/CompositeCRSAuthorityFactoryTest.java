@@ -0,0 +1,79 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.util.List;
+import org.opengis.referencing.NoSuchAuthorityCodeException;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.util.FactoryException;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+/**
+ * Tests {@link CompositeCRSAuthorityFactory}.
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+public class CompositeCRSAuthorityFactoryTest {
+    /**
+     * Creates a new test case.
+     */
+    public CompositeCRSAuthorityFactoryTest() {
+    }
+
+    /**
+     * Tests the reduction of various code syntaxes to the canonical form.
+     */
+    @Test
+    public void testCanonicalize() {
+        final String code = "EPSG:4326";
+        assertSame(code, CompositeCRSAuthorityFactory.canonicalize(code));
+        assertEquals(code, CompositeCRSAuthorityFactory.canonicalize("epsg:4326"));
+        assertEquals(code, CompositeCRSAuthorityFactory.canonicalize(" EPSG : 4326 "));
+        assertEquals(code, CompositeCRSAuthorityFactory.canonicalize("urn:ogc:def:crs:EPSG::4326"));
+        assertEquals(code, CompositeCRSAuthorityFactory.canonicalize("urn:x-ogc:def:crs:EPSG:6.11:4326"));
+        assertEquals(code, CompositeCRSAuthorityFactory.canonicalize("http://www.opengis.net/def/crs/EPSG/0/4326"));
+        assertEquals(code, CompositeCRSAuthorityFactory.canonicalize("http://www.opengis.net/gml/srs/epsg.xml#4326"));
+        assertEquals("CRS:84", CompositeCRSAuthorityFactory.canonicalize("urn:ogc:def:crs:OGC:1.3:CRS84"));
+        assertEquals("CRS:84", CompositeCRSAuthorityFactory.canonicalize("https://www.opengis.net/def/crs/OGC/1.3/CRS84"));
+        assertEquals("AUTO:42001,9001,-100,45", CompositeCRSAuthorityFactory.canonicalize("auto:42001,9001,-100,45"));
+        assertNull(CompositeCRSAuthorityFactory.canonicalize("4326"));
+        assertNull(CompositeCRSAuthorityFactory.canonicalize("urn:ogc:def:crs,crs:EPSG::4326,crs:EPSG::5773"));
+        assertNull(CompositeCRSAuthorityFactory.canonicalize("urn:ogc:def:datum:EPSG::6326"));
+        assertNull(CompositeCRSAuthorityFactory.canonicalize("urn:ogc:def:crsx:EPSG::4326"));
+        assertNull(CompositeCRSAuthorityFactory.canonicalize("http://www.opengis.net/def/ellipsoid/EPSG/0/7030"));
+    }
+
+    /**
+     * Tests that all syntaxes of the same code are routed to the same factory and return the same cached instance.
+     *
+     * @throws FactoryException if the <abbr>CRS</abbr> cannot be created.
+     */
+    @Test
+    public void testRouting() throws FactoryException {
+        final var factory = new CompositeCRSAuthorityFactory(List.of(Services.getAuthorityFactory(true)));
+        final CoordinateReferenceSystem crs = factory.createCoordinateReferenceSystem("EPSG:4326");
+        assertSame(crs, factory.createCoordinateReferenceSystem("urn:ogc:def:crs:EPSG::4326"));
+        assertEquals(crs, factory.createGeographicCRS("http://www.opengis.net/def/crs/EPSG/0/4326"));
+        final var e = assertThrows(NoSuchAuthorityCodeException.class, () -> factory.createCoordinateReferenceSystem("FOO:1"));
+        assertEquals("FOO", e.getAuthority());
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import org.opengis.referencing.datum.PixelInCell;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.Matrix;
+import org.opengis.referencing.operation.TransformException;
+import org.geotools.referencing.operation.transform.IdentityTransform;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+/**
+ * Tests {@link GridTransform}.
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+public class GridTransformTest {
+    /**
+     * Creates a new test case.
+     */
+    public GridTransformTest() {
+    }
+
+    /**
+     * Creates an affine matrix with the given coefficients.
+     */
+    private static Matrix affine(final double scaleX, final double shearX, final double translateX,
+                                 final double shearY, final double scaleY, final double translateY)
+    {
+        final var m = MatrixFromGT.wrap(new org.geotools.referencing.operation.matrix.GeneralMatrix(3));
+        m.setElement(0, 0, scaleX); m.setElement(0, 1, shearX); m.setElement(0, 2, translateX);
+        m.setElement(1, 0, shearY); m.setElement(1, 1, scaleY); m.setElement(1, 2, translateY);
+        return m;
+    }
+
+    /**
+     * Returns the identity transform in two dimensions.
+     */
+    private static MathTransform identity() {
+        return MathTransformFromGT.wrap(IdentityTransform.create(2));
+    }
+
+    /**
+     * Tests the conversion from cell corners to cell centers.
+     *
+     * @throws TransformException if a coordinate cannot be transformed.
+     */
+    @Test
+    public void testCornerToCenter() throws TransformException {
+        final var grid = new GridTransform(affine(10, 0, 100, 0, -10, 500),
+                PixelInCell.CELL_CORNER, identity(), PixelInCell.CELL_CENTER);
+        final double[] row = new double[6];
+        grid.transformRow(2, 1, 3, row, 0);
+        assertArrayEquals(new double[] {115, 475,  125, 475,  135, 475}, row);
+    }
+
+    /**
+     * Tests a tile with an affine conversion having shear terms,
+     * and verifies that the row-by-row iteration gives the same result.
+     *
+     * @throws TransformException if a coordinate cannot be transformed.
+     */
+    @Test
+    public void testTileWithShear() throws TransformException {
+        final var grid = new GridTransform(affine(2, 1, 0, 0.5, 3, 10),
+                PixelInCell.CELL_CENTER, identity(), PixelInCell.CELL_CENTER);
+        final double[] tile = new double[2 * 2 * 3];
+        grid.transformTile(4, 5, 3, 2, tile, 0);
+        assertArrayEquals(new double[] {13, 27,  15, 27.5,  17, 28,
+                                        14, 30,  16, 30.5,  18, 31}, tile);
+        final int[] count = new int[1];
+        grid.forEachRow(4, 5, 3, 2, (row, coordinates) -> {
+            final int offset = (row - 5) * 6;
+            for (int i=0; i<6; i++) {
+                assertEquals(tile[offset + i], coordinates[i]);
+            }
+            count[0]++;
+        });
+        assertEquals(2, count[0]);
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.geotools.referencing.CRS;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Tests {@link IdentificationIndex}.
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+public class IdentificationIndexTest {
+    /**
+     * A temporary directory for the index files.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * Creates a new test case.
+     */
+    public IdentificationIndexTest() {
+    }
+
+    /**
+     * Tests writing an index in a file and reading it back.
+     *
+     * @throws IOException if an error occurred while writing or reading the file.
+     */
+    @Test
+    public void testWriteAndRead() throws IOException {
+        final var codes = new HashMap<String, Set<String>>();
+        codes.put("GeographicCRS E(6378137.00 6356752.31) PM(0.00000000) CS(NORTH;EAST;)",
+                  new TreeSet<>(Set.of("EPSG:4326", "EPSG:4258")));
+        codes.put("ProjectedCRS E(6378137.00 6356752.31) PM(0.00000000) M(mercator pseudo) P{} CS(EAST;NORTH;)",
+                  new TreeSet<>(Set.of("EPSG:3857")));
+        final var index = new IdentificationIndex(codes);
+        assertEquals(3, index.size());
+
+        final Path file = directory.resolve("index.txt");
+        index.write(file);
+        final IdentificationIndex read = IdentificationIndex.read(file);
+        assertEquals(3, read.size());
+        for (final var entry : codes.entrySet()) {
+            assertEquals(entry.getValue(), read.lookup(entry.getKey()));
+        }
+        assertTrue(read.lookup("GeocentricCRS").isEmpty());
+
+        final Path other = Files.writeString(directory.resolve("other.txt"), "EPSG:4326\n");
+        assertThrows(IOException.class, () -> IdentificationIndex.read(other));
+    }
+
+    /**
+     * Parses the given <abbr>WKT</abbr> with GeoTools and wraps the result.
+     *
+     * @param  wkt  the <abbr>WKT</abbr> to parse.
+     * @return the parsed <abbr>CRS</abbr>.
+     * @throws Exception if the <abbr>WKT</abbr> cannot be parsed.
+     */
+    private static CoordinateReferenceSystem parse(final String wkt) throws Exception {
+        return Wrappers.geoapi(CRS.parseWKT(wkt));
+    }
+
+    /**
+     * Returns the <abbr>WKT</abbr> of a Transverse Mercator projection with the given origin.
+     */
+    private static String transverseMercator(final double latitudeOfOrigin, final double centralMeridian) {
+        return "PROJCS[\"Test\", GEOGCS[\"WGS 84\", DATUM[\"WGS_1984\", SPHEROID[\"WGS 84\", 6378137, 298.257223563]],"
+                + " PRIMEM[\"Greenwich\", 0], UNIT[\"degree\", 0.017453292519943295]],"
+                + " PROJECTION[\"Transverse_Mercator\"],"
+                + " PARAMETER[\"latitude_of_origin\", " + latitudeOfOrigin + "],"
+                + " PARAMETER[\"central_meridian\", " + centralMeridian + "],"
+                + " PARAMETER[\"scale_factor\", 0.9996],"
+                + " PARAMETER[\"false_easting\", 500000],"
+                + " PARAMETER[\"false_northing\", 0],"
+                + " UNIT[\"metre\", 1], AXIS[\"Easting\", EAST], AXIS[\"Northing\", NORTH]]";
+    }
+
+    /**
+     * Tests the lookup of the code of a <abbr>CRS</abbr> parsed from a <abbr>WKT</abbr> without identifiers.
+     *
+     * @throws Exception if an error occurred while creating or parsing the <abbr>CRS</abbr>.
+     */
+    @Test
+    public void testLookup() throws Exception {
+        final CoordinateReferenceSystem reference = Services.getAuthorityFactory(true).createCoordinateReferenceSystem("EPSG:3395");
+        final String wkt = reference.toWKT().replaceAll(",\\s*AUTHORITY\\[[^\\]]*\\]", "");
+        final CoordinateReferenceSystem parsed = parse(wkt);
+        assertTrue(parsed.getIdentifiers().isEmpty());
+
+        final var index = new IdentificationIndex(Map.of(IdentificationIndex.fingerprint(reference), Set.of("EPSG:3395")));
+        assertEquals(Set.of("EPSG:3395"), index.lookup(parsed));
+    }
+
+    /**
+     * Tests that projections differing only by which parameter has which value are not confused.
+     * The two projections below have the same set of parameter values, assigned to different parameters.
+     *
+     * @throws Exception if an error occurred while parsing the <abbr>CRS</abbr>.
+     */
+    @Test
+    public void testNearMiss() throws Exception {
+        final CoordinateReferenceSystem crs1 = parse(transverseMercator(0, 30));
+        final CoordinateReferenceSystem crs2 = parse(transverseMercator(30, 0));
+        final String fingerprint = IdentificationIndex.fingerprint(crs1);
+        assertNotEquals(fingerprint, IdentificationIndex.fingerprint(crs2));
+
+        final var index = new IdentificationIndex(Map.of(fingerprint, Set.of("TEST:1")));
+        assertEquals(Set.of("TEST:1"), index.lookup(parse(transverseMercator(0, 30))));
+        assertTrue(index.lookup(crs2).isEmpty());
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.opengis.referencing.NoSuchAuthorityCodeException;
+import org.opengis.referencing.ReferenceIdentifier;
+import org.opengis.referencing.crs.ProjectedCRS;
+import org.opengis.util.FactoryException;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+/**
+ * Tests {@link LazyCRS}.
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+public class LazyCRSTest {
+    /**
+     * Creates a new test case.
+     */
+    public LazyCRSTest() {
+    }
+
+    /**
+     * Creates a dummy implementation of the given GeoTools interface.
+     * All methods return {@code null}, except {@code toString()} which returns the given text.
+     */
+    private static <T> T dummy(final Class<T> type, final String text) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                (proxy, method, args) -> method.getName().equals("toString") ? text : null));
+    }
+
+    /**
+     * Tests that the identifiers and name are answered without creating the <abbr>CRS</abbr>,
+     * and that the <abbr>CRS</abbr> is created only once when another property is requested.
+     * Repeated requests for the same code shall return the same proxy without fetching the
+     * description again.
+     *
+     * @throws FactoryException should never happen.
+     */
+    @Test
+    public void testLazyCreation() throws FactoryException {
+        final var calls = new AtomicInteger();
+        final var descriptions = new AtomicInteger();
+        final var gt = (org.geotools.api.referencing.crs.CRSAuthorityFactory) Proxy.newProxyInstance(
+                LazyCRSTest.class.getClassLoader(), new Class<?>[] {org.geotools.api.referencing.crs.CRSAuthorityFactory.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getDescriptionText": descriptions.incrementAndGet(); return dummy(org.geotools.api.util.InternationalString.class, "WGS 84 / World Mercator");
+                        case "createProjectedCRS": calls.incrementAndGet(); return dummy(org.geotools.api.referencing.crs.ProjectedCRS.class, "CRS");
+                        case "hashCode": return System.identityHashCode(proxy);
+                        case "equals":   return proxy == args[0];
+                        default: throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        final var factory = ((CRSAuthorityFactoryFromGT) CRSAuthorityFactoryFromGT.wrap(gt)).lazyView;
+        final ProjectedCRS crs = factory.createProjectedCRS("epsg:3395");
+        final ReferenceIdentifier id = (ReferenceIdentifier) crs.getIdentifiers().iterator().next();
+        assertEquals("EPSG", id.getCodeSpace());
+        assertEquals("3395", id.getCode());
+        assertEquals("WGS 84 / World Mercator", crs.getName().getCode());
+        assertSame(crs, factory.createProjectedCRS("EPSG:3395"));
+        assertEquals(1, descriptions.get());
+        assertNotEquals(crs, factory.createProjectedCRS("EPSG:3857"));
+        assertEquals(2, descriptions.get());
+        assertEquals(0, calls.get());
+        assertNull(crs.getCoordinateSystem());
+        assertNull(crs.getConversionFromBase());
+        assertEquals(1, calls.get());
+    }
+
+    /**
+     * Tests that an unknown code causes an exception when the proxy is requested,
+     * without creating the <abbr>CRS</abbr>. The unknown code shall be cached.
+     */
+    @Test
+    public void testUnknownCode() {
+        final var calls = new AtomicInteger();
+        final var descriptions = new AtomicInteger();
+        final var gt = (org.geotools.api.referencing.crs.CRSAuthorityFactory) Proxy.newProxyInstance(
+                LazyCRSTest.class.getClassLoader(), new Class<?>[] {org.geotools.api.referencing.crs.CRSAuthorityFactory.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getDescriptionText": descriptions.incrementAndGet(); throw new org.geotools.api.referencing.NoSuchAuthorityCodeException("Unknown code.", "EPSG", "9999");
+                        case "createProjectedCRS": calls.incrementAndGet(); return null;
+                        case "hashCode": return System.identityHashCode(proxy);
+                        case "equals":   return proxy == args[0];
+                        default: throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        final var factory = ((CRSAuthorityFactoryFromGT) CRSAuthorityFactoryFromGT.wrap(gt)).lazyView;
+        final var e = assertThrows(NoSuchAuthorityCodeException.class, () -> factory.createProjectedCRS("EPSG:9999"));
+        assertEquals("9999", e.getAuthorityCode());
+        assertThrows(NoSuchAuthorityCodeException.class, () -> factory.createProjectedCRS("EPSG:9999"));
+        assertEquals(1, descriptions.get());
+        assertEquals(0, calls.get());
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import org.opengis.geometry.DirectPosition;
+import org.opengis.referencing.operation.MathTransform1D;
+import org.opengis.referencing.operation.Matrix;
+import org.opengis.referencing.operation.TransformException;
+import org.geotools.geometry.GeneralPosition;
+import org.geotools.referencing.operation.transform.ExponentialTransform1D;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Tests {@link LookupTableTransform}.
+ * The approximated transform is the exponential function in the [0 … 2] domain.
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+public class LookupTableTransformTest {
+    /**
+     * Lower bound of the domain where the table is used.
+     */
+    private static final double MINIMUM = 0;
+
+    /**
+     * Upper bound of the domain where the table is used.
+     */
+    private static final double MAXIMUM = 2;
+
+    /**
+     * The maximal error requested at construction time.
+     */
+    private static final double TOLERANCE = 1E-6;
+
+    /**
+     * Creates a new test case.
+     */
+    public LookupTableTransformTest() {
+    }
+
+    /**
+     * {@return the exact transform to approximate}.
+     */
+    private static MathTransform1D exact() {
+        return MathTransform1DFromGT.wrap(ExponentialTransform1D.create(Math.E, 1));
+    }
+
+    /**
+     * {@return an approximation of the exponential function using the given interpolation method}.
+     *
+     * @throws TransformException if a value cannot be computed by the exact transform.
+     */
+    private static LookupTableTransform create(final LookupTableTransform.Interpolation interpolation) throws TransformException {
+        return LookupTableTransform.create(exact(), MINIMUM, MAXIMUM, TOLERANCE, interpolation);
+    }
+
+    /**
+     * Verifies that the interpolation error is close to the requested tolerance everywhere in the domain.
+     * Since the construction estimates the error at only a few positions inside each interval,
+     * a small margin is accepted.
+     *
+     * @throws TransformException if a value cannot be computed.
+     */
+    @Test
+    public void testErrorBound() throws TransformException {
+        final MathTransform1D exact = exact();
+        final LookupTableTransform linear = create(LookupTableTransform.Interpolation.LINEAR);
+        final LookupTableTransform cubic  = create(LookupTableTransform.Interpolation.CUBIC);
+        assertTrue(cubic.getTableSize() < linear.getTableSize());
+        for (int i=0; i<=10000; i++) {
+            final double x = MINIMUM + (MAXIMUM - MINIMUM) * i / 10000;
+            final double y = exact.transform(x);
+            assertEquals(y, linear.transform(x), TOLERANCE * 1.5);
+            assertEquals(y, cubic .transform(x), TOLERANCE * 1.5);
+        }
+    }
+
+    /**
+     * Verifies that values outside the domain are computed by the exact transform.
+     *
+     * @throws TransformException if a value cannot be computed.
+     */
+    @Test
+    public void testOutsideDomain() throws TransformException {
+        final MathTransform1D exact = exact();
+        final LookupTableTransform approx = create(LookupTableTransform.Interpolation.LINEAR);
+        assertEquals(MINIMUM, approx.getMinimum());
+        assertEquals(MAXIMUM, approx.getMaximum());
+        for (final double x : new double[] {-3, -0.5, 2.5, 7}) {
+            assertEquals(exact.transform (x), approx.transform (x));
+            assertEquals(exact.derivative(x), approx.derivative(x));
+        }
+    }
+
+    /**
+     * Verifies that the inverse is the exact inverse, and that it is consistent with the approximation.
+     *
+     * @throws TransformException if a value cannot be computed.
+     */
+    @Test
+    public void testInverse() throws TransformException {
+        final LookupTableTransform approx = create(LookupTableTransform.Interpolation.CUBIC);
+        final MathTransform1D inverse = approx.inverse();
+        for (int i=0; i<=100; i++) {
+            final double x = MINIMUM + (MAXIMUM - MINIMUM) * i / 100;
+            final double y = approx.transform(x);
+            assertEquals(Math.log(y), inverse.transform(y), 1E-14);
+            assertEquals(x, inverse.transform(y), TOLERANCE * 1.5 / Math.exp(MINIMUM));
+        }
+    }
+
+    /**
+     * Verifies that the derivatives computed from a value and from a position are the same,
+     * and that they are close to the exact derivatives.
+     *
+     * @throws TransformException if a value cannot be computed.
+     */
+    @Test
+    public void testDerivative() throws TransformException {
+        final LookupTableTransform approx = create(LookupTableTransform.Interpolation.CUBIC);
+        for (int i=0; i<=100; i++) {
+            final double x = MINIMUM + (MAXIMUM - MINIMUM) * i / 100;
+            final double derivative = approx.derivative(x);
+            final DirectPosition point = DirectPositionFromGT.wrap(new GeneralPosition(x));
+            final Matrix matrix = approx.derivative(point);
+            assertEquals(1, matrix.getNumRow());
+            assertEquals(1, matrix.getNumCol());
+            assertEquals(derivative, matrix.getElement(0, 0));
+            assertEquals(Math.exp(x), derivative, 1E-3);
+            assertEquals(approx.transform(x), approx.transform(point, null).getOrdinate(0));
+        }
+    }
+}
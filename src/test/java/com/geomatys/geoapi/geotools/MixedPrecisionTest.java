@@ -0,0 +1,119 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.util.Random;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
+import org.geotools.referencing.operation.matrix.GeneralMatrix;
+import org.geotools.referencing.operation.transform.ProjectiveTransform;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+/**
+ * Tests {@link MixedPrecision}.
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+public class MixedPrecisionTest {
+    /**
+     * Number of points to transform. Must be large enough for using many chunks.
+     */
+    private static final int NUM_PTS = 10000;
+
+    /**
+     * Creates a new test case.
+     */
+    public MixedPrecisionTest() {
+    }
+
+    /**
+     * Creates an affine transform from the given number of source dimensions to the given number of target dimensions.
+     * The matrix coefficients are small integers for making the results exact in single precision.
+     */
+    private static MathTransform affine(final int srcDim, final int tgtDim) {
+        final var matrix = new GeneralMatrix(tgtDim + 1, srcDim + 1);
+        for (int j=0; j<tgtDim; j++) {
+            for (int i=0; i<=srcDim; i++) {
+                matrix.setElement(j, i, (i + j) % 3);
+            }
+        }
+        return MathTransformFromGT.wrap(ProjectiveTransform.create(matrix));
+    }
+
+    /**
+     * Transforms in-place a large array of single-precision coordinates with overlapping source and target
+     * ranges, for transforms increasing or decreasing the number of dimensions.
+     *
+     * @throws TransformException if a coordinate cannot be transformed.
+     */
+    @Test
+    public void testOverlappingArrays() throws TransformException {
+        final var random = new Random(7);
+        for (final int[] dimensions : new int[][] {{2,3}, {3,2}, {2,2}}) {
+            final MathTransform tr = affine(dimensions[0], dimensions[1]);
+            final int srcDim = tr.getSourceDimensions();
+            final int tgtDim = tr.getTargetDimensions();
+            for (final int gap : new int[] {-5000, -13, 0, 7, 2500, 40000}) {
+                final int srcOff = 30000;
+                final int dstOff = srcOff + gap;
+                final float[] array = new float[dstOff + NUM_PTS * 3 + srcOff];
+                for (int i=0; i<array.length; i++) {
+                    array[i] = random.nextInt(100);
+                }
+                final double[] source = new double[NUM_PTS * srcDim];
+                for (int i=0; i<source.length; i++) {
+                    source[i] = array[srcOff + i];
+                }
+                final double[] expected = new double[NUM_PTS * tgtDim];
+                tr.transform(source, 0, expected, 0, NUM_PTS);
+                tr.transform(array, srcOff, array, dstOff, NUM_PTS);
+                for (int i=0; i<expected.length; i++) {
+                    assertEquals(expected[i], array[dstOff + i], "Unexpected coordinate.");
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests the transformations between single-precision and double-precision arrays.
+     *
+     * @throws TransformException if a coordinate cannot be transformed.
+     */
+    @Test
+    public void testMixedPrecision() throws TransformException {
+        final MathTransform tr = affine(2, 3);
+        final float[]  source   = new float [NUM_PTS * 2];
+        final double[] sourceD  = new double[NUM_PTS * 2];
+        for (int i=0; i<source.length; i++) {
+            sourceD[i] = source[i] = i % 1000;
+        }
+        final double[] expected = new double[NUM_PTS * 3];
+        final double[] actual   = new double[NUM_PTS * 3];
+        tr.transform(sourceD, 0, expected, 0, NUM_PTS);
+        tr.transform(source,  0, actual,   0, NUM_PTS);
+        assertArrayEquals(expected, actual);
+
+        final float[] narrowed = new float[NUM_PTS * 3];
+        tr.transform(sourceD, 0, narrowed, 0, NUM_PTS);
+        for (int i=0; i<expected.length; i++) {
+            assertEquals((float) expected[i], narrowed[i]);
+        }
+    }
+}
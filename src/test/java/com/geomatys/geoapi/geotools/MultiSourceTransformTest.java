@@ -0,0 +1,86 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.util.List;
+import java.util.Random;
+import org.opengis.referencing.crs.CRSAuthorityFactory;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.util.FactoryException;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+
+/**
+ * Tests {@link MultiSourceTransform}.
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+public class MultiSourceTransformTest {
+    /**
+     * Creates a new test case.
+     */
+    public MultiSourceTransformTest() {
+    }
+
+    /**
+     * Transforms points from three source <abbr>CRS</abbr>s to <cite>Pseudo-Mercator</cite> and compares
+     * with the results of the transforms applied separately on each point. The number of points is large
+     * enough for using the parallel execution path. The second pass is done in-place for testing overlapping arrays.
+     *
+     * @throws FactoryException if a <abbr>CRS</abbr> or an operation cannot be created.
+     * @throws TransformException if a point cannot be transformed.
+     */
+    @Test
+    public void testMixedSources() throws FactoryException, TransformException {
+        final CRSAuthorityFactory crs = Services.getAuthorityFactory(true);
+        final var transform = new MultiSourceTransform(Services.getCoordinateOperationFactory(true),
+                List.of(crs.createCoordinateReferenceSystem("EPSG:4326"),
+                        crs.createCoordinateReferenceSystem("EPSG:4258"),
+                        crs.createCoordinateReferenceSystem("EPSG:32631")),
+                crs.createCoordinateReferenceSystem("EPSG:3857"));
+
+        final int numPts   = 50000;
+        final var random   = new Random(3857);
+        final int[] source = new int[numPts];
+        final double[] coordinates = new double[numPts * 2];
+        for (int i=0; i<numPts; i++) {
+            final int k = random.nextInt(3);
+            source[i] = k;
+            if (k == 2) {
+                coordinates[i*2    ] = random.nextDouble(300000, 700000);
+                coordinates[i*2 + 1] = random.nextDouble(4500000, 6000000);
+            } else {
+                coordinates[i*2    ] = random.nextDouble(0, 6);
+                coordinates[i*2 + 1] = random.nextDouble(40, 55);
+            }
+        }
+        final double[] actual = new double[numPts * 2];
+        transform.transform(coordinates, 0, source, 0, actual, 0, numPts);
+
+        final double[] expected = new double[numPts * 2];
+        for (int i=0; i<numPts; i++) {
+            transform.getTransform(source[i]).transform(coordinates, i*2, expected, i*2, 1);
+        }
+        assertArrayEquals(expected, actual, 1E-9);
+        /*
+         * Transform again in-place for testing overlapping source and target ranges.
+         */
+        transform.transform(coordinates, 0, source, 0, coordinates, 0, numPts);
+        assertArrayEquals(expected, coordinates, 1E-9);
+    }
+}
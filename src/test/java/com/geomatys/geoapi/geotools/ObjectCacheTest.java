@@ -0,0 +1,350 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.opengis.referencing.NoSuchAuthorityCodeException;
+import org.opengis.referencing.crs.CRSAuthorityFactory;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.CoordinateOperation;
+import org.opengis.referencing.operation.CoordinateOperationAuthorityFactory;
+import org.opengis.referencing.operation.CoordinateOperationFactory;
+import org.opengis.util.FactoryException;
+import org.geotools.referencing.CRS;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Tests {@link ObjectCache}.
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+public class ObjectCacheTest {
+    /**
+     * Creates a new test case.
+     */
+    public ObjectCacheTest() {
+    }
+
+    /**
+     * Tests that codes which differ only by spaces and case of the authority share the same entry.
+     *
+     * @throws FactoryException should never happen.
+     */
+    @Test
+    public void testNormalization() throws FactoryException {
+        assertEquals("EPSG:4326", ObjectCache.normalize(" epsg : 4326 "));
+        final var cache = new ObjectCache(CachePolicy.DEFAULT);
+        final CharSequence first = cache.get(CharSequence.class, "EPSG:4326", StringBuilder::new);
+        assertSame(first, cache.get(CharSequence.class, " epsg:4326", StringBuilder::new));
+        assertNotSame(first, cache.get(Appendable.class, "EPSG:4326", StringBuilder::new));
+        final CacheStatistics stats = cache.getStatistics();
+        assertEquals(1, stats.hitCount());
+        assertEquals(2, stats.missCount());
+        assertEquals(2, stats.size());
+    }
+
+    /**
+     * Tests the eviction of entries when the maximal size is exceeded.
+     * Entries used since their insertion shall be kept.
+     *
+     * @throws FactoryException should never happen.
+     */
+    @Test
+    public void testSizeBound() throws FactoryException {
+        final var cache = new ObjectCache(new CachePolicy(4, Long.MAX_VALUE, (value) -> 1, CachePolicy.References.STRONG, Duration.ZERO));
+        final CharSequence a = cache.get(CharSequence.class, "A", StringBuilder::new);
+        final CharSequence b = cache.get(CharSequence.class, "B", StringBuilder::new);
+        cache.get(CharSequence.class, "C", StringBuilder::new);
+        cache.get(CharSequence.class, "D", StringBuilder::new);
+        assertSame(a, cache.get(CharSequence.class, "A", StringBuilder::new));
+        cache.get(CharSequence.class, "E", StringBuilder::new);
+        assertSame(a, cache.get(CharSequence.class, "A", StringBuilder::new));
+        assertNotSame(b, cache.get(CharSequence.class, "B", StringBuilder::new));
+        final CacheStatistics stats = cache.getStatistics();
+        assertEquals(4, stats.size());
+        assertEquals(2, stats.evictionCount());
+    }
+
+    /**
+     * Tests the eviction of entries when the maximal weight is exceeded.
+     *
+     * @throws FactoryException should never happen.
+     */
+    @Test
+    public void testWeightBound() throws FactoryException {
+        final var cache = new ObjectCache(new CachePolicy(100, 10, (value) -> ((CharSequence) value).length(),
+                                                          CachePolicy.References.WEAK, Duration.ZERO));
+        for (int i=0; i<10; i++) {
+            cache.get(CharSequence.class, "ABCD" + i, StringBuilder::new);
+        }
+        final CacheStatistics stats = cache.getStatistics();
+        assertTrue(stats.size() <= 2);
+        assertTrue(stats.evictionCount() >= 8);
+    }
+
+    /**
+     * Tests that concurrent requests for the same code share a single creation.
+     * The creation fails, so the threads cannot get the result from the cache:
+     * they shall all receive the same exception, caused by the failure of the single creation.
+     *
+     * @throws InterruptedException if the test has been interrupted.
+     */
+    @Test
+    public void testSingleFlight() throws InterruptedException {
+        final var cache   = new ObjectCache(CachePolicy.DEFAULT);
+        final var calls   = new AtomicInteger();
+        final var gate    = new CompletableFuture<Void>();
+        final var failure = new org.geotools.api.referencing.FactoryException("Test failure.");
+        final var threads = new Thread[20];
+        final var thrown  = new Throwable[threads.length];
+        for (int i=0; i<threads.length; i++) {
+            final int n = i;
+            threads[i] = Thread.ofVirtual().start(() -> {
+                try {
+                    cache.get(CharSequence.class, "EPSG:999", (code) -> {
+                        calls.incrementAndGet();
+                        gate.join();
+                        throw failure;
+                    });
+                } catch (Throwable e) {
+                    thrown[n] = e;
+                }
+            });
+        }
+        // Wait for one thread to be in the creator and all other threads to wait for it.
+        int waiting;
+        do {
+            Thread.sleep(1);
+            waiting = 0;
+            for (final Thread t : threads) {
+                if (t.getState() == Thread.State.WAITING) {
+                    waiting++;
+                }
+            }
+        } while (waiting != threads.length || calls.get() == 0);
+        gate.complete(null);
+        for (int i=0; i<threads.length; i++) {
+            threads[i].join();
+            assertSame(thrown[0], thrown[i]);
+        }
+        assertSame(failure, thrown[0].getCause());
+        assertEquals(1, calls.get());
+        assertEquals(0, cache.getStatistics().size());
+    }
+
+    /**
+     * Tests that the interruption of the thread creating an object does not cause a failure in the waiting threads.
+     * The waiting threads shall try again, and only the interrupted thread shall receive an exception.
+     *
+     * @throws InterruptedException if the test has been interrupted.
+     */
+    @Test
+    public void testInterruptedCreation() throws InterruptedException {
+        final var cache   = new ObjectCache(CachePolicy.DEFAULT);
+        final var calls   = new AtomicInteger();
+        final var threads = new Thread[10];
+        final var results = new Object[threads.length];
+        final var creating = new AtomicReference<Thread>();
+        final ObjectCache.Creator<CharSequence> creator = (code) -> {
+            if (calls.incrementAndGet() == 1) try {
+                creating.set(Thread.currentThread());
+                Thread.sleep(60_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new org.geotools.api.referencing.FactoryException("Interrupted while waiting for the factory.", e);
+            }
+            return "Created";
+        };
+        for (int i=0; i<threads.length; i++) {
+            final int n = i;
+            threads[i] = Thread.ofVirtual().start(() -> {
+                try {
+                    results[n] = cache.get(CharSequence.class, "EPSG:999", creator);
+                } catch (Throwable e) {
+                    results[n] = e;
+                }
+            });
+        }
+        // Wait for one thread to be in the creator and all other threads to wait for it.
+        int waiting;
+        do {
+            Thread.sleep(1);
+            waiting = 0;
+            for (final Thread t : threads) {
+                if (t.getState() == Thread.State.WAITING || t.getState() == Thread.State.TIMED_WAITING) {
+                    waiting++;
+                }
+            }
+        } while (waiting != threads.length || creating.get() == null);
+        creating.get().interrupt();
+        int failures = 0;
+        for (int i=0; i<threads.length; i++) {
+            threads[i].join();
+            if (threads[i] == creating.get()) {
+                assertInstanceOf(FactoryException.class, results[i]);
+                failures++;
+            } else {
+                assertEquals("Created", results[i]);
+            }
+        }
+        assertEquals(1, failures);
+        assertEquals(2, calls.get());
+    }
+
+    /**
+     * Tests the cache of codes that were not found.
+     *
+     * @throws InterruptedException if the test has been interrupted.
+     */
+    @Test
+    public void testUnknownCode() throws InterruptedException {
+        final var calls = new AtomicInteger();
+        final ObjectCache.Creator<CharSequence> creator = (code) -> {
+            calls.incrementAndGet();
+            throw new org.geotools.api.referencing.NoSuchAuthorityCodeException("Not found.", "EPSG", code);
+        };
+        final var cache = new ObjectCache(CachePolicy.DEFAULT);
+        final var first = assertThrows(NoSuchAuthorityCodeException.class, () -> cache.get(CharSequence.class, "EPSG:999999", creator));
+        first.addSuppressed(new IllegalStateException("Should not be visible in other requests."));
+        final var second = assertThrows(NoSuchAuthorityCodeException.class, () -> cache.get(CharSequence.class, "epsg:999999", creator));
+        assertNotSame(first, second);
+        assertEquals(0, second.getSuppressed().length);
+        assertEquals("EPSG:999999", second.getAuthorityCode());
+        assertEquals(0, second.getStackTrace().length);
+        assertEquals(1, calls.get());
+        assertEquals(0, cache.getStatistics().hitCount());
+        assertEquals(2, cache.getStatistics().missCount());
+        /*
+         * Same test with an expiration time so short that the code is searched again.
+         */
+        final var shortLived = new ObjectCache(new CachePolicy(10, 10, (value) -> 1, CachePolicy.References.STRONG, Duration.ofNanos(1)));
+        assertThrows(NoSuchAuthorityCodeException.class, () -> shortLived.get(CharSequence.class, "EPSG:999999", creator));
+        Thread.sleep(1);
+        assertThrows(NoSuchAuthorityCodeException.class, () -> shortLived.get(CharSequence.class, "EPSG:999999", creator));
+        assertEquals(3, calls.get());
+    }
+
+    /**
+     * Tests that different views over the same GeoTools factory share the same cache.
+     *
+     * @throws FactoryException if the <abbr>CRS</abbr> cannot be created.
+     */
+    @Test
+    public void testSharedByWrappers() throws FactoryException {
+        final CRSAuthorityFactory factory = Services.getAuthorityFactory(true);
+        final CoordinateReferenceSystem crs = factory.createCoordinateReferenceSystem("EPSG:3395");
+        assertSame(crs, Services.getAuthorityFactory(true).createCoordinateReferenceSystem("epsg:3395"));
+        assertTrue(Services.getCacheStatistics(factory).orElseThrow().hitCount() >= 1);
+    }
+
+    /**
+     * Tests caching objects identified by keys other than authority codes.
+     *
+     * @throws FactoryException should never happen.
+     */
+    @Test
+    public void testComputeWithKey() throws FactoryException {
+        final var cache = new ObjectCache(CachePolicy.DEFAULT);
+        final var calls = new AtomicInteger();
+        final CharSequence first = cache.compute(CharSequence.class, List.of("A", "B"), () -> "AB" + calls.incrementAndGet());
+        assertSame(first, cache.compute(CharSequence.class, List.of("A", "B"), () -> "AB" + calls.incrementAndGet()));
+        assertEquals("BA2", cache.compute(CharSequence.class, List.of("B", "A"), () -> "BA" + calls.incrementAndGet()));
+        assertEquals(2, calls.get());
+        assertEquals(1, cache.getStatistics().hitCount());
+    }
+
+    /**
+     * Tests that the operations between the same pair of <abbr>CRS</abbr> are cached,
+     * and that the lenient and strict factories do not share their operations.
+     *
+     * @throws FactoryException if the <abbr>CRS</abbr> or the operations cannot be created.
+     */
+    @Test
+    public void testOperationCache() throws FactoryException {
+        final CRSAuthorityFactory crsFactory = Services.getAuthorityFactory(true);
+        final CoordinateOperationFactory opFactory = Services.getCoordinateOperationFactory(true);
+        final CoordinateReferenceSystem source = crsFactory.createCoordinateReferenceSystem("EPSG:4326");
+        final CoordinateReferenceSystem target = crsFactory.createCoordinateReferenceSystem("EPSG:3395");
+        final CoordinateOperation operation = opFactory.createOperation(source, target);
+        assertSame(operation, opFactory.createOperation(source, target));
+        assertTrue(Services.getCacheStatistics(opFactory).orElseThrow().hitCount() >= 1);
+        assertNotSame(operation, Services.getCoordinateOperationFactory(false).createOperation(source, target));
+
+        final CoordinateOperationAuthorityFactory authority = Services.loadCoordinateOperationAuthorityFactories().iterator().next();
+        final Set<CoordinateOperation> operations = authority.createFromCoordinateReferenceSystemCodes("EPSG:4230", "EPSG:4326");
+        assertSame(operations, authority.createFromCoordinateReferenceSystemCodes("epsg:4230", "EPSG:4326"));
+    }
+
+    /**
+     * Tests the cache of operations when metadata are ignored. <abbr>CRS</abbr> which differ only by their names
+     * shall share the same operation, while <abbr>CRS</abbr> which differ by the order of parameter values or by
+     * the datum shift shall not.
+     *
+     * @throws Exception if a <abbr>CRS</abbr> cannot be parsed or an operation cannot be created.
+     */
+    @Test
+    public void testOperationCacheIgnoringMetadata() throws Exception {
+        final boolean ignoreMetadata = Services.isOperationCacheIgnoringMetadata();
+        try {
+            Services.setOperationCacheIgnoringMetadata(true);
+            final CoordinateOperationFactory opFactory = Services.getCoordinateOperationFactory(true);
+            final CoordinateReferenceSystem target = Services.getAuthorityFactory(true).createCoordinateReferenceSystem("EPSG:4326");
+            final CoordinateOperation operation = opFactory.createOperation(projected("First", 0, 30, 0), target);
+            assertSame   (operation, opFactory.createOperation(projected("Second", 0, 30, 0), target));
+            assertNotSame(operation, opFactory.createOperation(projected("First", 30,  0, 0), target));
+            assertNotSame(operation, opFactory.createOperation(projected("First",  0, 30, 5), target));
+        } finally {
+            Services.setOperationCacheIgnoringMetadata(ignoreMetadata);
+        }
+    }
+
+    /**
+     * Parses a Transverse Mercator projection with the given name, origin and datum shift.
+     *
+     * @param  name              the name of the projected <abbr>CRS</abbr>.
+     * @param  latitudeOfOrigin  the latitude of origin in degrees.
+     * @param  centralMeridian   the longitude of origin in degrees.
+     * @param  shift             the translation along the 3 geocentric axes of the datum shift, in metres.
+     * @return the parsed <abbr>CRS</abbr>.
+     * @throws Exception if the <abbr>WKT</abbr> cannot be parsed.
+     */
+    private static CoordinateReferenceSystem projected(final String name, final double latitudeOfOrigin,
+            final double centralMeridian, final double shift) throws Exception
+    {
+        return Wrappers.geoapi(CRS.parseWKT("PROJCS[\"" + name + "\", GEOGCS[\"" + name + "\","
+                + " DATUM[\"Test\", SPHEROID[\"Clarke 1866\", 6378206.4, 294.9786982138982],"
+                + " TOWGS84[" + shift + ", " + shift + ", " + shift + ", 0, 0, 0, 0]],"
+                + " PRIMEM[\"Greenwich\", 0], UNIT[\"degree\", 0.017453292519943295]],"
+                + " PROJECTION[\"Transverse_Mercator\"],"
+                + " PARAMETER[\"latitude_of_origin\", " + latitudeOfOrigin + "],"
+                + " PARAMETER[\"central_meridian\", " + centralMeridian + "],"
+                + " PARAMETER[\"scale_factor\", 0.9996],"
+                + " UNIT[\"metre\", 1]]"));
+    }
+}
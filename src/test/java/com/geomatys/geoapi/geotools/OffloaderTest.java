@@ -0,0 +1,192 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.geotools.api.referencing.FactoryException;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Tests {@link Offloader}.
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+public class OffloaderTest {
+    /**
+     * Creates a new test case.
+     */
+    public OffloaderTest() {
+    }
+
+    /**
+     * Tests that calls from virtual threads are executed on platform threads with a bounded concurrency,
+     * and that exceptions are propagated to the caller.
+     *
+     * @throws Exception if an error occurred while executing the calls.
+     */
+    @Test
+    public void testOffloading() throws Exception {
+        final var running = new AtomicInteger();
+        final var failure = new FactoryException("Test failure.");
+        Services.setOffloading(true);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            final var results = new Future<?>[100];
+            for (int i=0; i<results.length; i++) {
+                results[i] = executor.submit(() -> Offloader.call(Object.class, () -> {
+                    running.incrementAndGet();
+                    try {
+                        Thread.sleep(1);
+                    } catch (InterruptedException e) {
+                        throw new FactoryException(e);
+                    } finally {
+                        running.decrementAndGet();
+                    }
+                    return Thread.currentThread().isVirtual();
+                }));
+            }
+            for (final Future<?> result : results) {
+                assertFalse((Boolean) result.get());
+            }
+            final Future<?> failed = executor.submit(() -> Offloader.call(Object.class, () -> {
+                throw failure;
+            }));
+            assertSame(failure, assertThrows(Exception.class, failed::get).getCause());
+        } finally {
+            Services.setOffloading(false);
+        }
+        assertEquals(0, running.get());
+        assertEquals(0, Offloader.LIMITER.running());
+    }
+
+    /**
+     * Tests that the permit of an offloaded call is kept until the call finishes in the platform thread,
+     * even if the caller stopped waiting because it has been interrupted.
+     *
+     * @throws Exception if an error occurred while executing the call.
+     */
+    @Test
+    public void testInterruptedCaller() throws Exception {
+        final var started = new CountDownLatch(1);
+        final var release = new CountDownLatch(1);
+        final var failure = new CompletableFuture<Throwable>();
+        Services.setOffloading(true);
+        try {
+            final Thread caller = Thread.ofVirtual().start(() -> {
+                try {
+                    Offloader.call(Object.class, () -> {
+                        started.countDown();
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            throw new FactoryException(e);
+                        }
+                        return null;
+                    });
+                    failure.complete(null);
+                } catch (Throwable e) {
+                    failure.complete(e);
+                }
+            });
+            started.await();
+            caller.interrupt();
+            caller.join();
+            assertInstanceOf(FactoryException.class, failure.join());
+            assertEquals(1, Offloader.LIMITER.running());
+            release.countDown();
+            final long deadline = System.nanoTime() + 10_000_000_000L;
+            while (Offloader.LIMITER.running() != 0 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(0, Offloader.LIMITER.running());
+        } finally {
+            release.countDown();
+            Services.setOffloading(false);
+        }
+    }
+
+    /**
+     * Tests the adjustment of the limit according to the latencies.
+     * This test uses a limiter independent of the offloader, with latencies given explicitly.
+     */
+    @Test
+    public void testLimiter() {
+        final Class<?> fast = Object.class;
+        final Class<?> slow = String.class;
+        final long ms = 1_000_000;
+        final var limiter = new Offloader.Limiter(8);
+        for (int i=0; i<200; i++) {
+            limiter.update(fast, ms, true);
+        }
+        assertEquals(8, limiter.limit(), "Stable latency shall not reduce the limit.");
+
+        limiter.update(fast, 10*ms, true);
+        assertEquals(8, limiter.limit(), "A single slow call shall not reduce the limit.");
+        for (int i=0; i<50; i++) {
+            limiter.update(fast, ms, true);
+        }
+        assertEquals(8, limiter.limit());
+
+        for (int i=0; i<100; i++) {
+            limiter.update(fast, ms, true);
+            limiter.update(slow, 100*ms, true);
+        }
+        assertEquals(8, limiter.limit(), "Latencies of different kinds of calls shall not be mixed.");
+
+        for (int i=0; i<20; i++) {
+            limiter.update(fast, 5*ms, false);
+        }
+        final int reduced = limiter.limit();
+        assertTrue(reduced < 8, "A durable increase of latency shall reduce the limit.");
+        assertTrue(reduced >= 1);
+
+        for (int i=0; i<200; i++) {
+            limiter.update(fast, 5*ms, true);
+        }
+        assertEquals(8, limiter.limit(), "The limit shall grow again when the new latency becomes the norm.");
+    }
+
+    /**
+     * Tests the release of permits for calls which have not been executed.
+     *
+     * @throws InterruptedException if the test has been interrupted.
+     */
+    @Test
+    public void testReleaseWithoutCall() throws InterruptedException {
+        final var limiter = new Offloader.Limiter(2);
+        for (int i=0; i<100; i++) {
+            limiter.acquire();
+            limiter.acquire();
+            assertEquals(2, limiter.running());
+            limiter.release();
+            limiter.release();
+        }
+        assertEquals(0, limiter.running());
+        assertEquals(2, limiter.limit(), "Calls not executed shall not change the limit.");
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.opengis.referencing.crs.CRSAuthorityFactory;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.util.FactoryException;
+
+
+/**
+ * Measures the throughput of <abbr>CRS</abbr> creations requested by 10,000 virtual threads,
+ * with and without offloading of the blocking calls to platform threads. The caches of this
+ * project are disabled during the measurement, so that each request reaches the GeoTools factory.
+ * This is not a JUnit test because the result depends on the machine.
+ * Run with the test classpath as below:
+ *
+ * <pre>java com.geomatys.geoapi.geotools.OffloadingLoadBenchmark</pre>
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+public final class OffloadingLoadBenchmark {
+    /**
+     * Number of virtual threads.
+     */
+    private static final int THREADS = 10_000;
+
+    /**
+     * Number of distinct codes requested by the threads.
+     */
+    private static final int CODES = 200;
+
+    /**
+     * Do not allow instantiation of this class.
+     */
+    private OffloadingLoadBenchmark() {
+    }
+
+    /**
+     * Creates one <abbr>CRS</abbr> in each of {@value #THREADS} virtual threads and prints the throughput.
+     *
+     * @param  label    label of the measurement.
+     * @param  factory  the factory to use for creating the <abbr>CRS</abbr>.
+     * @param  codes    the codes of the <abbr>CRS</abbr> to create.
+     */
+    private static void run(final String label, final CRSAuthorityFactory factory, final String[] codes) {
+        final var failures = new AtomicInteger();
+        final long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i=0; i<THREADS; i++) {
+                final String code = codes[i % codes.length];
+                executor.execute(() -> {
+                    try {
+                        factory.createCoordinateReferenceSystem(code);
+                    } catch (FactoryException e) {
+                        failures.incrementAndGet();
+                    }
+                });
+            }
+        }
+        final double seconds = (System.nanoTime() - start) / 1E9;
+        System.out.printf("%-12s %10.0f CRS/s  (%d failures, limit = %d)%n",
+                          label, THREADS / seconds, failures.get(), Offloader.limit());
+    }
+
+    /**
+     * Runs the load test and prints the results.
+     *
+     * @param  args  ignored.
+     * @throws FactoryException if the factory or the authority codes cannot be obtained.
+     */
+    public static void main(final String[] args) throws FactoryException {
+        final CRSAuthorityFactory factory = Services.getAuthorityFactory(true);
+        final var codes = new ArrayList<String>(CODES);
+        for (final String code : factory.getAuthorityCodes(CoordinateReferenceSystem.class)) {
+            codes.add(code);
+            if (codes.size() >= CODES) {
+                break;
+            }
+        }
+        final String[] array = codes.toArray(String[]::new);
+        final CachePolicy policy = Services.getCachePolicy();
+        Services.setCachePolicy(new CachePolicy(0, 0, (value) -> 1, CachePolicy.References.STRONG, Duration.ZERO));
+        try {
+            run("Warm-up", factory, array);
+            for (int i=0; i<3; i++) {
+                Services.setOffloading(false);
+                run("Direct", factory, array);
+                Services.setOffloading(true);
+                run("Offloaded", factory, array);
+            }
+        } finally {
+            Services.setOffloading(false);
+            Services.setCachePolicy(policy);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Tests {@link SearchIndex}.
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+public class SearchIndexTest {
+    /**
+     * Creates a new test case.
+     */
+    public SearchIndexTest() {
+    }
+
+    /**
+     * Returns the codes found by the given query.
+     */
+    private static List<String> search(final SearchIndex index, final String query, final boolean fuzzy) {
+        return index.search(query, fuzzy, 10).stream().map(SearchIndex.Match::code).toList();
+    }
+
+    /**
+     * Tests prefix, accent-insensitive and fuzzy searches.
+     */
+    @Test
+    public void testSearch() {
+        final var index = new SearchIndex(Long.MAX_VALUE);      // Publish only when requested.
+        index.add("EPSG:4326", "WGS 84", List.of("WGS84"));
+        index.add("EPSG:3857", "WGS 84 / Pseudo-Mercator", List.of());
+        index.add("EPSG:2154", "RGF93 v1 / Lambert-93", List.of());
+        index.add("EPSG:4807", "NTF (Paris)", List.of("Nouvelle Triangulation Française"));
+        assertEquals(0, index.size());
+        index.publish();
+        assertEquals(4, index.size());
+
+        assertEquals(List.of("EPSG:4326", "EPSG:3857"), search(index, "wgs 84", false));
+        assertEquals(List.of("EPSG:3857"), search(index, "wgs merc", false));
+        assertEquals(List.of("EPSG:4807"), search(index, "francaise", false));
+        assertEquals(List.of("EPSG:2154"), search(index, "2154", false));
+        assertTrue(search(index, "lambrt", false).isEmpty());
+        assertEquals(List.of("EPSG:2154"), search(index, "lambrt", true));
+        assertEquals(List.of("EPSG:3857"), search(index, "mecrator", true));
+        assertTrue(search(index, "", true).isEmpty());
+    }
+
+    /**
+     * Tests the approximate prefix matching.
+     */
+    @Test
+    public void testApproximatePrefix() {
+        assertTrue (SearchIndex.isApproximatePrefix("merc",   "mercator", 1));
+        assertTrue (SearchIndex.isApproximatePrefix("mrc",    "mercator", 1));
+        assertTrue (SearchIndex.isApproximatePrefix("mertac", "mercator", 2));
+        assertFalse(SearchIndex.isApproximatePrefix("lambert", "mercator", 2));
+        assertFalse(SearchIndex.isApproximatePrefix("mercators", "merc", 2));
+    }
+
+    /**
+     * Verifies that the approximate search finds the same codes as a test of all terms.
+     * Random words are made of a small alphabet, for having many words close to each other.
+     */
+    @Test
+    public void testApproximateSearch() {
+        final var random = new Random(8412);
+        final var index  = new SearchIndex(Long.MAX_VALUE);
+        final var words  = new String[2000];
+        for (int i=0; i<words.length; i++) {
+            final var word = new StringBuilder();
+            for (int n = 2 + random.nextInt(8); --n >= 0;) {
+                word.append((char) ('a' + random.nextInt(4)));
+            }
+            words[i] = word.toString();
+            index.add("T:" + i, words[i], List.of());
+        }
+        index.publish();
+        for (int q=0; q<50; q++) {
+            final String word = words[random.nextInt(words.length)].substring(0, 1) + words[q];
+            if (word.length() >= 3) {
+                final int tolerance = (word.length() >= 6) ? 2 : 1;
+                final var expected = new TreeSet<String>();
+                for (int i=0; i<words.length; i++) {
+                    if (SearchIndex.isApproximatePrefix(word, words[i], tolerance)) {
+                        expected.add("T:" + i);
+                    }
+                }
+                assertEquals(expected, new TreeSet<>(index.search(word, true, Integer.MAX_VALUE)
+                        .stream().map(SearchIndex.Match::code).toList()), word);
+            }
+        }
+    }
+
+    /**
+     * Verifies that an index published in many small segments gives the same results as an index published once.
+     * The index publishing after each addition merges its segments many times.
+     */
+    @Test
+    public void testSegments() {
+        final var random = new Random(3701);
+        final var incremental = new SearchIndex(0);
+        final var complete    = new SearchIndex(Long.MAX_VALUE);
+        for (int i=0; i<1000; i++) {
+            final var name = new StringBuilder();
+            for (int n = 1 + random.nextInt(3); --n >= 0;) {
+                name.append(' ').append((char) ('a' + random.nextInt(4))).append((char) ('a' + random.nextInt(4)))
+                                .append((char) ('a' + random.nextInt(4)));
+            }
+            incremental.add("T:" + i, name.toString(), List.of());
+            complete   .add("T:" + i, name.toString(), List.of());
+        }
+        complete.publish();
+        assertEquals(1000, incremental.size());
+        assertEquals(1000, complete.size());
+        for (final String query : new String[] {"abc", "ab", "abc da", "bcd", "t", "999"}) {
+            assertEquals(complete.search(query, false, 20), incremental.search(query, false, 20), query);
+            assertEquals(complete.search(query, true,  20), incremental.search(query, true,  20), query);
+        }
+    }
+
+    /**
+     * Tests that the codes are published for searches after a delay, even if their number is small.
+     *
+     * @throws InterruptedException if the test has been interrupted while waiting.
+     */
+    @Test
+    public void testPublishInterval() throws InterruptedException {
+        final var index = new SearchIndex();
+        index.add("EPSG:4326", "WGS 84", List.of());
+        Thread.sleep(SearchIndex.PUBLISH_INTERVAL + 10);
+        index.add("EPSG:3857", "WGS 84 / Pseudo-Mercator", List.of());
+        assertEquals(2, index.size());
+        assertEquals(List.of("EPSG:4326", "EPSG:3857"), search(index, "WGS 84", false));
+    }
+}
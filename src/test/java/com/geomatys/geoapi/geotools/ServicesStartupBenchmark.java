@@ -0,0 +1,93 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import org.opengis.util.FactoryException;
+
+
+/**
+ * Measures the cost of obtaining the factories from {@link Services}, first on a cold start, then after
+ * a refresh and finally in steady state. The cold start measurement is meaningful only for the first
+ * execution in a fresh <abbr>JVM</abbr>. This is not a JUnit test because the result depends on the
+ * machine. Run with the test classpath as below:
+ *
+ * <pre>java com.geomatys.geoapi.geotools.ServicesStartupBenchmark</pre>
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+public final class ServicesStartupBenchmark {
+    /**
+     * Number of calls in the steady state measurement.
+     */
+    private static final int CALLS = 1_000_000;
+
+    /**
+     * Do not allow instantiation of this class.
+     */
+    private ServicesStartupBenchmark() {
+    }
+
+    /**
+     * Obtains all factories once and returns the elapsed time in milliseconds.
+     *
+     * @return elapsed time in milliseconds.
+     * @throws FactoryException if the GeoTools {@code CRS} class has not been found.
+     */
+    private static double getAll() throws FactoryException {
+        final long start = System.nanoTime();
+        Services.getAuthorityFactory(false);
+        Services.getAuthorityFactory(true);
+        Services.getCoordinateOperationFactory(false);
+        Services.getCoordinateOperationFactory(true);
+        Services.loadCRSAuthorityFactories().iterator().hasNext();
+        Services.loadCoordinateOperationFactories().iterator().hasNext();
+        return (System.nanoTime() - start) / 1E6;
+    }
+
+    /**
+     * Runs the benchmark and prints the results.
+     *
+     * @param  args  ignored.
+     * @throws FactoryException if the GeoTools {@code CRS} class has not been found.
+     */
+    public static void main(final String[] args) throws FactoryException {
+        System.out.printf("Cold start:   %10.3f ms%n", getAll());
+        Services.refresh();
+        System.out.printf("After refresh:%10.3f ms%n", getAll());
+        final long start = System.nanoTime();
+        int count = 0;
+        for (int i=0; i<CALLS; i++) {
+            if (Services.getAuthorityFactory((i & 1) != 0) != null) {
+                count++;
+            }
+        }
+        System.out.printf("Steady state: %10.3f ns/call%n", (System.nanoTime() - start) / (double) count);
+        System.out.printf("First CRS:    %10.3f ms%n", firstCRS());
+    }
+
+    /**
+     * Returns the time in milliseconds for creating a first <abbr>CRS</abbr> from the authority factory.
+     * This includes the connection to the <abbr>EPSG</abbr> database.
+     *
+     * @return elapsed time in milliseconds.
+     * @throws FactoryException if the <abbr>CRS</abbr> cannot be created.
+     */
+    private static double firstCRS() throws FactoryException {
+        final long start = System.nanoTime();
+        Services.getAuthorityFactory(true).createCoordinateReferenceSystem("EPSG:4326");
+        return (System.nanoTime() - start) / 1E6;
+    }
+}
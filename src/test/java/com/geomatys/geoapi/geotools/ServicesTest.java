@@ -15,14 +15,22 @@
  */
 package com.geomatys.geoapi.geotools;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.ServiceLoader;
 import org.opengis.util.FactoryException;
 import org.opengis.referencing.crs.CRSAuthorityFactory;
 import org.opengis.referencing.operation.CoordinateOperationFactory;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 
 /**
@@ -57,6 +65,22 @@ public class ServicesTest {
         assertNotNull(Services.getCoordinateOperationFactory(false));
     }
 
+    /**
+     * Verifies that the factories are shared between calls and discovered again after a refresh.
+     *
+     * @throws FactoryException if the GeoTools {@link org.geotools.referencing.CRS} class has not been found.
+     */
+    @Test
+    public void testRefresh() throws FactoryException {
+        final CRSAuthorityFactory factory = Services.getAuthorityFactory(true);
+        final Iterable<CRSAuthorityFactory> providers = Services.loadCRSAuthorityFactories();
+        assertSame(factory, Services.getAuthorityFactory(true));
+        assertSame(providers, Services.loadCRSAuthorityFactories());
+        Services.refresh();
+        assertNotSame(factory, Services.getAuthorityFactory(true));
+        assertNotSame(providers, Services.loadCRSAuthorityFactories());
+    }
+
     /**
      * Verifies that {@link Services#loadCRSAuthorityFactories()} finds at least one factory.
      */
@@ -151,4 +175,61 @@ public class ServicesTest {
         var crs = Services.getAuthorityFactory(false).createGeographicCRS("EPSG:4326");
         assertTrue(factory.createOperation(crs, crs).getMathTransform().isIdentity());
     }
+
+    /**
+     * Tests the recording of a profile and its replay by {@link Services#warmUp(Path, boolean, boolean)}.
+     *
+     * @param  directory  a temporary directory where to write the profile.
+     * @throws Exception if an error occurred while creating the objects or writing the profile.
+     */
+    @Test
+    public void testWarmUp(@TempDir final Path directory) throws Exception {
+        final Path profile = directory.resolve("profile.txt");
+        Services.startRecording();
+        try {
+            final CRSAuthorityFactory factory = Services.getAuthorityFactory(true);
+            final var source = factory.createCoordinateReferenceSystem("epsg:4326");
+            final var target = factory.createCoordinateReferenceSystem("EPSG:3395");
+            Services.getCoordinateOperationFactory(true).createOperation(source, target);
+        } finally {
+            Services.stopRecording();
+        }
+        Services.writeProfile(profile);
+        final List<String> lines = Files.readAllLines(profile);
+        assertTrue(lines.contains("EPSG:4326 longitudeFirst=true"));
+        assertTrue(lines.contains("EPSG:3395 longitudeFirst=true"));
+        assertTrue(lines.contains("EPSG:4326 EPSG:3395 longitudeFirst=true lenient=true"));
+        assertEquals(3, (int) Services.warmUp(profile, false, false).get());
+    }
+
+    /**
+     * Tests that the factory arguments are recorded for each entry of a profile,
+     * and that entries without arguments are replayed with the default arguments.
+     *
+     * @param  directory  a temporary directory where to write the profile.
+     * @throws Exception if an error occurred while creating the objects or reading the profile.
+     */
+    @Test
+    public void testProfileArguments(@TempDir final Path directory) throws Exception {
+        Services.startRecording();
+        try {
+            Services.getAuthorityFactory(false).createCoordinateReferenceSystem("EPSG:4326");
+            Services.getLazyAuthorityFactory(true).createCoordinateReferenceSystem("EPSG:4326").getCoordinateSystem();
+        } finally {
+            Services.stopRecording();
+        }
+        final Path profile = directory.resolve("profile.txt");
+        Services.writeProfile(profile);
+        final List<String> lines = Files.readAllLines(profile);
+        assertTrue(lines.contains("EPSG:4326 longitudeFirst=false"));
+        assertTrue(lines.contains("EPSG:4326 longitudeFirst=true"));
+
+        Files.write(profile, List.of("EPSG:4326", "EPSG:4326 EPSG:3395 lenient=false", "EPSG:3395 unknown=true"));
+        final List<AccessProfile.Entry> entries = AccessProfile.read(profile);
+        assertEquals(2, entries.size());
+        assertNull(entries.get(0).longitudeFirst());
+        assertNull(entries.get(1).longitudeFirst());
+        assertEquals(Boolean.FALSE, entries.get(1).lenient());
+        assertEquals(2, (int) Services.warmUp(profile, true, true).get());
+    }
 }
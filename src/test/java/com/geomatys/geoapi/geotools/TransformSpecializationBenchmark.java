@@ -0,0 +1,207 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.awt.geom.AffineTransform;
+import java.util.Random;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
+import org.geotools.api.referencing.FactoryException;
+import org.geotools.api.referencing.crs.CoordinateReferenceSystem;
+import org.geotools.referencing.CRS;
+import org.geotools.referencing.operation.transform.AffineTransform2D;
+
+
+/**
+ * Compares the performance of plain and specialized transform wrappers on a mixed workload.
+ * The workload cycles over transforms of different GeoTools classes and transforms a few points
+ * at a time with each of them, which is the case where the calls from the plain wrappers become
+ * megamorphic. Each transform is invoked from its own call site, as recommended by
+ * {@link Transforms#specialize(MathTransform)}. This is not a JUnit test because the measurement takes a while and its result
+ * depends on the machine. Run with the test classpath as below:
+ *
+ * <pre>java com.geomatys.geoapi.geotools.TransformSpecializationBenchmark [plain|specialized]</pre>
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+public final class TransformSpecializationBenchmark {
+    /**
+     * Number of points transformed in each call.
+     * Kept small for making the cost of the calls significant compared to the cost of the math.
+     */
+    private static final int POINTS_PER_CALL = 4;
+
+    /**
+     * Number of calls to each transform in one measurement.
+     */
+    private static final int CALLS = 200_000;
+
+    /**
+     * Number of measurements to discard before the measurements to report.
+     */
+    private static final int WARMUP = 5, MEASURES = 5;
+
+    /**
+     * A call to one of the transforms to benchmark.
+     * Each instance has its own call site to the transform.
+     */
+    @FunctionalInterface
+    private interface CallSite {
+        /**
+         * Transforms the given number of points from the source array to the target array.
+         *
+         * @param  source  the source coordinates.
+         * @param  target  where to store the target coordinates.
+         * @param  count   number of points to transform.
+         * @throws TransformException if a point cannot be transformed.
+         */
+        void transform(double[] source, double[] target, int count) throws TransformException;
+    }
+
+    /**
+     * Calls to the transforms to benchmark, with one call site per transform.
+     */
+    private final CallSite[] callSites;
+
+    /**
+     * Source coordinates, in degrees of longitude and latitude in a region valid for all transforms.
+     */
+    private final double[] source;
+
+    /**
+     * Destination coordinates. Values are ignored, except for preventing dead code elimination.
+     */
+    private final double[] target;
+
+    /**
+     * Creates a new benchmark for the given transforms.
+     *
+     * @param transforms  the transforms to benchmark.
+     */
+    private TransformSpecializationBenchmark(final MathTransform[] transforms) {
+        callSites = new CallSite[transforms.length];
+        for (int i=0; i<transforms.length; i++) {
+            callSites[i] = callSite(i, transforms[i]);
+        }
+        final var random = new Random(4326);
+        source = new double[POINTS_PER_CALL * 2];
+        target = new double[source.length];
+        for (int i=0; i<source.length;) {
+            source[i++] = random.nextDouble(0, 6);      // Longitude in UTM zone 31.
+            source[i++] = random.nextDouble(40, 55);    // Latitude.
+        }
+    }
+
+    /**
+     * Returns a call to the given transform from a call site used by no other transform.
+     * Each lambda expression below is compiled into a separated method, so the <abbr>JIT</abbr>
+     * compiler profiles the receiver types of each call independently.
+     *
+     * @param  index      index of the transform in the workload.
+     * @param  transform  the transform to call.
+     * @return the call to the given transform.
+     */
+    private static CallSite callSite(final int index, final MathTransform transform) {
+        switch (index) {
+            case 0: return (source, target, count) -> transform.transform(source, 0, target, 0, count);
+            case 1: return (source, target, count) -> transform.transform(source, 0, target, 0, count);
+            case 2: return (source, target, count) -> transform.transform(source, 0, target, 0, count);
+            case 3: return (source, target, count) -> transform.transform(source, 0, target, 0, count);
+            case 4: return (source, target, count) -> transform.transform(source, 0, target, 0, count);
+            default: throw new IllegalArgumentException("Too many transforms.");
+        }
+    }
+
+    /**
+     * Executes the workload once.
+     *
+     * @return elapsed time in nanoseconds per transformed point.
+     * @throws TransformException if a point cannot be transformed.
+     */
+    private double run() throws TransformException {
+        double sum = 0;
+        final long start = System.nanoTime();
+        for (int i=0; i<CALLS; i++) {
+            for (final CallSite call : callSites) {
+                call.transform(source, target, POINTS_PER_CALL);
+                sum += target[0];
+            }
+        }
+        final long elapsed = System.nanoTime() - start;
+        if (Double.isNaN(sum)) {
+            System.out.println("Unexpected NaN.");
+        }
+        return elapsed / ((double) CALLS * callSites.length * POINTS_PER_CALL);
+    }
+
+    /**
+     * Runs the warmup and reports the mean of the measurements.
+     *
+     * @param  label  the label to show in the report.
+     * @throws TransformException if a point cannot be transformed.
+     */
+    private void report(final String label) throws TransformException {
+        for (int i=0; i<WARMUP; i++) {
+            run();
+        }
+        double sum = 0;
+        for (int i=0; i<MEASURES; i++) {
+            sum += run();
+        }
+        System.out.printf("%-12s %8.2f ns/point%n", label, sum / MEASURES);
+    }
+
+    /**
+     * Creates the mix of GeoTools transforms used by the benchmark.
+     *
+     * @return wrappers around GeoTools transforms of different classes.
+     * @throws FactoryException if a <abbr>CRS</abbr> or an operation cannot be created.
+     */
+    private static MathTransform[] createTransforms() throws FactoryException {
+        final CoordinateReferenceSystem source = CRS.decode("EPSG:4326", true);
+        final String[] targets = {"EPSG:3857", "EPSG:32631", "EPSG:3395", "EPSG:2154"};
+        final var transforms = new MathTransform[targets.length + 1];
+        for (int i=0; i<targets.length; i++) {
+            transforms[i] = MathTransformFromGT.wrap(CRS.findMathTransform(source, CRS.decode(targets[i], true), true));
+        }
+        transforms[targets.length] = MathTransformFromGT.wrap(new AffineTransform2D(new AffineTransform(2, 0, 0, 3, 10, 20)));
+        return transforms;
+    }
+
+    /**
+     * Runs the benchmark with plain wrappers, then with specialized wrappers.
+     * For more reliable results, each mode should be run in a separated <abbr>JVM</abbr>
+     * by giving {@code "plain"} or {@code "specialized"} in argument, because the profiling
+     * done during the first run would otherwise pollute the second run.
+     *
+     * @param  args  {@code "plain"}, {@code "specialized"} or nothing for both.
+     * @throws Exception if an error occurred while creating or executing the transforms.
+     */
+    public static void main(final String[] args) throws Exception {
+        final boolean plain       = args.length == 0 || args[0].equals("plain");
+        final boolean specialized = args.length == 0 || args[0].equals("specialized");
+        final MathTransform[] transforms = createTransforms();
+        if (plain) {
+            new TransformSpecializationBenchmark(transforms).report("Plain:");
+        }
+        if (specialized) {
+            for (int i=0; i<transforms.length; i++) {
+                transforms[i] = Transforms.specialize(transforms[i]);
+            }
+            new TransformSpecializationBenchmark(transforms).report("Specialized:");
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.awt.geom.AffineTransform;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.MathTransform1D;
+import org.opengis.referencing.operation.MathTransform2D;
+import org.opengis.referencing.operation.TransformException;
+import org.geotools.geometry.GeneralPosition;
+import org.geotools.referencing.operation.transform.AffineTransform2D;
+import org.geotools.referencing.operation.transform.ExponentialTransform1D;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+
+/**
+ * Tests {@link Transforms}.
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+public class TransformsTest {
+    /**
+     * Creates a new test case.
+     */
+    public TransformsTest() {
+    }
+
+    /**
+     * Tests the specialization of a two-dimensional transform.
+     * The specialized wrapper shall give the same results as the plain wrapper.
+     *
+     * @throws TransformException if a coordinate cannot be transformed.
+     */
+    @Test
+    public void testSpecialize2D() throws TransformException {
+        final var impl = new AffineTransform2D(new AffineTransform(2, 0.5, -1, 3, 10, 20));
+        final MathTransform plain = MathTransformFromGT.wrap(impl);
+        final MathTransform specialized = Transforms.specialize(plain);
+        assertNotSame(plain, specialized);
+        assertInstanceOf(MathTransform2D.class, specialized);
+        assertSame(impl, Wrappers.geotools(specialized));
+        assertEquals(2, specialized.getSourceDimensions());
+        assertEquals(2, specialized.getTargetDimensions());
+
+        final double[] source = {4, 5, -3, 7, 0, 0, 12.5, -8};
+        final double[] expected = new double[source.length];
+        final double[] actual   = new double[source.length];
+        plain      .transform(source, 0, expected, 0, source.length / 2);
+        specialized.transform(source, 0, actual,   0, source.length / 2);
+        assertArrayEquals(expected, actual);
+
+        final var point = DirectPositionFromGT.wrap(new GeneralPosition(4, 5));
+        assertArrayEquals(plain.transform(point, null).getCoordinate(), specialized.transform(point, null).getCoordinate());
+        plain      .inverse().transform(expected, 0, expected, 0, source.length / 2);
+        specialized.inverse().transform(actual,   0, actual,   0, source.length / 2);
+        assertArrayEquals(expected, actual);
+    }
+
+    /**
+     * Tests the specialization of a one-dimensional transform.
+     *
+     * @throws TransformException if a value cannot be transformed.
+     */
+    @Test
+    public void testSpecialize1D() throws TransformException {
+        final MathTransform plain = MathTransformFromGT.wrap(ExponentialTransform1D.create(10, 2));
+        final MathTransform specialized = Transforms.specialize(plain);
+        final var tr = assertInstanceOf(MathTransform1D.class, specialized);
+        final var reference = (MathTransform1D) plain;
+        for (final double x : new double[] {-2, 0, 0.5, 3}) {
+            assertEquals(reference.transform(x),  tr.transform(x));
+            assertEquals(reference.derivative(x), tr.derivative(x));
+        }
+    }
+
+    /**
+     * Tests that null values and transforms which are not views of GeoTools transforms are returned unchanged.
+     */
+    @Test
+    public void testUnchanged() {
+        assertNull(Transforms.specialize(null));
+        final MathTransform plain = MathTransformFromGT.wrap(ExponentialTransform1D.create(10, 2));
+        final var cached = new CachedTransform(plain, 10);
+        assertSame(cached, Transforms.specialize(cached));
+    }
+}
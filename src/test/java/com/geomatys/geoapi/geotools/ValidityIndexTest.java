@@ -0,0 +1,89 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+/**
+ * Tests {@link ValidityIndex}.
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+public class ValidityIndexTest {
+    /**
+     * Creates a new test case.
+     */
+    public ValidityIndexTest() {
+    }
+
+    /**
+     * Tests point and box queries on a few domains, including one crossing the anti-meridian.
+     */
+    @Test
+    public void testQueries() {
+        final var domains = new HashMap<String, double[]>();
+        domains.put("World",  new double[] {-180, 180, -90, 90});
+        domains.put("France", new double[] {-5, 10, 41, 51});
+        domains.put("Fiji",   new double[] {176, -178, -20, -12});
+        domains.put("Islands", new double[] {-5, 0, 41, 43, 170, 172, -20, -18});
+        domains.put("None",   new double[0]);
+        final var index = new ValidityIndex(domains);
+        assertEquals(4, index.size());
+        assertEquals(List.of("France", "World"), index.containing(2, 45));
+        assertEquals(List.of("Fiji", "World"),   index.containing(179, -15));
+        assertEquals(List.of("Fiji", "World"),   index.containing(-179, -15));
+        assertEquals(List.of("Fiji", "World"),   index.containing(181, -15));
+        assertEquals(List.of("Islands", "France", "World"), index.containing(-1, 42));
+        assertEquals(List.of("Islands", "Fiji", "World"), index.intersecting(171, -179, -19, -19));
+    }
+
+    /**
+     * Compares the results of the index with a linear scan on random boxes.
+     */
+    @Test
+    public void compareWithLinearScan() {
+        final var random  = new Random(5418);
+        final var domains = new HashMap<String, double[]>();
+        for (int i=0; i<2000; i++) {
+            final double west  = random.nextDouble(-180, 170);
+            final double south = random.nextDouble(-90, 80);
+            domains.put("C" + i, new double[] {west, west + random.nextDouble(10), south, south + random.nextDouble(10)});
+        }
+        final var index = new ValidityIndex(domains);
+        for (int i=0; i<100; i++) {
+            final double x = random.nextDouble(-180, 180);
+            final double y = random.nextDouble(-90, 90);
+            final var expected = new ArrayList<String>();
+            for (final Map.Entry<String, double[]> entry : domains.entrySet()) {
+                final double[] b = entry.getValue();
+                if (x >= b[0] && x <= b[1] && y >= b[2] && y <= b[3]) {
+                    expected.add(entry.getKey());
+                }
+            }
+            final List<String> actual = index.containing(x, y);
+            assertEquals(expected.size(), actual.size());
+            assertEquals(new HashSet<>(expected), new HashSet<>(actual));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership. You may not use this
+ * file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.geomatys.geoapi.geotools;
+
+import java.awt.geom.AffineTransform;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import org.opengis.referencing.operation.TransformException;
+import org.geotools.referencing.operation.transform.AffineTransform2D;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+/**
+ * Tests {@link WKBTransform}.
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ */
+public class WKBTransformTest {
+    /**
+     * The transform to test, which multiplies <var>x</var> by 2 and adds 10 to <var>y</var>.
+     */
+    private final WKBTransform transform;
+
+    /**
+     * Creates a new test case.
+     */
+    public WKBTransformTest() {
+        transform = new WKBTransform(MathTransformFromGT.wrap(new AffineTransform2D(new AffineTransform(2, 0, 0, 1, 0, 10))));
+    }
+
+    /**
+     * Tests a big-endian extended <abbr>WKB</abbr> multi-polygon with <abbr>SRID</abbr>, which contains
+     * a little-endian <abbr>ISO</abbr> polygon with <var>z</var> and <var>m</var> coordinates.
+     *
+     * @throws TransformException if a coordinate cannot be transformed.
+     */
+    @Test
+    public void testMultiPolygon() throws TransformException {
+        final ByteBuffer wkb = ByteBuffer.allocate(1000);
+        wkb.order(ByteOrder.BIG_ENDIAN).put((byte) 0).putInt(0xE0000006).putInt(4326).putInt(1);
+        wkb.order(ByteOrder.LITTLE_ENDIAN).put((byte) 1).putInt(3003).putInt(1).putInt(4);
+        final int first = wkb.position();
+        for (int i=0; i<4; i++) {
+            wkb.putDouble(i).putDouble(-i).putDouble(100 + i).putDouble(200 + i);
+        }
+        final int end = wkb.flip().limit();
+        transform.transform(wkb);
+        assertEquals(end, wkb.position());
+        wkb.position(first);
+        for (int i=0; i<4; i++) {
+            assertEquals(2*i,     wkb.getDouble(), "x");
+            assertEquals(10 - i,  wkb.getDouble(), "y");
+            assertEquals(100 + i, wkb.getDouble(), "z");
+            assertEquals(200 + i, wkb.getDouble(), "m");
+        }
+    }
+
+    /**
+     * Tests the transformation of a line string into another buffer at a different position.
+     *
+     * @throws TransformException if a coordinate cannot be transformed.
+     */
+    @Test
+    public void testLineStringToOtherBuffer() throws TransformException {
+        final ByteBuffer source = ByteBuffer.allocate(9 + 16*3).order(ByteOrder.BIG_ENDIAN);
+        source.put((byte) 0).putInt(2).putInt(3);
+        source.putDouble(1).putDouble(2).putDouble(3).putDouble(4).putDouble(5).putDouble(6).flip();
+        final ByteBuffer target = ByteBuffer.allocate(source.limit() + 7).position(7);
+        transform.transform(source, target);
+        assertEquals(source.limit(), source.position());
+        assertEquals(target.limit(), target.position());
+        assertEquals(3,  target.getInt(7 + 5));
+        assertEquals(2,  target.getDouble(7 +  9));
+        assertEquals(12, target.getDouble(7 + 17));
+        assertEquals(10, target.getDouble(7 + 41));
+        assertEquals(16, target.getDouble(7 + 49));
+    }
+
+    /**
+     * Tests the detection of an unsupported geometry type.
+     */
+    @Test
+    public void testUnsupportedType() {
+        assertThrows(IllegalArgumentException.class, () -> transform.transform(new byte[] {1, 99, 0, 0, 0}));
+    }
+}